@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.compiler;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.waliedyassen.runescript.compiler.codegen.InstructionMap;
+import me.waliedyassen.runescript.compiler.codegen.opcode.CoreOpcode;
+import me.waliedyassen.runescript.compiler.env.CompilerEnvironment;
+import me.waliedyassen.runescript.compiler.idmapping.IDManager;
+import me.waliedyassen.runescript.compiler.lexer.token.Kind;
+import me.waliedyassen.runescript.compiler.syntax.ScriptSyntax;
+import me.waliedyassen.runescript.compiler.util.trigger.TriggerType;
+import me.waliedyassen.runescript.type.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles the {@link SyntheticCorpus} with id and code generation on a {@link ForkJoinPool} with {@link #threads}
+ * threads, each file of the corpus holds a single unit. The default corpus is made of 10,000 scripts.
+ * <p>
+ * The speedup of the parallel compilation is the ratio between the score of one thread and the score of the other
+ * thread counts, which is only meaningful on a machine with at least as many processors as threads.
+ *
+ * @author Walied K. Yassen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScriptCompilerBenchmark {
+
+    /**
+     * The amount of threads of the pool which compiles the corpus.
+     */
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    /**
+     * The amount of units in the corpus.
+     */
+    @Param({"5000"})
+    int units;
+
+    /**
+     * The pool which the compiler runs on.
+     */
+    ForkJoinPool pool;
+
+    /**
+     * The compiler of the benchmark.
+     */
+    ScriptCompiler compiler;
+
+    /**
+     * The corpus which is compiled.
+     */
+    Input input;
+
+    /**
+     * Creates the compiler and generates the corpus, the corpus is compiled once to ensure it has no errors.
+     *
+     * @throws IOException if anything occurs while compiling the corpus.
+     */
+    @Setup
+    public void setup() throws IOException {
+        pool = new ForkJoinPool(threads);
+        compiler = createCompiler(pool);
+        input = new Input();
+        input.setRunIdGeneration(true);
+        input.setRunCodeGeneration(true);
+        for (var index = 0; index < units; index++) {
+            var content = SyntheticCorpus.unit(index, units).getBytes(StandardCharsets.UTF_8);
+            input.addSourceFile(new SourceFile("synthetic", "unit_" + index, "cs2", content));
+        }
+        for (var compiledFile : compiler.compile(input).getFiles().values()) {
+            if (!compiledFile.getErrors().isEmpty()) {
+                throw new IllegalStateException("The synthetic corpus failed to compile: " + compiledFile.getErrors().get(0).getMessage());
+            }
+        }
+    }
+
+    /**
+     * Shuts down the pool of the compiler.
+     */
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Output<ScriptSyntax, CompiledScriptUnit> compile() throws IOException {
+        return compiler.compile(input);
+    }
+
+    /**
+     * Creates a new {@link ScriptCompiler} which knows the procedure and client script triggers and the core
+     * instructions, and which runs on the specified {@link ForkJoinPool}.
+     *
+     * @param pool the pool which the compiler runs on.
+     * @return the created {@link ScriptCompiler} object.
+     */
+    private static ScriptCompiler createCompiler(ForkJoinPool pool) {
+        var environment = new CompilerEnvironment();
+        for (var triggerType : BenchmarkTriggerType.values()) {
+            environment.registerTrigger(triggerType);
+        }
+        var instructionMap = new InstructionMap();
+        for (var opcode : CoreOpcode.values()) {
+            instructionMap.registerCore(opcode, opcode.ordinal(), opcode.isLargeOperand());
+        }
+        return ScriptCompiler.builder()
+                .withEnvironment(environment)
+                .withInstructionMap(instructionMap)
+                .withIdProvider(new BenchmarkIdManager())
+                .withForkJoinPool(pool)
+                .build();
+    }
+
+    /**
+     * The trigger types of the synthetic corpus.
+     *
+     * @author Walied K. Yassen
+     */
+    @RequiredArgsConstructor
+    enum BenchmarkTriggerType implements TriggerType {
+        PROC("proc", Kind.TILDE, CoreOpcode.GOSUB_WITH_PARAMS, true, true),
+        CLIENTSCRIPT("clientscript", null, null, true, false);
+
+        /**
+         * The representation of the trigger type.
+         */
+        @Getter
+        private final String representation;
+
+        /**
+         * The operator of the trigger type.
+         */
+        @Getter
+        private final Kind operator;
+
+        /**
+         * The opcode which calls scripts of the trigger type.
+         */
+        @Getter
+        private final CoreOpcode opcode;
+
+        /**
+         * Whether or not the scripts of the trigger type can have arguments.
+         */
+        private final boolean hasArguments;
+
+        /**
+         * Whether or not the scripts of the trigger type can have returns.
+         */
+        private final boolean hasReturns;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasArguments() {
+            return hasArguments;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Type[] getArgumentTypes() {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasReturns() {
+            return hasReturns;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Type[] getReturnTypes() {
+            return null;
+        }
+    }
+
+    /**
+     * An {@link IDManager} which assigns the script ids in the order they are first requested.
+     *
+     * @author Walied K. Yassen
+     */
+    static final class BenchmarkIdManager implements IDManager {
+
+        /**
+         * The ids of the scripts mapped by their full names.
+         */
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized int findOrCreateScriptId(String name, String extension) {
+            return ids.computeIfAbsent(name + "." + extension, key -> ids.size());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized int findScript(String name, String extension) {
+            var id = ids.get(name + "." + extension);
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown script: " + name);
+            }
+            return id;
+        }
+    }
+}
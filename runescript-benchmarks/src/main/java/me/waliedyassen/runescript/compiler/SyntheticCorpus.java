@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.compiler;
+
+/**
+ * Generates synthetic RuneScript sources for the benchmarks, the sources only use the language itself and no commands
+ * so they can be compiled without any command or config definitions.
+ * <p>
+ * Each unit of the corpus is made of a procedure and a client script, the client script calls the procedure of its
+ * own unit and the procedure of the next unit.
+ *
+ * @author Walied K. Yassen
+ */
+public final class SyntheticCorpus {
+
+    /**
+     * The amount of scripts in each unit of the corpus.
+     */
+    public static final int SCRIPTS_PER_UNIT = 2;
+
+    /**
+     * Generates the source code of the unit with the specified index.
+     *
+     * @param index the index of the unit.
+     * @param count the amount of units in the corpus.
+     * @return the source code of the unit.
+     */
+    public static String unit(int index, int count) {
+        var next = (index + 1) % count;
+        var builder = new StringBuilder(1024);
+        builder.append("// formats the entry ").append(index).append(" of the synthetic corpus.\n");
+        builder.append("[proc,format_").append(index).append("](int $amount, string $name)(string)\n");
+        builder.append("def_int $total = calc($amount * 3 + ").append(index).append(");\n");
+        builder.append("def_int $index = 0;\n");
+        builder.append("while ($index < 10) {\n");
+        builder.append("    $total = calc($total + $index * 2 - ($total / 7));\n");
+        builder.append("    $index = calc($index + 1);\n");
+        builder.append("}\n");
+        builder.append("if ($total >= 1000) {\n");
+        builder.append("    return(\"\\<col=ff0000\\><$name>\\</col\\> is too expensive\");\n");
+        builder.append("} else if ($total < 0) {\n");
+        builder.append("    return(\"<$name> is free\");\n");
+        builder.append("}\n");
+        builder.append("return(\"\\<col=ff9040\\><$name>\\</col\\>\");\n\n");
+        builder.append("[clientscript,main_").append(index).append("]\n");
+        builder.append("def_string $line = ~format_").append(index).append("(").append(index).append(", \"item_").append(index).append("\");\n");
+        builder.append("def_string $other = ~format_").append(next).append("(calc(").append(index).append(" % 100), \"<$line> again\");\n");
+        builder.append("def_int $flags = calc(").append(index).append(" & 255 | 4096);\n");
+        builder.append("if ($flags = 4096 & $line ! $other) {\n");
+        builder.append("    $line = \"<$line>\\<br\\><$other>\";\n");
+        builder.append("}\n\n");
+        return builder.toString();
+    }
+
+    /**
+     * Generates the source code of the specified range of units as a single file.
+     *
+     * @param from  the index of the first unit in the file.
+     * @param units the amount of units in the file.
+     * @param count the amount of units in the corpus.
+     * @return the source code of the file.
+     */
+    public static String file(int from, int units, int count) {
+        var builder = new StringBuilder(units * 1024);
+        for (var index = from; index < from + units; index++) {
+            builder.append(unit(index, count));
+        }
+        return builder.toString();
+    }
+
+    private SyntheticCorpus() {
+        // NOOP
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.compiler.lexer.tokenizer;
+
+import me.waliedyassen.runescript.commons.stream.BufferedCharStream;
+import me.waliedyassen.runescript.compiler.ScriptCompiler;
+import me.waliedyassen.runescript.compiler.SyntheticCorpus;
+import me.waliedyassen.runescript.compiler.error.ErrorReporter;
+import me.waliedyassen.runescript.compiler.lexer.token.Kind;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizes the largest {@code .cs2} files of a script directory, or the files of the {@link SyntheticCorpus} when no
+ * directory is specified. A real directory is passed with {@code -p sources=<directory>}.
+ *
+ * @author Walied K. Yassen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    /**
+     * The amount of corpus units in each synthetic file.
+     */
+    private static final int UNITS_PER_FILE = 32;
+
+    /**
+     * The directory which contains the {@code .cs2} files, or an empty string to use the synthetic corpus.
+     */
+    @Param({""})
+    String sources;
+
+    /**
+     * The amount of the largest files to tokenize.
+     */
+    @Param({"10"})
+    int files;
+
+    /**
+     * The contents of the files which are tokenized.
+     */
+    char[][] contents;
+
+    /**
+     * The error reporter of the tokenizers.
+     */
+    ErrorReporter errorReporter;
+
+    /**
+     * Loads or generates the files of the benchmark.
+     *
+     * @throws IOException if anything occurs while reading the files.
+     */
+    @Setup
+    public void setup() throws IOException {
+        errorReporter = new ErrorReporter();
+        if (sources.isEmpty()) {
+            var count = files * UNITS_PER_FILE;
+            contents = new char[files][];
+            for (var index = 0; index < files; index++) {
+                contents[index] = SyntheticCorpus.file(index * UNITS_PER_FILE, UNITS_PER_FILE, count).toCharArray();
+            }
+            return;
+        }
+        var paths = new ArrayList<Path>();
+        try (var stream = Files.walk(Path.of(sources))) {
+            stream.filter(path -> path.getFileName().toString().endsWith(".cs2")).forEach(paths::add);
+        }
+        if (paths.isEmpty()) {
+            throw new IOException("No .cs2 files were found in: " + sources);
+        }
+        paths.sort(Comparator.comparingLong(TokenizerBenchmark::size).reversed());
+        contents = new char[Math.min(files, paths.size())][];
+        for (var index = 0; index < contents.length; index++) {
+            contents[index] = new String(Files.readAllBytes(paths.get(index)), StandardCharsets.UTF_8).toCharArray();
+        }
+    }
+
+    @Benchmark
+    public int tokenize() {
+        var tokens = 0;
+        var table = ScriptCompiler.getSharedLexicalTable();
+        for (var content : contents) {
+            var tokenizer = new Tokenizer(errorReporter, table, new BufferedCharStream(content));
+            while (tokenizer.parse().getKind() != Kind.EOF) {
+                tokens++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the size of the file at the specified path.
+     *
+     * @param path the path of the file.
+     * @return the size of the file in bytes.
+     */
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the primitive operand stacks of the {@link ScriptRuntime} against the {@link Stack} based stacks which the
+ * runtime used before, each invocation pushes {@link #depth} values and then pops all of them back.
+ * <p>
+ * The pushed values are outside of the {@link Integer} and {@link Long} caches, so the boxed stacks allocate for every
+ * push like they do for most of the values of a real script.
+ *
+ * @author Walied K. Yassen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperandStackBenchmark {
+
+    /**
+     * The amount of values that are pushed and then popped by each invocation.
+     */
+    @Param({"4", "32"})
+    int depth;
+
+    /**
+     * The runtime whose primitive stacks are measured.
+     */
+    BenchmarkRuntime runtime;
+
+    /**
+     * The int stack in the form the runtime used to keep it.
+     */
+    Stack<Integer> intStack;
+
+    /**
+     * The long stack in the form the runtime used to keep it.
+     */
+    Stack<Long> longStack;
+
+    /**
+     * Creates the stacks of the benchmark.
+     */
+    @Setup
+    public void setup() {
+        runtime = new BenchmarkRuntime();
+        intStack = new Stack<>();
+        longStack = new Stack<>();
+    }
+
+    @Benchmark
+    public int primitiveInt() {
+        for (var index = 0; index < depth; index++) {
+            runtime.pushInt(1000 + index);
+        }
+        var sum = 0;
+        for (var index = 0; index < depth; index++) {
+            sum += runtime.popInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int boxedInt() {
+        for (var index = 0; index < depth; index++) {
+            intStack.push(1000 + index);
+        }
+        var sum = 0;
+        for (var index = 0; index < depth; index++) {
+            sum += intStack.pop();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long primitiveLong() {
+        for (var index = 0; index < depth; index++) {
+            runtime.pushLong(1000L + index);
+        }
+        var sum = 0L;
+        for (var index = 0; index < depth; index++) {
+            sum += runtime.popLong();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long boxedLong() {
+        for (var index = 0; index < depth; index++) {
+            longStack.push(1000L + index);
+        }
+        var sum = 0L;
+        for (var index = 0; index < depth; index++) {
+            sum += longStack.pop();
+        }
+        return sum;
+    }
+
+    /**
+     * A {@link ScriptRuntime} which is not owned by any pool.
+     *
+     * @author Walied K. Yassen
+     */
+    static final class BenchmarkRuntime extends ScriptRuntime {
+
+        /**
+         * Constructs a new {@link BenchmarkRuntime} type object instance.
+         */
+        BenchmarkRuntime() {
+            super(null);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.ScriptRuntimePool;
+import me.waliedyassen.runescript.runtime.cache.ScriptCache;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes typical chat and interface string concatenation scripts with the pooled {@code join_string} of the runtime
+ * and with the previous {@code join_string}, which read the joined values twice, allocated a new {@link StringBuilder}
+ * for each join and popped the values one by one.
+ *
+ * @author Walied K. Yassen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinStringBenchmark {
+
+    private static final int PUSH_CONSTANT_STRING = 3;
+    private static final int PUSH_STRING_LOCAL = 35;
+    private static final int POP_STRING_LOCAL = 36;
+    private static final int JOIN_STRING = 37;
+    private static final int RETURN = 21;
+
+    /**
+     * The previous implementation of the {@code join_string} instruction.
+     */
+    private static final InstructionExecutor<ScriptRuntime> PREVIOUS_JOIN_STRING = runtime -> {
+        var count = runtime.intOperand();
+        var stack = runtime.getStringStack();
+        var size = 0;
+        for (var index = 0; index < count; index++) {
+            var value = stack[runtime.getStringStackSize() - count + index];
+            size += value == null ? 4 : value.length();
+        }
+        var builder = new StringBuilder(size);
+        for (var index = 0; index < count; index++) {
+            builder.append(stack[runtime.getStringStackSize() - count + index]);
+        }
+        for (var index = 0; index < count; index++) {
+            runtime.popString();
+        }
+        runtime.pushString(builder.toString());
+    };
+
+    /**
+     * Whether to execute the scripts with the pooled {@code join_string} or with the previous one.
+     */
+    @Param({"pooled", "previous"})
+    String join;
+
+    /**
+     * The executor of the scripts.
+     */
+    ScriptExecutor<BenchmarkRuntime> executor;
+
+    /**
+     * The runtime which the scripts are executed in.
+     */
+    BenchmarkRuntime runtime;
+
+    /**
+     * The chat message script.
+     */
+    Script chat;
+
+    /**
+     * The interface tooltip script.
+     */
+    Script tooltip;
+
+    /**
+     * Creates the executor and the scripts of the benchmark.
+     */
+    @Setup
+    public void setup() {
+        var executorMap = new InstructionExecutorMap();
+        executorMap.register(PUSH_CONSTANT_STRING, CoreOps.PUSH_CONSTANT_STRING);
+        executorMap.register(PUSH_STRING_LOCAL, CoreOps.PUSH_STRING_LOCAL);
+        executorMap.register(POP_STRING_LOCAL, CoreOps.POP_STRING_LOCAL);
+        executorMap.register(JOIN_STRING, join.equals("pooled") ? CoreOps.JOIN_STRING : PREVIOUS_JOIN_STRING);
+        executorMap.register(RETURN, CoreOps.RETURN);
+        executorMap.freeze();
+        executor = new ScriptExecutor<>(1, new EmptyCache(), BenchmarkRuntime::new, executorMap);
+        runtime = executor.getPool().pop();
+        // $name = "Zezima"; $message = "Selling ..."; $line = "<col=0000ff><$name><col=000000>: <$message>";
+        chat = script("chat", new int[]{
+                PUSH_CONSTANT_STRING, POP_STRING_LOCAL,
+                PUSH_CONSTANT_STRING, POP_STRING_LOCAL,
+                PUSH_CONSTANT_STRING, PUSH_STRING_LOCAL, PUSH_CONSTANT_STRING, PUSH_STRING_LOCAL, JOIN_STRING, POP_STRING_LOCAL,
+                RETURN
+        }, new Object[]{
+                "Zezima", 0,
+                "Selling rune platebody 38k, pm me", 1,
+                "<col=0000ff>", 0, "<col=000000>: ", 1, 4, 2,
+                null
+        }, 3);
+        // $item, $amount, $value and $examine are set, then joined into a multi-line tooltip.
+        tooltip = script("tooltip", new int[]{
+                PUSH_CONSTANT_STRING, POP_STRING_LOCAL,
+                PUSH_CONSTANT_STRING, POP_STRING_LOCAL,
+                PUSH_CONSTANT_STRING, POP_STRING_LOCAL,
+                PUSH_CONSTANT_STRING, POP_STRING_LOCAL,
+                PUSH_CONSTANT_STRING, PUSH_STRING_LOCAL, PUSH_CONSTANT_STRING, PUSH_STRING_LOCAL,
+                PUSH_CONSTANT_STRING, PUSH_CONSTANT_STRING, PUSH_STRING_LOCAL, PUSH_CONSTANT_STRING,
+                PUSH_CONSTANT_STRING, PUSH_STRING_LOCAL, JOIN_STRING, POP_STRING_LOCAL,
+                RETURN
+        }, new Object[]{
+                "Abyssal whip", 0,
+                "1", 1,
+                "1,785,423", 2,
+                "A weapon from the abyss.", 3,
+                "<col=ff9040>", 0, "</col> x", 1,
+                "<br>", "Value: ", 2, " coins",
+                "<br>", 3, 10, 4,
+                null
+        }, 5);
+    }
+
+    @Benchmark
+    public String chat() {
+        return execute(chat);
+    }
+
+    @Benchmark
+    public String tooltip() {
+        return execute(tooltip);
+    }
+
+    /**
+     * Executes the specified {@link Script} and returns the last string local it stored.
+     *
+     * @param script the script to execute.
+     * @return the joined string of the script.
+     */
+    private String execute(Script script) {
+        executor.execute(runtime, script);
+        var result = runtime.getStringLocals()[script.getNumStringLocals() - 1];
+        runtime.reset();
+        return result;
+    }
+
+    /**
+     * Creates a new {@link Script} with the specified amount of string locals and no other locals or arguments.
+     *
+     * @param name            the name of the script.
+     * @param instructions    the instructions of the script.
+     * @param operands        the operands of the script.
+     * @param numStringLocals the amount of string locals of the script.
+     * @return the created {@link Script} object.
+     */
+    @SuppressWarnings("unchecked")
+    private static Script script(String name, int[] instructions, Object[] operands, int numStringLocals) {
+        return new Script(name, instructions, operands, 0, numStringLocals, 0, 0, 0, 0, new Hashtable[0]);
+    }
+
+    /**
+     * A {@link ScriptRuntime} for the benchmark scripts.
+     *
+     * @author Walied K. Yassen
+     */
+    static final class BenchmarkRuntime extends ScriptRuntime {
+
+        /**
+         * Constructs a new {@link BenchmarkRuntime} type object instance.
+         *
+         * @param pool the pool which owns the runtime.
+         */
+        BenchmarkRuntime(ScriptRuntimePool<BenchmarkRuntime> pool) {
+            super(pool);
+        }
+    }
+
+    /**
+     * A {@link ScriptCache} without any scripts, the benchmark scripts do not call other scripts.
+     *
+     * @author Walied K. Yassen
+     */
+    static final class EmptyCache extends ScriptCache {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Script get(int id) {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Script get(String name) {
+            return null;
+        }
+    }
+}
@@ -130,6 +130,22 @@ public final class BufferedCharStream implements CharStream {
         return pos;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] array() {
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String substring(int start, int end) {
+        return new String(buffer, start, end - start);
+    }
+
     /**
      * Returns the current line number the stream is at.
      *
@@ -68,4 +68,24 @@ public interface CharStream {
      * @return the current position.
      */
     int position();
+
+    /**
+     * Returns the array which backs the stream, indexed by the position of the characters. The array is shared with the
+     * stream and must not be modified.
+     *
+     * @return the backing array of the stream.
+     */
+    char[] array();
+
+    /**
+     * Creates a new {@link String} that contains the characters within the specified range of the stream.
+     *
+     * @param start
+     *         the start position of the range, inclusive.
+     * @param end
+     *         the end position of the range, exclusive.
+     *
+     * @return the created {@link String} object.
+     */
+    String substring(int start, int end);
 }
@@ -12,7 +12,7 @@ import me.waliedyassen.runescript.compiler.syntax.SyntaxBase;
 import me.waliedyassen.runescript.util.ChecksumUtil;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,10 +26,10 @@ import java.util.Map;
 public final class Output<S extends SyntaxBase, U extends CompiledUnit<S>> {
 
     /**
-     * A map of all the {@link CompiledFile} objects.
+     * A map of all the {@link CompiledFile} objects, in the order they were added.
      */
     @Getter
-    private final Map<String, CompiledFile<S, U>> files = new HashMap<>();
+    private final Map<String, CompiledFile<S, U>> files = new LinkedHashMap<>();
 
     /**
      * Adds a compiled unit to this output object.
@@ -12,11 +12,12 @@ import lombok.RequiredArgsConstructor;
 import me.waliedyassen.runescript.commons.document.Span;
 import me.waliedyassen.runescript.compiler.lexer.token.Token;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents the base class for all of our lexical parsers.
+ * <p>
+ * The tokens are fetched on demand as the parser asks for them, and only the tokens within the lookahead window and
+ * the previous token are kept in a fixed size ring buffer, which lets the parsing start right away and keeps the
+ * memory usage bounded regardless of the source size.
  *
  * @param <K> the tokenizer token type.
  * @author Walied K. Yassen
@@ -25,9 +26,20 @@ import java.util.List;
 public abstract class LexerBase<K, T extends Token<K>> {
 
     /**
-     * The list of the {@linkplain Token}s that are availabe to this lexer.
+     * The capacity of the tokens ring buffer, must be a power of two.
+     */
+    private static final int BUFFER_CAPACITY = 16;
+
+    /**
+     * The maximum distance that can be looked-ahead from the current token, one slot of the buffer is reserved for the
+     * previous token.
+     */
+    public static final int MAX_LOOKAHEAD = BUFFER_CAPACITY - 2;
+
+    /**
+     * The ring buffer of the fetched tokens, each token is stored at its index masked by the buffer capacity.
      */
-    protected final List<T> tokens = new ArrayList<>();
+    private final Object[] buffer = new Object[BUFFER_CAPACITY];
 
     /**
      * The start range of the lexer.
@@ -40,16 +52,34 @@ public abstract class LexerBase<K, T extends Token<K>> {
      */
     protected int index;
 
+    /**
+     * The amount of tokens that were fetched so far.
+     */
+    private int fetched;
+
+    /**
+     * Whether or not all of the tokens were fetched.
+     */
+    private boolean exhausted;
+
+    /**
+     * Fetches the next {@link T token} from the source of the lexer.
+     *
+     * @return the next {@link T} object or {@code null} if there was no more tokens.
+     */
+    protected abstract T fetch();
+
     /**
      * Gets the {@link Token} object at the current pointer index and then increment the pointer index.
      *
      * @return the {@link Token} object if it was present otherwise {@code null}.
      */
     public T take() {
-        if (index >= tokens.size()) {
-            return null;
+        var token = lookahead(0);
+        if (token != null) {
+            index++;
         }
-        return tokens.get(index++);
+        return token;
     }
 
     /**
@@ -58,19 +88,19 @@ public abstract class LexerBase<K, T extends Token<K>> {
      * @return the {@link T} object if it was present otherwise {@code null}.
      */
     public T peek() {
-        if (index >= tokens.size()) {
-            return null;
-        }
-        return tokens.get(index);
+        return lookahead(0);
     }
 
     /**
      * Gets the previous {@link T token} to the current token.
      *
-     * @return the previous {@link T} object.
+     * @return the previous {@link T} object or {@code null} if no tokens were taken yet.
      */
     public T previous() {
-        return tokens.get(index - 1);
+        if (index == 0) {
+            return null;
+        }
+        return get(index - 1);
     }
 
     /**
@@ -78,33 +108,45 @@ public abstract class LexerBase<K, T extends Token<K>> {
      *
      * @param n the distance which the token is located at from the current index.
      * @return the {@link Token} if it was present otherwise {@code null}.
+     * @throws IllegalArgumentException if the distance is greater than {@link #MAX_LOOKAHEAD}.
      */
     public T lookahead(int n) {
-        if (index + n >= tokens.size()) {
+        if (n > MAX_LOOKAHEAD) {
+            throw new IllegalArgumentException("The lookahead distance must not be greater than " + MAX_LOOKAHEAD);
+        }
+        var position = index + n;
+        while (fetched <= position && !exhausted) {
+            var token = fetch();
+            if (token == null) {
+                exhausted = true;
+            } else {
+                buffer[fetched++ & (BUFFER_CAPACITY - 1)] = token;
+            }
+        }
+        if (position >= fetched) {
             return null;
         }
-        return tokens.get(index + n);
+        return get(position);
     }
 
     /**
-     * Gets the last {@link Token} in the tokens list.
+     * Checks whether or not there is one or more tokens remaining in the lexer.
      *
-     * @return the last {@link Token}.
+     * @return <code>true</code> if there is otherwise <code>false</code>.
      */
-    public T last() {
-        if (tokens.isEmpty()) {
-            return null;
-        }
-        return tokens.get(tokens.size() - 1);
+    public boolean hasRemaining() {
+        return peek() != null;
     }
 
     /**
-     * Gets the amount of the remaining tokens.
+     * Returns the token at the specified index from the ring buffer.
      *
-     * @return the amount of the remaining tokens.
+     * @param index the index of the token, must be within the buffered window.
+     * @return the {@link T} object.
      */
-    public int remaining() {
-        return tokens.size() - index;
+    @SuppressWarnings("unchecked")
+    private T get(int index) {
+        return (T) buffer[index & (BUFFER_CAPACITY - 1)];
     }
 
     public int getIndex() {
@@ -20,6 +20,58 @@ import me.waliedyassen.runescript.compiler.lexer.token.TokenFactory;
 @RequiredArgsConstructor
 public abstract class TokenizerBase<K, T extends Token<K>> {
 
+    /**
+     * The class flag of the whitespace characters.
+     */
+    private static final byte WHITESPACE = 0x1;
+
+    /**
+     * The class flag of the decimal digit characters.
+     */
+    private static final byte DIGIT = 0x2;
+
+    /**
+     * The class flag of the hexadecimal digit characters.
+     */
+    private static final byte HEX_DIGIT = 0x4;
+
+    /**
+     * The class flag of the characters which can start an identifier.
+     */
+    private static final byte IDENTIFIER_START = 0x8;
+
+    /**
+     * The class flag of the characters which can be part of an identifier.
+     */
+    private static final byte IDENTIFIER_PART = 0x10;
+
+    /**
+     * The class flags of each of the ASCII characters, indexed by the character value.
+     */
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (var ch = (char) 0; ch < ASCII_CLASSES.length; ch++) {
+            var flags = 0;
+            if (Character.isWhitespace(ch)) {
+                flags |= WHITESPACE;
+            }
+            if (ch >= '0' && ch <= '9') {
+                flags |= DIGIT | HEX_DIGIT | IDENTIFIER_PART;
+            }
+            if (ch >= 'a' && ch <= 'f' || ch >= 'A' && ch <= 'F') {
+                flags |= HEX_DIGIT;
+            }
+            if (ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch == '_') {
+                flags |= IDENTIFIER_START | IDENTIFIER_PART;
+            }
+            if (ch == ':' || ch == '+') {
+                flags |= IDENTIFIER_PART;
+            }
+            ASCII_CLASSES[ch] = (byte) flags;
+        }
+    }
+
     /**
      * The error reporter we will use to report erroneous input.
      */
@@ -46,7 +98,7 @@ public abstract class TokenizerBase<K, T extends Token<K>> {
      * @return <code>true</code> if it can otherwise <code>false</code>.
      */
     public static boolean isIdentifierStart(char ch) {
-        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch == '_';
+        return ch < ASCII_CLASSES.length && (ASCII_CLASSES[ch] & IDENTIFIER_START) != 0;
     }
 
     /**
@@ -58,6 +110,51 @@ public abstract class TokenizerBase<K, T extends Token<K>> {
      * @return <code>true</code> if it can otherwise <code>false</code>.
      */
     public static boolean isIdentifierPart(char ch) {
-        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9' || ch == '_' || ch == ':' || ch == '+';
+        return ch < ASCII_CLASSES.length && (ASCII_CLASSES[ch] & IDENTIFIER_PART) != 0;
+    }
+
+    /**
+     * Checks whether or not the specified character is a whitespace character.
+     *
+     * @param ch
+     *         the character to check.
+     *
+     * @return <code>true</code> if it is otherwise <code>false</code>.
+     */
+    public static boolean isWhitespace(char ch) {
+        if (ch < ASCII_CLASSES.length) {
+            return (ASCII_CLASSES[ch] & WHITESPACE) != 0;
+        }
+        return Character.isWhitespace(ch);
+    }
+
+    /**
+     * Checks whether or not the specified character is a decimal digit character.
+     *
+     * @param ch
+     *         the character to check.
+     *
+     * @return <code>true</code> if it is otherwise <code>false</code>.
+     */
+    public static boolean isDigit(char ch) {
+        if (ch < ASCII_CLASSES.length) {
+            return (ASCII_CLASSES[ch] & DIGIT) != 0;
+        }
+        return Character.isDigit(ch);
+    }
+
+    /**
+     * Checks whether or not the specified character is a hexadecimal digit character.
+     *
+     * @param ch
+     *         the character to check.
+     *
+     * @return <code>true</code> if it is otherwise <code>false</code>.
+     */
+    public static boolean isHexDigit(char ch) {
+        if (ch < ASCII_CLASSES.length) {
+            return (ASCII_CLASSES[ch] & HEX_DIGIT) != 0;
+        }
+        return Character.isDigit(ch);
     }
 }
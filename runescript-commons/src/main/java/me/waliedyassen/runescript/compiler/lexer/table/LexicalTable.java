@@ -9,6 +9,8 @@ package me.waliedyassen.runescript.compiler.lexer.table;
 
 import lombok.Getter;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -16,6 +18,10 @@ import java.util.Objects;
 /**
  * Represents the symbol table for the lexical phase of the compilation process, it holds all the symbols that we need
  * during the tokenizing process, whether it is being a separator, a keyword or an operator etc..
+ * <p>
+ * The table keeps precomputed lookup structures next to the registered symbols, so it can be queried per character
+ * without boxing or hashing. Once the table is {@link #freeze() frozen} it cannot be changed anymore, which lets a
+ * single table be shared by any amount of compilers and threads.
  *
  * @param <K>
  *         the lexical token kind type.
@@ -24,33 +30,71 @@ import java.util.Objects;
  */
 public final class LexicalTable<K> {
 
+    /**
+     * The amount of characters which have their separator looked-up through the {@link #asciiSeparators} array.
+     */
+    private static final int ASCII_SIZE = 128;
+
     /**
      * The registered keywords.
      */
-    @Getter
     private final Map<String, K> keywords = new HashMap<>();
 
     /**
      * The registered separators.
      */
-    @Getter
     private final Map<Character, K> separators = new HashMap<>();
 
     /**
      * The registered operators.
      */
-    @Getter
     private final Map<String, K> operators = new HashMap<>();
 
+    /**
+     * The read-only view of the registered keywords.
+     */
+    private final Map<String, K> keywordsView = Collections.unmodifiableMap(keywords);
+
+    /**
+     * The read-only view of the registered separators.
+     */
+    private final Map<Character, K> separatorsView = Collections.unmodifiableMap(separators);
+
+    /**
+     * The read-only view of the registered operators.
+     */
+    private final Map<String, K> operatorsView = Collections.unmodifiableMap(operators);
+
+    /**
+     * The keywords lookup table, which can be queried using any {@link CharSequence}.
+     */
+    private final SequenceTable<K> keywordTable = new SequenceTable<>();
+
+    /**
+     * The operators lookup table, which can be queried using any {@link CharSequence}.
+     */
+    private final SequenceTable<K> operatorTable = new SequenceTable<>();
+
+    /**
+     * The separators of the ASCII characters, indexed by the character value.
+     */
+    private final Object[] asciiSeparators = new Object[ASCII_SIZE];
+
+    /**
+     * The characters which start at least one of the registered operators.
+     */
+    private final BitSet operatorStarts = new BitSet(ASCII_SIZE);
+
     /**
      * The operator max size.
      */
     private int operatorSize;
 
     /**
-     * The operator starts.
+     * Whether or not the table was frozen.
      */
-    private String operatorStarts;
+    @Getter
+    private boolean frozen;
 
     /**
      * Registers a new keyword into the table.
@@ -62,15 +106,19 @@ public final class LexicalTable<K> {
      *
      * @throws IllegalArgumentException
      *         if the keyword was already registered.
+     * @throws IllegalStateException
+     *         if the table was frozen.
      */
     public void registerKeyword(String word, K kind) {
         Objects.requireNonNull(word, "word");
         Objects.requireNonNull(kind, "kind");
+        checkNotFrozen();
         word = word.toLowerCase();
         if (keywords.containsKey(word)) {
             throw new IllegalArgumentException("The specified keyword was already registered.");
         }
         keywords.put(word, kind);
+        keywordTable.put(word, kind);
     }
 
     /**
@@ -81,8 +129,40 @@ public final class LexicalTable<K> {
      *
      * @return the {@link K} of the keyword if it was present otherwise {@code null}.
      */
-    public K lookupKeyword(String word) {
-        return keywords.get(word);
+    public K lookupKeyword(CharSequence word) {
+        return keywordTable.get(word, 0, word.length());
+    }
+
+    /**
+     * Looks-up the {@link K} for the keyword within the specified range of the character sequence.
+     *
+     * @param sequence
+     *         the character sequence which contains the keyword text.
+     * @param start
+     *         the start index of the keyword text, inclusive.
+     * @param end
+     *         the end index of the keyword text, exclusive.
+     *
+     * @return the {@link K} of the keyword if it was present otherwise {@code null}.
+     */
+    public K lookupKeyword(CharSequence sequence, int start, int end) {
+        return keywordTable.get(sequence, start, end);
+    }
+
+    /**
+     * Looks-up the {@link K} for the keyword within the specified range of the character array.
+     *
+     * @param buffer
+     *         the character array which contains the keyword text.
+     * @param start
+     *         the start index of the keyword text, inclusive.
+     * @param end
+     *         the end index of the keyword text, exclusive.
+     *
+     * @return the {@link K} of the keyword if it was present otherwise {@code null}.
+     */
+    public K lookupKeyword(char[] buffer, int start, int end) {
+        return keywordTable.get(buffer, start, end);
     }
 
     /**
@@ -91,10 +171,10 @@ public final class LexicalTable<K> {
      * @param word
      *         the word to check if it is whether a keyword or not
      *
-     * @return <code>true</code> if the specified <code>word</code> is a keyword otherwise {@code null}.
+     * @return <code>true</code> if the specified <code>word</code> is a keyword otherwise <code>false</code>.
      */
-    public boolean isKeyword(String word) {
-        return keywords.containsKey(word);
+    public boolean isKeyword(CharSequence word) {
+        return lookupKeyword(word) != null;
     }
 
     /**
@@ -107,13 +187,19 @@ public final class LexicalTable<K> {
      *
      * @throws IllegalArgumentException
      *         if the separator was already registered.
+     * @throws IllegalStateException
+     *         if the table was frozen.
      */
     public void registerSeparator(char character, K kind) {
         Objects.requireNonNull(kind, "kind");
+        checkNotFrozen();
         if (separators.containsKey(character)) {
             throw new IllegalArgumentException("The specified separator was already registered.");
         }
         separators.put(character, kind);
+        if (character < ASCII_SIZE) {
+            asciiSeparators[character] = kind;
+        }
     }
 
     /**
@@ -124,7 +210,11 @@ public final class LexicalTable<K> {
      *
      * @return the {@link K} of the separator if it was present otherwise {@code null}.
      */
+    @SuppressWarnings("unchecked")
     public K lookupSeparator(char character) {
+        if (character < ASCII_SIZE) {
+            return (K) asciiSeparators[character];
+        }
         return separators.get(character);
     }
 
@@ -134,9 +224,12 @@ public final class LexicalTable<K> {
      * @param character
      *         the word to check if it is whether a separator or not
      *
-     * @return <code>true</code> if the specified <code>character</code> is a separator otherwise {@code null}.
+     * @return <code>true</code> if the specified <code>character</code> is a separator otherwise <code>false</code>.
      */
     public boolean isSeparator(char character) {
+        if (character < ASCII_SIZE) {
+            return asciiSeparators[character] != null;
+        }
         return separators.containsKey(character);
     }
 
@@ -150,10 +243,13 @@ public final class LexicalTable<K> {
      *
      * @throws IllegalArgumentException
      *         if the operator was already registered.
+     * @throws IllegalStateException
+     *         if the table was frozen.
      */
     public void registerOperator(String sequence, K kind) {
         Objects.requireNonNull(sequence, "sequence");
         Objects.requireNonNull(kind, "kind");
+        checkNotFrozen();
         if (sequence.length() < 1) {
             throw new IllegalArgumentException("The operator size must be greater than zero!");
         }
@@ -161,7 +257,8 @@ public final class LexicalTable<K> {
             throw new IllegalArgumentException("The specifie operator was already registered.");
         }
         operators.put(sequence, kind);
-        operatorStarts += sequence.charAt(0);
+        operatorTable.put(sequence, kind);
+        operatorStarts.set(sequence.charAt(0));
         if (sequence.length() > operatorSize) {
             operatorSize = sequence.length();
         }
@@ -175,8 +272,40 @@ public final class LexicalTable<K> {
      *
      * @return the {@link K} of the operator if it was present otherwise {@code null}.
      */
-    public K lookupOperator(String sequence) {
-        return operators.get(sequence);
+    public K lookupOperator(CharSequence sequence) {
+        return operatorTable.get(sequence, 0, sequence.length());
+    }
+
+    /**
+     * Looks-up the operator token {@link K} for the operator within the specified range of the character sequence.
+     *
+     * @param sequence
+     *         the character sequence which contains the operator sequence.
+     * @param start
+     *         the start index of the operator sequence, inclusive.
+     * @param end
+     *         the end index of the operator sequence, exclusive.
+     *
+     * @return the {@link K} of the operator if it was present otherwise {@code null}.
+     */
+    public K lookupOperator(CharSequence sequence, int start, int end) {
+        return operatorTable.get(sequence, start, end);
+    }
+
+    /**
+     * Looks-up the operator token {@link K} for the operator within the specified range of the character array.
+     *
+     * @param buffer
+     *         the character array which contains the operator sequence.
+     * @param start
+     *         the start index of the operator sequence, inclusive.
+     * @param end
+     *         the end index of the operator sequence, exclusive.
+     *
+     * @return the {@link K} of the operator if it was present otherwise {@code null}.
+     */
+    public K lookupOperator(char[] buffer, int start, int end) {
+        return operatorTable.get(buffer, start, end);
     }
 
     /**
@@ -185,10 +314,10 @@ public final class LexicalTable<K> {
      * @param sequence
      *         the word to check if it is whether a operator or not
      *
-     * @return <code>true</code> if the specified <code>sequence</code> is a operator otherwise {@code null}.
+     * @return <code>true</code> if the specified <code>sequence</code> is a operator otherwise <code>false</code>.
      */
-    public boolean isOperator(String sequence) {
-        return operators.containsKey(sequence);
+    public boolean isOperator(CharSequence sequence) {
+        return lookupOperator(sequence) != null;
     }
 
     /**
@@ -200,11 +329,7 @@ public final class LexicalTable<K> {
      * @return <code>true</code> if it was otherwise <code>false</code>.
      */
     public boolean isOperatorStart(char character) {
-        if (operatorStarts == null) {
-            // no operators were registered.
-            return false;
-        }
-        return operatorStarts.indexOf(character) != -1;
+        return operatorStarts.get(character);
     }
 
     /**
@@ -216,4 +341,277 @@ public final class LexicalTable<K> {
         return operatorSize;
     }
 
+    /**
+     * Returns the read-only view of the registered keywords.
+     *
+     * @return the registered keywords.
+     */
+    public Map<String, K> getKeywords() {
+        return keywordsView;
+    }
+
+    /**
+     * Returns the read-only view of the registered separators.
+     *
+     * @return the registered separators.
+     */
+    public Map<Character, K> getSeparators() {
+        return separatorsView;
+    }
+
+    /**
+     * Returns the read-only view of the registered operators.
+     *
+     * @return the registered operators.
+     */
+    public Map<String, K> getOperators() {
+        return operatorsView;
+    }
+
+    /**
+     * Freezes the table, no more symbols can be registered into the table after it was frozen.
+     *
+     * @return this {@link LexicalTable} object instance.
+     */
+    public LexicalTable<K> freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Checks whether or not the table was frozen, and throws an exception if it was.
+     *
+     * @throws IllegalStateException
+     *         if the table was frozen.
+     */
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("The lexical table was frozen and cannot be changed anymore.");
+        }
+    }
+
+    /**
+     * An open addressing hash table from character sequences to values, which allows looking-up the values using any
+     * {@link CharSequence} or a range of a character array without having to convert it to a {@link String} first.
+     *
+     * @param <V>
+     *         the type of the values.
+     *
+     * @author Walied K. Yassen
+     */
+    private static final class SequenceTable<V> {
+
+        /**
+         * The keys of the table, indexed by their slot.
+         */
+        private String[] keys = new String[16];
+
+        /**
+         * The values of the table, indexed by their slot.
+         */
+        private Object[] values = new Object[16];
+
+        /**
+         * The amount of entries in the table.
+         */
+        private int size;
+
+        /**
+         * Puts the specified value into the table, the key must not be already present in the table.
+         *
+         * @param key
+         *         the key of the value.
+         * @param value
+         *         the value to put.
+         */
+        void put(String key, V value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            insert(key, value);
+            size++;
+        }
+
+        /**
+         * Looks-up the value of the key within the specified range of the character sequence.
+         *
+         * @param sequence
+         *         the character sequence which contains the key.
+         * @param start
+         *         the start index of the key, inclusive.
+         * @param end
+         *         the end index of the key, exclusive.
+         *
+         * @return the value if it was present otherwise {@code null}.
+         */
+        @SuppressWarnings("unchecked")
+        V get(CharSequence sequence, int start, int end) {
+            var mask = keys.length - 1;
+            var slot = hash(sequence, start, end) & mask;
+            String existing;
+            while ((existing = keys[slot]) != null) {
+                if (contentEquals(existing, sequence, start, end)) {
+                    return (V) values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Looks-up the value of the key within the specified range of the character array.
+         *
+         * @param buffer
+         *         the character array which contains the key.
+         * @param start
+         *         the start index of the key, inclusive.
+         * @param end
+         *         the end index of the key, exclusive.
+         *
+         * @return the value if it was present otherwise {@code null}.
+         */
+        @SuppressWarnings("unchecked")
+        V get(char[] buffer, int start, int end) {
+            var mask = keys.length - 1;
+            var slot = hash(buffer, start, end) & mask;
+            String existing;
+            while ((existing = keys[slot]) != null) {
+                if (contentEquals(existing, buffer, start, end)) {
+                    return (V) values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Inserts the specified key and value into the first free slot of the key.
+         *
+         * @param key
+         *         the key of the value.
+         * @param value
+         *         the value to insert.
+         */
+        private void insert(String key, Object value) {
+            var mask = keys.length - 1;
+            var slot = hash(key, 0, key.length()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        /**
+         * Resizes the table to the specified capacity, re-inserting all of the entries.
+         *
+         * @param capacity
+         *         the new capacity of the table, must be a power of two.
+         */
+        private void resize(int capacity) {
+            var oldKeys = keys;
+            var oldValues = values;
+            keys = new String[capacity];
+            values = new Object[capacity];
+            for (var index = 0; index < oldKeys.length; index++) {
+                if (oldKeys[index] != null) {
+                    insert(oldKeys[index], oldValues[index]);
+                }
+            }
+        }
+
+        /**
+         * Calculates the hash of the specified range of the character sequence, spreading the higher bits into the
+         * lower ones.
+         *
+         * @param sequence
+         *         the sequence to calculate the hash for.
+         * @param start
+         *         the start index of the range, inclusive.
+         * @param end
+         *         the end index of the range, exclusive.
+         *
+         * @return the calculated hash.
+         */
+        private static int hash(CharSequence sequence, int start, int end) {
+            var hash = 0;
+            for (var index = start; index < end; index++) {
+                hash = 31 * hash + sequence.charAt(index);
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        /**
+         * Calculates the hash of the specified range of the character array, the hash is the same as the hash of the
+         * equivalent {@link CharSequence} range.
+         *
+         * @param buffer
+         *         the array to calculate the hash for.
+         * @param start
+         *         the start index of the range, inclusive.
+         * @param end
+         *         the end index of the range, exclusive.
+         *
+         * @return the calculated hash.
+         */
+        private static int hash(char[] buffer, int start, int end) {
+            var hash = 0;
+            for (var index = start; index < end; index++) {
+                hash = 31 * hash + buffer[index];
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        /**
+         * Checks whether or not the specified string and range of the character sequence have the same characters.
+         *
+         * @param string
+         *         the string to compare.
+         * @param sequence
+         *         the sequence to compare.
+         * @param start
+         *         the start index of the range, inclusive.
+         * @param end
+         *         the end index of the range, exclusive.
+         *
+         * @return <code>true</code> if they have the same characters otherwise <code>false</code>.
+         */
+        private static boolean contentEquals(String string, CharSequence sequence, int start, int end) {
+            if (string.length() != end - start) {
+                return false;
+            }
+            for (var index = 0; index < string.length(); index++) {
+                if (string.charAt(index) != sequence.charAt(start + index)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks whether or not the specified string and range of the character array have the same characters.
+         *
+         * @param string
+         *         the string to compare.
+         * @param buffer
+         *         the array to compare.
+         * @param start
+         *         the start index of the range, inclusive.
+         * @param end
+         *         the end index of the range, exclusive.
+         *
+         * @return <code>true</code> if they have the same characters otherwise <code>false</code>.
+         */
+        private static boolean contentEquals(String string, char[] buffer, int start, int end) {
+            if (string.length() != end - start) {
+                return false;
+            }
+            for (var index = 0; index < string.length(); index++) {
+                if (string.charAt(index) != buffer[start + index]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
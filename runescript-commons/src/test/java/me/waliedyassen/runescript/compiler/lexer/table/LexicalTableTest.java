@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.compiler.lexer.table;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexicalTableTest {
+
+    @Test
+    void testKeywords() {
+        var table = new LexicalTable<String>();
+        for (var index = 0; index < 100; index++) {
+            table.registerKeyword("Keyword" + index, "kind" + index);
+        }
+        assertEquals("kind42", table.lookupKeyword("keyword42"));
+        assertEquals("kind99", table.lookupKeyword(new StringBuilder("keyword99")));
+        var buffer = "a keyword7 b".toCharArray();
+        assertEquals("kind7", table.lookupKeyword(buffer, 2, 10));
+        assertNull(table.lookupKeyword(buffer, 2, 9));
+        assertTrue(table.isKeyword("keyword0"));
+        assertFalse(table.isKeyword("keyword100"));
+        assertFalse(table.isKeyword(""));
+        assertEquals(100, table.getKeywords().size());
+        assertThrows(IllegalArgumentException.class, () -> table.registerKeyword("keyword1", "other"));
+    }
+
+    @Test
+    void testSeparators() {
+        var table = new LexicalTable<String>();
+        table.registerSeparator('(', "lparen");
+        table.registerSeparator('\u00a7', "section");
+        assertEquals("lparen", table.lookupSeparator('('));
+        assertEquals("section", table.lookupSeparator('\u00a7'));
+        assertTrue(table.isSeparator('('));
+        assertFalse(table.isSeparator(')'));
+        assertFalse(table.isSeparator('\u00a8'));
+    }
+
+    @Test
+    void testOperators() {
+        var table = new LexicalTable<String>();
+        assertFalse(table.isOperatorStart('n'));
+        table.registerOperator("<", "lt");
+        table.registerOperator("<=", "le");
+        assertTrue(table.isOperatorStart('<'));
+        assertFalse(table.isOperatorStart('n'));
+        assertFalse(table.isOperatorStart('='));
+        assertEquals("le", table.lookupOperator(new StringBuilder("<=")));
+        var buffer = "a<=b".toCharArray();
+        assertEquals("le", table.lookupOperator(buffer, 1, 3));
+        assertEquals("lt", table.lookupOperator(buffer, 1, 2));
+        assertNull(table.lookupOperator(buffer, 2, 3));
+        assertFalse(table.isOperator("<<"));
+        assertEquals(2, table.getOperatorSize());
+    }
+
+    @Test
+    void testFreeze() {
+        var table = new LexicalTable<String>();
+        table.registerKeyword("if", "if");
+        assertSame(table, table.freeze());
+        assertTrue(table.isFrozen());
+        assertThrows(IllegalStateException.class, () -> table.registerKeyword("else", "else"));
+        assertThrows(IllegalStateException.class, () -> table.registerSeparator('(', "lparen"));
+        assertThrows(IllegalStateException.class, () -> table.registerOperator("<", "lt"));
+        assertThrows(UnsupportedOperationException.class, () -> table.getKeywords().put("else", "else"));
+        assertEquals("if", table.lookupKeyword("if"));
+    }
+}
@@ -8,6 +8,7 @@
 package me.waliedyassen.runescript.compiler;
 
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import me.waliedyassen.runescript.commons.stream.BufferedCharStream;
 import me.waliedyassen.runescript.compiler.codegen.CodeGenerator;
 import me.waliedyassen.runescript.compiler.codegen.InstructionMap;
@@ -38,9 +39,14 @@ import me.waliedyassen.runescript.type.stack.StackType;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Represents the main class for the RuneScript language compiler module.
@@ -49,6 +55,11 @@ import java.util.List;
  */
 public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScriptUnit> {
 
+    /**
+     * The frozen lexical table which is shared by all of the compilers.
+     */
+    private static final LexicalTable<Kind> SHARED_LEXICAL_TABLE = createLexicalTable();
+
     /**
      * The symbol table of the compiler.
      */
@@ -62,7 +73,7 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
     private final CodeWriter<?> codeWriter;
 
     /**
-     * The lexical table for our lexical analysis, it contains vario
+     * The lexical table for our lexical analysis, it contains the keywords, separators and operators of the language.
      */
     @Getter
     private final LexicalTable<Kind> lexicalTable;
@@ -91,6 +102,12 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
     @Getter
     private final boolean allowOverride;
 
+    /**
+     * The fork join pool which the independent parts of the compilation are executed within.
+     */
+    @Getter
+    private final ForkJoinPool forkJoinPool;
+
 
     // TODO: support supportsLongPrimitiveType in type checking.
 
@@ -105,13 +122,15 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
      * @param instructionMap the instruction map to use for this compiler.
      * @param codeWriter     the code writer to use for the compiler.
      * @param allowOverride  whether the compiler should override the symbols.
+     * @param forkJoinPool   the fork join pool to execute the independent parts of the compilation within.
      */
     private ScriptCompiler(IDManager idManager,
                            CompilerEnvironment environment,
                            InstructionMap instructionMap,
                            ScriptSymbolTable symbolTable,
                            CodeWriter<?> codeWriter,
-                           boolean allowOverride) {
+                           boolean allowOverride,
+                           ForkJoinPool forkJoinPool) {
         super(idManager);
         if (!instructionMap.isReady()) {
             throw new IllegalArgumentException("The provided InstructionMap is not ready, please register all of core opcodes before using it.");
@@ -121,8 +140,19 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
         this.symbolTable = symbolTable;
         this.codeWriter = codeWriter;
         this.allowOverride = allowOverride;
-        lexicalTable = createLexicalTable();
-        optimizer = new Optimizer(instructionMap);
+        this.forkJoinPool = forkJoinPool;
+        lexicalTable = SHARED_LEXICAL_TABLE;
+        optimizer = createOptimizer();
+    }
+
+    /**
+     * Creates a new {@link Optimizer} object and then registers all of the optimizations we use for the generated
+     * scripts. The optimizations may keep state while running, so each thread must use its own optimizer.
+     *
+     * @return the created {@link Optimizer} object.
+     */
+    private Optimizer createOptimizer() {
+        var optimizer = new Optimizer(instructionMap);
         // seems to be breaking some parts
         // if (a = a) {}
         // else if (b = b) {}
@@ -132,6 +162,7 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
 //        optimizer.register(new DeadBranchOptimization());
 //        optimizer.register(new DeadBlockOptimization());
         optimizer.register(new ConstantFoldingOptimization());
+        return optimizer;
     }
 
     /**
@@ -151,6 +182,66 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
         return scripts;
     }
 
+    /**
+     * Parses the Abstract Syntax Tree of the specified {@link SourceFile source file}. Each source file is parsed
+     * using its own error reporter and parser, which allows multiple source files to be parsed at the same time.
+     *
+     * @param symbolTable the symbol table to use for parsing.
+     * @param sourceFile  the source file which we want to parse.
+     * @return the {@link ParsedFile} object which contains the parsed scripts and the errors.
+     * @throws IOException if somehow a problem occurred while reading from the source file stream.
+     */
+    private ParsedFile parseSourceFile(ScriptSymbolTable symbolTable, SourceFile sourceFile) throws IOException {
+        var errorReporter = new ErrorReporter();
+        var parsedFile = new ParsedFile(sourceFile, errorReporter);
+        try {
+            parsedFile.scripts.addAll(parseSyntaxTree(symbolTable, errorReporter, sourceFile.getContent(), sourceFile.getExtension()));
+        } catch (CompilerError error) {
+            parsedFile.error = error;
+        }
+        return parsedFile;
+    }
+
+    /**
+     * Executes all of the specified tasks in parallel within the {@link #forkJoinPool} and waits for all of them to
+     * complete.
+     *
+     * @param tasks the tasks which we want to execute.
+     * @param <T>   the type of the result of the tasks.
+     * @return a {@link List list} of the results of the tasks, in the same order as the tasks.
+     * @throws IOException if somehow a problem occurred while reading or writing from the streams within the tasks.
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        var submitted = new ArrayList<ForkJoinTask<T>>(tasks.size());
+        for (var task : tasks) {
+            submitted.add(forkJoinPool.submit(task));
+        }
+        var results = new ArrayList<T>(submitted.size());
+        try {
+            for (var task : submitted) {
+                results.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            submitted.forEach(task -> task.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the compilation tasks");
+        } catch (ExecutionException e) {
+            submitted.forEach(task -> task.cancel(false));
+            var cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return results;
+    }
+
     public SyntaxParser createParser(ScriptSymbolTable symbolTable, ErrorReporter errorReporter, byte[] data, String extension) throws IOException {
         var stream = new BufferedCharStream(new ByteArrayInputStream(data));
         var tokenizer = new Tokenizer(errorReporter, lexicalTable, stream);
@@ -165,19 +256,22 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
     public Output<ScriptSyntax, CompiledScriptUnit> compile(Input input) throws IOException {
         var symbolTable = this.symbolTable.createSubTable();
         var output = new Output<ScriptSyntax, CompiledScriptUnit>();
+        // the files are parsed in parallel but merged in the order of the input to keep the output deterministic.
+        var parseTasks = new ArrayList<Callable<ParsedFile>>();
         for (var sourceFile : input.getSourceFiles()) {
-            var errorReporter = new ErrorReporter();
-            try {
-                var scripts = parseSyntaxTree(symbolTable, errorReporter, sourceFile.getContent(), sourceFile.getExtension());
-                for (var script : scripts) {
-                    var compiledUnit = new CompiledScriptUnit();
-                    compiledUnit.setSyntax(script);
-                    output.addUnit(sourceFile, compiledUnit);
-                }
-            } catch (CompilerError error) {
-                output.addError(sourceFile, error);
+            parseTasks.add(() -> parseSourceFile(symbolTable, sourceFile));
+        }
+        for (var parsedFile : invokeAll(parseTasks)) {
+            var sourceFile = parsedFile.sourceFile;
+            for (var script : parsedFile.scripts) {
+                var compiledUnit = new CompiledScriptUnit();
+                compiledUnit.setSyntax(script);
+                output.addUnit(sourceFile, compiledUnit);
             }
-            errorReporter.getErrors().forEach(error -> {
+            if (parsedFile.error != null) {
+                output.addError(sourceFile, parsedFile.error);
+            }
+            parsedFile.errorReporter.getErrors().forEach(error -> {
                 output.addError(sourceFile, error);
             });
         }
@@ -187,10 +281,19 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
             compiledFile.getErrors().addAll(checker.getErrors());
             checker.getErrors().clear();
         }
+        // the symbol table is only read from this point until the id generation, which lets us type check the files
+        // in parallel, each with its own checker so the errors can be merged in order.
+        var checkTasks = new ArrayList<Callable<List<CompilerError>>>();
         for (var compiledFile : output.getFiles().values()) {
-            checker.execute(compiledFile.getUnits());
-            compiledFile.getErrors().addAll(checker.getErrors());
-            checker.getErrors().clear();
+            checkTasks.add(() -> {
+                var fileChecker = new SemanticChecker(this, environment, symbolTable, allowOverride);
+                fileChecker.execute(compiledFile.getUnits());
+                return fileChecker.getErrors();
+            });
+        }
+        var checkErrors = invokeAll(checkTasks).iterator();
+        for (var compiledFile : output.getFiles().values()) {
+            compiledFile.getErrors().addAll(checkErrors.next());
         }
 
         if (input.isRunIdGeneration()) {
@@ -220,26 +323,42 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
             }
         }
         if (input.isRunCodeGeneration()) {
-            var codeGenerator = new CodeGenerator(environment, symbolTable, instructionMap, environment.getHookTriggerType());
+            // the code generators and the optimizers keep state while running, so each task uses its own.
+            var generateTasks = new ArrayList<Callable<Void>>();
             for (var compiledFile : output.getFiles().values()) {
-                for (var unit : compiledFile.getUnits()) {
-                    var binaryScript = codeGenerator.visit(unit.getSyntax());
-                    optimizer.run(binaryScript);
-                    unit.setBinaryScript(binaryScript);
-                }
+                generateTasks.add(() -> {
+                    var codeGenerator = new CodeGenerator(environment, symbolTable, instructionMap, environment.getHookTriggerType());
+                    var fileOptimizer = createOptimizer();
+                    for (var unit : compiledFile.getUnits()) {
+                        var binaryScript = codeGenerator.visit(unit.getSyntax());
+                        fileOptimizer.run(binaryScript);
+                        unit.setBinaryScript(binaryScript);
+                    }
+                    return null;
+                });
             }
+            invokeAll(generateTasks);
         }
         return output;
     }
 
+    /**
+     * Returns the frozen {@link LexicalTable} object which contains all of the lexical symbols for our RuneScript
+     * language syntax, the table is shared by all of the compilers.
+     *
+     * @return the shared {@link LexicalTable} object.
+     */
+    public static LexicalTable<Kind> getSharedLexicalTable() {
+        return SHARED_LEXICAL_TABLE;
+    }
+
     /**
      * Create a new {@link LexicalTable} object and then register all of the lexical symbols for our RuneScript language
-     * syntax.
+     * syntax. The created table is frozen, prefer {@link #getSharedLexicalTable()} over creating a new table.
      *
      * @return the created {@link LexicalTable} object.
      */
     public static LexicalTable<Kind> createLexicalTable() {
-        // TODO: Cache LexicalTable
         var table = new LexicalTable<Kind>();
         // the keywords chunk.
         table.registerKeyword("true", Kind.BOOL);
@@ -291,7 +410,36 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
                 table.registerOperator(operator.getRepresentation(), operator.getKind());
             }
         }
-        return table;
+        return table.freeze();
+    }
+
+    /**
+     * Holds the result of parsing a single {@link SourceFile}.
+     *
+     * @author Walied K. Yassen
+     */
+    @RequiredArgsConstructor
+    private static final class ParsedFile {
+
+        /**
+         * The source file which was parsed.
+         */
+        private final SourceFile sourceFile;
+
+        /**
+         * The error reporter which was used while parsing the source file.
+         */
+        private final ErrorReporter errorReporter;
+
+        /**
+         * The scripts which were parsed from the source file.
+         */
+        private final List<ScriptSyntax> scripts = new ArrayList<>();
+
+        /**
+         * The error which stopped the parsing of the source file, or {@code null} if there was none.
+         */
+        private CompilerError error;
     }
 
     /**
@@ -335,6 +483,11 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
          */
         private boolean supportsLongPrimitiveType;
 
+        /**
+         * Whether or not the compiler writes the maximum stack depths of the scripts.
+         */
+        private boolean supportsStackDepths;
+
         /**
          * Whether or not the compiler should override the symbols.
          */
@@ -345,6 +498,11 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
          */
         private IDManager idManager;
 
+        /**
+         * The fork join pool to execute the independent parts of the compilation within.
+         */
+        private ForkJoinPool forkJoinPool;
+
         /**
          * Sets the environment object we are going to use for the compiler.
          *
@@ -391,6 +549,19 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
             return this;
         }
 
+        /**
+         * Sets whether or not the compiler that we are going to build should write the maximum stack depths of the
+         * scripts, which lets the runtime size the stacks of the scripts ahead of their execution.
+         *
+         * @param supportsStackDepths <code>true</code> if it writes the maximum stack depths otherwise
+         *                            <code>false</code>.
+         * @return this {@link CompilerBuilder} object instance.
+         */
+        public CompilerBuilder withSupportsStackDepths(boolean supportsStackDepths) {
+            this.supportsStackDepths = supportsStackDepths;
+            return this;
+        }
+
         /**
          * Sets the id provider that we are going to use for the compiler.
          *
@@ -425,6 +596,19 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
             return this;
         }
 
+        /**
+         * Sets the fork join pool that we are going to execute the independent parts of the compilation within, such
+         * as parsing, type checking and generating the code of each file. The {@link ForkJoinPool#commonPool() common
+         * pool} is used if none was set.
+         *
+         * @param forkJoinPool the fork join pool to execute the compilation within.
+         * @return this {@link CompilerBuilder} object instance.
+         */
+        public CompilerBuilder withForkJoinPool(ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = forkJoinPool;
+            return this;
+        }
+
         /**
          * Builds the {@link ScriptCompiler} object with the details configured in the builder.
          *
@@ -442,12 +626,15 @@ public final class ScriptCompiler extends CompilerBase<ScriptSyntax, CompiledScr
                 environment = new CompilerEnvironment();
             }
             if (codeWriter == null) {
-                codeWriter = new BytecodeCodeWriter(idManager, supportsLongPrimitiveType);
+                codeWriter = new BytecodeCodeWriter(idManager, supportsLongPrimitiveType, supportsStackDepths);
             }
             if (symbolTable == null) {
                 symbolTable = new ScriptSymbolTable(true);
             }
-            return new ScriptCompiler(idManager, environment, instructionMap, symbolTable, codeWriter, overrideSymbols);
+            if (forkJoinPool == null) {
+                forkJoinPool = ForkJoinPool.commonPool();
+            }
+            return new ScriptCompiler(idManager, environment, instructionMap, symbolTable, codeWriter, overrideSymbols, forkJoinPool);
         }
     }
 }
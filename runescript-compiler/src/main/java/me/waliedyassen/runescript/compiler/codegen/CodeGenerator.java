@@ -17,6 +17,7 @@ import me.waliedyassen.runescript.compiler.codegen.local.LocalMap;
 import me.waliedyassen.runescript.compiler.codegen.opcode.CoreOpcode;
 import me.waliedyassen.runescript.compiler.codegen.opcode.Opcode;
 import me.waliedyassen.runescript.compiler.codegen.script.BinaryScript;
+import me.waliedyassen.runescript.compiler.codegen.stack.StackDepthTracker;
 import me.waliedyassen.runescript.compiler.codegen.sw.SwitchCase;
 import me.waliedyassen.runescript.compiler.codegen.sw.SwitchMap;
 import me.waliedyassen.runescript.compiler.codegen.sw.SwitchTable;
@@ -93,6 +94,11 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
      */
     private final SwitchMap switchMap = new SwitchMap();
 
+    /**
+     * The operand stacks depth tracker of the current script.
+     */
+    private final StackDepthTracker stackDepth = new StackDepthTracker();
+
     /**
      * The environment we are going to use to lookup triggers.
      */
@@ -126,6 +132,7 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
         blockMap.reset();
         localMap.reset();
         switchMap.reset();
+        stackDepth.reset();
     }
 
     /**
@@ -153,12 +160,16 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
         for (int id = 0; id < switchMap.getTables().size(); id++) {
             tables.add(switchMap.getTables().get(id));
         }
+        // grab the maximum depth of each operand stack.
+        var maxIntStackDepth = stackDepth.getMaxDepth(StackType.INT);
+        var maxStringStackDepth = stackDepth.getMaxDepth(StackType.STRING);
+        var maxLongStackDepth = stackDepth.getMaxDepth(StackType.LONG);
         // clean-up the junk after code generation is done.
         initialise();
         // return the generated script object.
         var name = script.getName().toText();
         var info = symbolTable.lookupScript(name);
-        return new BinaryScript(script.getExtension(), name, blocks, parameters, variables, tables, info);
+        return new BinaryScript(script.getExtension(), name, blocks, parameters, variables, tables, info, maxIntStackDepth, maxStringStackDepth, maxLongStackDepth);
     }
 
     /**
@@ -353,7 +364,7 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
             var name = dynamic.getName().getText();
             var commandInfo = symbolTable.lookupCommand(name);
             if (commandInfo != null) {
-                return generateCommand(commandInfo, false);
+                return generateCommand(commandInfo, false, stackDepth.mark(), dynamic.getType());
             }
             var configInfo = symbolTable.lookupConfig((PrimitiveType<?>) dynamic.getType(), name);
             if (configInfo != null) {
@@ -401,6 +412,7 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
      */
     public Instruction visit(CommandSyntax command) {
         var info = symbolTable.lookupCommand(command.getName().getText());
+        var mark = stackDepth.mark();
         if (info.isDbFind()) {
             var columnName = (DynamicSyntax) command.getArguments()[0];
             var columnSymbol = symbolTable.lookupConfig(PrimitiveType.DBCOLUMN.INSTANCE, columnName.getName().getText());
@@ -414,7 +426,7 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
                 argument.accept(this);
             }
         }
-        return generateCommand(info, command.isAlternative());
+        return generateCommand(info, command.isAlternative(), mark, command.getType());
     }
 
     /**
@@ -430,10 +442,16 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
      *
      * @param info        the command info to generate the instruction(s) set for.
      * @param alternative whether or not the command is alternative command.
+     * @param mark        the stack depths from before the arguments of the command were generated.
+     * @param type        the type of the values which the command pushes.
      * @return the last generated {@link Instruction} object.
      */
-    private Instruction generateCommand(CommandInfo info, boolean alternative) {
-        return instruction(info.getOpcode(), alternative ? 1 : 0);
+    private Instruction generateCommand(CommandInfo info, boolean alternative, int[] mark, Type type) {
+        var instruction = instruction(info.getOpcode(), alternative ? 1 : 0);
+        // the command pops everything that was generated for its arguments then pushes its result.
+        stackDepth.restore(mark);
+        stackDepth.push(type);
+        return instruction;
     }
 
     /**
@@ -931,6 +949,9 @@ public final class CodeGenerator implements SyntaxVisitor<Object> {
      * @return the created {@link Instruction} object.
      */
     private Instruction instruction(Block block, Opcode opcode, Object operand) {
+        if (opcode instanceof InstructionMap.MappedOpcode mappedOpcode) {
+            stackDepth.apply(mappedOpcode.getOpcode(), operand);
+        }
         var instruction = makeInstruction(opcode, operand);
         block.add(instruction);
         return instruction;
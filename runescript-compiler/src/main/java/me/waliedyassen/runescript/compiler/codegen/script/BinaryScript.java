@@ -67,4 +67,22 @@ public final class BinaryScript {
      */
     @Getter
     private final ScriptInfo scriptInfo;
+
+    /**
+     * The maximum depth of the int stack while executing the script.
+     */
+    @Getter
+    private final int maxIntStackDepth;
+
+    /**
+     * The maximum depth of the string stack while executing the script.
+     */
+    @Getter
+    private final int maxStringStackDepth;
+
+    /**
+     * The maximum depth of the long stack while executing the script.
+     */
+    @Getter
+    private final int maxLongStackDepth;
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.compiler.codegen.stack;
+
+import me.waliedyassen.runescript.compiler.codegen.opcode.CoreOpcode;
+import me.waliedyassen.runescript.compiler.symbol.impl.script.ScriptInfo;
+import me.waliedyassen.runescript.type.Type;
+import me.waliedyassen.runescript.type.stack.StackType;
+import me.waliedyassen.runescript.type.tuple.TupleType;
+
+/**
+ * Tracks the depth of each of the operand stacks while the code of a script is being generated, and the maximum depth
+ * each of the stacks reaches.
+ * <p>
+ * The stacks are always empty between two statements, so the instructions are tracked in the order they are generated
+ * regardless of which block they are generated into. The optimizations that run after the code generation never
+ * deepen the stacks, which keeps the maximum depths valid for the optimized script.
+ *
+ * @author Walied K. Yassen
+ */
+public final class StackDepthTracker {
+
+    /**
+     * The current depth of each stack, indexed by the {@link StackType} ordinal.
+     */
+    private final int[] depths = new int[StackType.values().length];
+
+    /**
+     * The maximum depth each stack reached, indexed by the {@link StackType} ordinal.
+     */
+    private final int[] maxDepths = new int[StackType.values().length];
+
+    /**
+     * Applies the stack effect of a core instruction.
+     *
+     * @param opcode  the core opcode of the instruction.
+     * @param operand the operand of the instruction.
+     */
+    public void apply(CoreOpcode opcode, Object operand) {
+        switch (opcode) {
+            case PUSH_INT_CONSTANT, PUSH_INT_LOCAL, PUSH_VARP, PUSH_VARP_BIT, PUSH_VARC_INT -> push(StackType.INT, 1);
+            case PUSH_STRING_CONSTANT, PUSH_STRING_LOCAL, PUSH_VARC_STRING -> push(StackType.STRING, 1);
+            case PUSH_LONG_CONSTANT, PUSH_LONG_LOCAL -> push(StackType.LONG, 1);
+            case POP_INT_DISCARD, POP_INT_LOCAL, POP_VARP, POP_VARP_BIT, POP_VARC_INT, DEFINE_ARRAY, SWITCH,
+                    BRANCH_IF_TRUE, BRANCH_IF_FALSE -> pop(StackType.INT, 1);
+            case POP_STRING_DISCARD, POP_STRING_LOCAL, POP_VARC_STRING -> pop(StackType.STRING, 1);
+            case POP_LONG_DISCARD, POP_LONG_LOCAL -> pop(StackType.LONG, 1);
+            case PUSH_ARRAY_INT -> {
+                pop(StackType.INT, 1);
+                push(StackType.INT, 1);
+            }
+            case POP_ARRAY_INT, BRANCH_EQUALS, BRANCH_NOT, BRANCH_LESS_THAN, BRANCH_GREATER_THAN,
+                    BRANCH_LESS_THAN_OR_EQUALS, BRANCH_GREATER_THAN_OR_EQUALS -> pop(StackType.INT, 2);
+            case LONG_BRANCH_EQUALS, LONG_BRANCH_NOT, LONG_BRANCH_LESS_THAN, LONG_BRANCH_GREATER_THAN,
+                    LONG_BRANCH_LESS_THAN_OR_EQUALS, LONG_BRANCH_GREATER_THAN_OR_EQUALS -> pop(StackType.LONG, 2);
+            case ADD, SUB, MUL, DIV, MOD, AND, OR -> {
+                pop(StackType.INT, 2);
+                push(StackType.INT, 1);
+            }
+            case JOIN_STRING -> {
+                pop(StackType.STRING, ((Number) operand).intValue());
+                push(StackType.STRING, 1);
+            }
+            case GOSUB_WITH_PARAMS -> {
+                var script = (ScriptInfo) operand;
+                for (var argument : script.getArguments()) {
+                    pop(argument, 1);
+                }
+                push(script.getType());
+            }
+            // the stacks are dropped by a jump and anything after a return is unreachable until the next statement.
+            case RETURN, JUMP_WITH_PARAMS -> clear();
+            case BRANCH -> {
+                // NOOP
+            }
+        }
+    }
+
+    /**
+     * Returns the current depth of each of the stacks, to be restored later using {@link #restore(int[])}.
+     *
+     * @return the current depths indexed by the {@link StackType} ordinal.
+     */
+    public int[] mark() {
+        return depths.clone();
+    }
+
+    /**
+     * Restores the depth of each of the stacks to the specified depths, used after an instruction that pops all of
+     * the values which were pushed since the depths were {@link #mark() marked}.
+     *
+     * @param mark the depths to restore.
+     */
+    public void restore(int[] mark) {
+        System.arraycopy(mark, 0, depths, 0, depths.length);
+    }
+
+    /**
+     * Pushes the stack values of the specified {@link Type type}.
+     *
+     * @param type the type which we want to push the values of.
+     */
+    public void push(Type type) {
+        if (type instanceof TupleType) {
+            for (var element : ((TupleType) type).getFlattened()) {
+                push(element);
+            }
+        } else if (type != null && type.getStackType() != null) {
+            push(type.getStackType(), 1);
+        }
+    }
+
+    /**
+     * Pushes the specified amount of values to the specified stack.
+     *
+     * @param stackType the type of the stack.
+     * @param count     the amount of values to push.
+     */
+    public void push(StackType stackType, int count) {
+        var index = stackType.ordinal();
+        depths[index] += count;
+        maxDepths[index] = Math.max(maxDepths[index], depths[index]);
+    }
+
+    /**
+     * Pops the stack values of the specified {@link Type type} the specified amount of times.
+     *
+     * @param type  the type which we want to pop the values of.
+     * @param count the amount of times to pop the values.
+     */
+    private void pop(Type type, int count) {
+        if (type instanceof TupleType) {
+            for (var element : ((TupleType) type).getFlattened()) {
+                pop(element, count);
+            }
+        } else if (type != null && type.getStackType() != null) {
+            pop(type.getStackType(), count);
+        }
+    }
+
+    /**
+     * Pops the specified amount of values from the specified stack.
+     *
+     * @param stackType the type of the stack.
+     * @param count     the amount of values to pop.
+     */
+    public void pop(StackType stackType, int count) {
+        var index = stackType.ordinal();
+        depths[index] = Math.max(0, depths[index] - count);
+    }
+
+    /**
+     * Empties all of the stacks.
+     */
+    private void clear() {
+        for (var index = 0; index < depths.length; index++) {
+            depths[index] = 0;
+        }
+    }
+
+    /**
+     * Returns the maximum depth the specified stack reached.
+     *
+     * @param stackType the type of the stack.
+     * @return the maximum depth of the stack.
+     */
+    public int getMaxDepth(StackType stackType) {
+        return maxDepths[stackType.ordinal()];
+    }
+
+    /**
+     * Resets the tracker.
+     */
+    public void reset() {
+        clear();
+        for (var index = 0; index < maxDepths.length; index++) {
+            maxDepths[index] = 0;
+        }
+    }
+}
@@ -47,6 +47,22 @@ public final class BytecodeCodeWriter extends CodeWriter<BytecodeScript> {
      */
     private final boolean supportsLongPrimitiveType;
 
+    /**
+     * Whether or not the code writer writes the maximum stack depths of the scripts.
+     */
+    private final boolean supportsStackDepths;
+
+    /**
+     * Constructs a new {@link BytecodeCodeWriter} type object instance which does not write the maximum stack depths
+     * of the scripts.
+     *
+     * @param idManager                 the ID provider which is used to translate names into ids.
+     * @param supportsLongPrimitiveType whether or not the code writer supports long primitive type.
+     */
+    public BytecodeCodeWriter(IDManager idManager, boolean supportsLongPrimitiveType) {
+        this(idManager, supportsLongPrimitiveType, false);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -81,7 +97,8 @@ public final class BytecodeCodeWriter extends CodeWriter<BytecodeScript> {
         return new BytecodeScript(
                 script.getName(), numIntParameters, numStringParameters, numLongParameters, numIntLocals,
                 numStringLocals, numLongLocals, instructions.toArray(new BytecodeInstruction[0]), switchTables,
-                supportsLongPrimitiveType);
+                script.getMaxIntStackDepth(), script.getMaxStringStackDepth(), script.getMaxLongStackDepth(),
+                supportsLongPrimitiveType, supportsStackDepths);
     }
 
     /**
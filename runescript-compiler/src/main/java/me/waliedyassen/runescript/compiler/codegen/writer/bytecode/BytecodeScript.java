@@ -79,12 +79,36 @@ public final class BytecodeScript {
     @Getter
     private final LinkedList<Hashtable<Integer, Integer>> switchTables;
 
+    /**
+     * The maximum depth of the int stack while executing the script.
+     */
+    @Getter
+    private final int maxIntStackDepth;
+
+    /**
+     * The maximum depth of the string stack while executing the script.
+     */
+    @Getter
+    private final int maxStringStackDepth;
+
+    /**
+     * The maximum depth of the long stack while executing the script.
+     */
+    @Getter
+    private final int maxLongStackDepth;
+
     /**
      * Whether or not the script supports long primitive type.
      */
     @Getter
     private final boolean supportsLongPrimitiveType;
 
+    /**
+     * Whether or not the maximum stack depths are written into the encoded script.
+     */
+    @Getter
+    private final boolean supportsStackDepths;
+
     /**
      * Encodes the bytecode script to bytecode data.
      */
@@ -125,6 +149,14 @@ public final class BytecodeScript {
             if (supportsLongPrimitiveType) {
                 data.writeShort(numLongParameters);
             }
+            // write the maximum stack depths of the script.
+            if (supportsStackDepths) {
+                data.writeShort(maxIntStackDepth);
+                data.writeShort(maxStringStackDepth);
+                if (supportsLongPrimitiveType) {
+                    data.writeShort(maxLongStackDepth);
+                }
+            }
             // write the switch tables of the script.
             var size = 1;
             data.writeByte(switchTables.size());
@@ -32,6 +32,17 @@ import static me.waliedyassen.runescript.compiler.lexer.token.Kind.*;
  */
 public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
 
+    /**
+     * The lexemes of the single ASCII character tokens, indexed by the character value.
+     */
+    private static final String[] CHARACTER_LEXEMES = new String[128];
+
+    static {
+        for (var ch = (char) 0; ch < CHARACTER_LEXEMES.length; ch++) {
+            CHARACTER_LEXEMES[ch] = String.valueOf(ch).intern();
+        }
+    }
+
     /**
      * The current states
      */
@@ -111,14 +122,14 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
             // parse the current character depending on the current state.
             switch (state.mode) {
                 case NONE:
-                    if (Character.isWhitespace(current)) {
+                    if (isWhitespace(current)) {
                         continue;
                     } else {
                         resetBuilder();
                         if (current == NULL) {
                             return createToken(EOF);
                         } else if (isIdentifierStart(current)) {
-                            builder.append(current);
+                            // the identifier characters are looked-up directly from the stream.
                             stream.mark();
                             state.mode = Mode.IDENTIFIER;
                         } else if (current == '\"') {
@@ -129,7 +140,7 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
                             stream.take();
                             stream.mark();
                             state.mode = Mode.HEX_LITERAL;
-                        } else if (Character.isDigit(current) || (current == '-' || current == '+') && Character.isDigit(next)) {
+                        } else if (isDigit(current) || (current == '-' || current == '+') && isDigit(next)) {
                             // TODO: Move the + and - to be prefix operators instead of handling it at lexer.
                             builder.append(current);
                             stream.mark();
@@ -142,27 +153,25 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
                             state.lines = new ArrayList<>();
                             state.mode = Mode.MULTI_COMMENT;
                         } else if (table.isSeparator(current)) {
-                            return createToken(table.lookupSeparator(current), Character.toString(current));
+                            return createToken(table.lookupSeparator(current), characterLexeme(current));
                         } else {
                             if (stateKind == State.StateKind.INTERPOLATION && current == '>') {
                                 popState();
                                 state.mode = Mode.ISTRING_LITERAL;
                                 continue;
                             } else if (table.isOperatorStart(current)) {
-                                builder.append(current);
-                                for (var index = 1; index < table.getOperatorSize(); index++) {
-                                    if (!stream.hasRemaining() || stream.peek() == '\r' && stream.peek() == '\n') {
-                                        break;
-                                    }
-                                    builder.append(stream.take());
-                                }
-                                while (builder.length() > 0) {
-                                    var sequence = builder.toString();
-                                    if (table.isOperator(sequence)) {
-                                        return createToken(table.lookupOperator(sequence), sequence);
+                                // probe the longest operator first directly from the stream.
+                                var buffer = stream.array();
+                                var start = stream.position() - 1;
+                                var length = Math.min(table.getOperatorSize(), buffer.length - start);
+                                for (; length > 0; length--) {
+                                    var kind = table.lookupOperator(buffer, start, start + length);
+                                    if (kind != null) {
+                                        for (var index = 1; index < length; index++) {
+                                            stream.take();
+                                        }
+                                        return createToken(kind, length == 1 ? characterLexeme(current) : stream.substring(start, start + length));
                                     }
-                                    builder.setLength(builder.length() - 1);
-                                    stream.rollback(1);
                                 }
                             }
                             addLexicalError("Unexpected character: " + current);
@@ -171,12 +180,15 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
                     break;
                 case IDENTIFIER:
                     if (isIdentifierPart(current)) {
-                        builder.append(current);
                         stream.mark();
                     } else {
                         stream.reset();
-                        var word = builder.toString();
-                        return createToken(table.isKeyword(word) ? table.lookupKeyword(word) : IDENTIFIER, builder.toString());
+                        // the identifier spans from the token start to the current position, including any number
+                        // literal characters that preceded it.
+                        var start = state.position;
+                        var end = stream.position();
+                        var kind = table.lookupKeyword(stream.array(), start, end);
+                        return createToken(kind != null ? kind : IDENTIFIER, stream.substring(start, end));
                     }
                     break;
                 case STRING_LITERAL:
@@ -249,7 +261,7 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
                     }
                     break;
                 case HEX_LITERAL:
-                    if (Character.isDigit(current) || (current >= 'a' && current <= 'f') || (current >= 'A' && current <= 'F')) {
+                    if (isHexDigit(current)) {
                         builder.append(current);
                         stream.mark();
                     } else {
@@ -268,7 +280,7 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
                         state.mode = Mode.COORDGRID_LITERAL;
                     }
                     var coordgrid = state.mode == Mode.COORDGRID_LITERAL;
-                    if (Character.isDigit(current) || current == '_') {
+                    if (isDigit(current) || current == '_') {
                         builder.append(current);
                         stream.mark();
                     } else {
@@ -276,7 +288,6 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
                         if (!coordgrid && (current == 'L' || current == 'l')) {
                             kind = LONG;
                         } else if (isIdentifierPart(current)) {
-                            builder.append(current);
                             state.mode = Mode.IDENTIFIER;
                             stream.mark();
                             continue;
@@ -352,6 +363,16 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
         return tokenFactory.createToken(range(), kind, lexeme);
     }
 
+    /**
+     * Returns the lexeme of a token which consists of the specified character only.
+     *
+     * @param ch the character of the token.
+     * @return the lexeme of the token.
+     */
+    private static String characterLexeme(char ch) {
+        return ch < CHARACTER_LEXEMES.length ? CHARACTER_LEXEMES[ch] : String.valueOf(ch);
+    }
+
     /**
      * Adds the specified {@link Token} object to the end of the current state {@link State#fallback fallback} deque.
      *
@@ -427,7 +448,7 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
     private static String trimComment(String line, boolean trimStar) {
         int start = -1;
         for (int chpos = 0; chpos < line.length(); chpos++) {
-            if (!Character.isWhitespace(line.charAt(chpos))) {
+            if (!isWhitespace(line.charAt(chpos))) {
                 start = chpos;
                 break;
             }
@@ -440,7 +461,7 @@ public final class Tokenizer extends TokenizerBase<Kind, SyntaxToken> {
         }
         int end = -1;
         for (int chpos = line.length() - 1; chpos >= start; chpos--) {
-            if (!Character.isWhitespace(line.charAt(chpos))) {
+            if (!isWhitespace(line.charAt(chpos))) {
                 end = chpos + 1;
                 break;
             }
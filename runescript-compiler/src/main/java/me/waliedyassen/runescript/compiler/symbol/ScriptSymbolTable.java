@@ -17,6 +17,12 @@ import me.waliedyassen.runescript.type.Type;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * The symbol table of the scripts and commands. The table is not synchronised, it can be safely looked-up from multiple
+ * threads at the same time as long as no symbols are being defined or undefined.
+ *
+ * @author Walied K. Yassen
+ */
 public final class ScriptSymbolTable extends SymbolTable {
 
     /**
@@ -1186,6 +1186,6 @@ public final class SyntaxParser extends ParserBase<Kind, SyntaxToken> {
     }
 
     public boolean hasMore() {
-        return lexer().remaining() > 0;
+        return lexer().hasRemaining();
     }
 }
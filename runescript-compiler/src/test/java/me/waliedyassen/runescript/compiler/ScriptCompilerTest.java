@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.compiler;
+
+import me.waliedyassen.runescript.compiler.codegen.InstructionMap;
+import me.waliedyassen.runescript.compiler.codegen.opcode.CoreOpcode;
+import me.waliedyassen.runescript.compiler.env.CompilerEnvironment;
+import me.waliedyassen.runescript.compiler.idmapping.IDManager;
+import me.waliedyassen.runescript.compiler.parser.ScriptParserTest;
+import me.waliedyassen.runescript.compiler.syntax.ScriptSyntax;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptCompilerTest {
+
+    static final int FILE_COUNT = 24;
+
+    @Test
+    void testParallelMatchesSequential() throws IOException {
+        var input = generateInput(FILE_COUNT);
+        var sequentialPool = new ForkJoinPool(1);
+        var parallelPool = new ForkJoinPool(4);
+        try {
+            var sequential = snapshot(createCompiler(sequentialPool).compile(input));
+            var parallel = snapshot(createCompiler(parallelPool).compile(input));
+            assertEquals(sequential, parallel);
+        } finally {
+            sequentialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+
+    @Test
+    void testOutputFollowsInput() throws IOException {
+        var input = generateInput(FILE_COUNT);
+        var pool = new ForkJoinPool(4);
+        try {
+            var output = createCompiler(pool).compile(input);
+            var names = new ArrayList<>(output.getFiles().keySet());
+            assertEquals(FILE_COUNT, names.size());
+            for (var index = 0; index < FILE_COUNT; index++) {
+                var sourceFile = input.getSourceFiles().get(index);
+                assertEquals(sourceFile.getFullNameWithLocation(), names.get(index));
+                var compiledFile = output.getFiles().get(names.get(index));
+                if (isSemanticError(index) || isSyntaxError(index)) {
+                    assertFalse(compiledFile.getErrors().isEmpty(), sourceFile.getName());
+                } else {
+                    assertTrue(compiledFile.getErrors().isEmpty(), sourceFile.getName());
+                    for (var unit : compiledFile.getUnits()) {
+                        assertNotNull(unit.getBinaryScript());
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds a comparable snapshot of the files of the output in order, with the errors of each file and the generated
+     * instructions of each of its scripts.
+     */
+    static List<Object> snapshot(Output<ScriptSyntax, CompiledScriptUnit> output) {
+        var snapshot = new ArrayList<Object>();
+        output.getFiles().forEach((name, compiledFile) -> {
+            snapshot.add(name);
+            var errors = new ArrayList<String>();
+            compiledFile.getErrors().forEach(error -> errors.add(error.getClass().getSimpleName() + ": " + error.getMessage()));
+            snapshot.add(errors);
+            for (var unit : compiledFile.getUnits()) {
+                var binaryScript = unit.getBinaryScript();
+                if (binaryScript == null) {
+                    snapshot.add(unit.getSyntax().getName().toText());
+                    continue;
+                }
+                snapshot.add(binaryScript.getName());
+                var instructions = new ArrayList<Object>();
+                for (var block : binaryScript.getBlockList().getBlocks()) {
+                    instructions.add(block.getLabel());
+                    for (var instruction : block.getInstructions()) {
+                        instructions.add(List.of(instruction.getOpcode(), instruction.getOperand()));
+                    }
+                }
+                snapshot.add(instructions);
+            }
+        });
+        return snapshot;
+    }
+
+    static ScriptCompiler createCompiler(ForkJoinPool pool) {
+        var environment = new CompilerEnvironment();
+        for (var triggerType : ScriptParserTest.TestTriggerType.values()) {
+            environment.registerTrigger(triggerType);
+        }
+        var instructionMap = new InstructionMap();
+        for (var opcode : CoreOpcode.values()) {
+            instructionMap.registerCore(opcode, opcode.ordinal(), opcode.isLargeOperand());
+        }
+        return ScriptCompiler.builder()
+                .withEnvironment(environment)
+                .withInstructionMap(instructionMap)
+                .withIdProvider(new TestIdManager())
+                .withForkJoinPool(pool)
+                .build();
+    }
+
+    /**
+     * Generates the specified amount of source files, each with a procedure and a client script which calls the
+     * procedure of the same file and of the next file. Some of the files contain a semantic or a syntax error.
+     */
+    static Input generateInput(int fileCount) {
+        var input = new Input();
+        input.setRunIdGeneration(true);
+        input.setRunCodeGeneration(true);
+        for (var index = 0; index < fileCount; index++) {
+            // calls into a file which failed to parse are left out, the code generator requires every callee.
+            var next = isSyntaxError((index + 1) % fileCount) ? index : (index + 1) % fileCount;
+            var builder = new StringBuilder();
+            builder.append("[proc,add_").append(index).append("](int $a)(int)\n");
+            builder.append("def_int $b = calc($a * 2 + ").append(index).append(");\n");
+            builder.append("if ($b > 10) {\n");
+            builder.append("    return(calc($b - 1));\n");
+            builder.append("}\n");
+            builder.append("return($b);\n\n");
+            builder.append("[clientscript,main_").append(index).append("]\n");
+            builder.append("def_int $first = ~add_").append(index).append("(").append(index).append(");\n");
+            builder.append("def_int $second = ~add_").append(next).append("($first);\n");
+            if (isSemanticError(index)) {
+                // arithmetic without calc is an error.
+                builder.append("def_int $third = $first + $second;\n");
+            }
+            if (isSyntaxError(index)) {
+                builder.append("def_int $fourth = ;\n");
+            }
+            var content = builder.toString().getBytes(StandardCharsets.UTF_8);
+            input.addSourceFile(new SourceFile("generated", "file_" + index, "cs2", content));
+        }
+        return input;
+    }
+
+    static boolean isSemanticError(int index) {
+        return index % 5 == 3;
+    }
+
+    static boolean isSyntaxError(int index) {
+        return index % 7 == 6;
+    }
+
+    static final class TestIdManager implements IDManager {
+
+        final Map<String, Integer> ids = new HashMap<>();
+
+        @Override
+        public int findOrCreateScriptId(String name, String extension) {
+            return ids.computeIfAbsent(name + "." + extension, key -> ids.size());
+        }
+
+        @Override
+        public int findScript(String name, String extension) {
+            var id = ids.get(name + "." + extension);
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown script: " + name);
+            }
+            return id;
+        }
+    }
+}
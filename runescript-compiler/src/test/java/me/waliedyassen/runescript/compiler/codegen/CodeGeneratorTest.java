@@ -123,6 +123,17 @@ class CodeGeneratorTest {
         assertInstructionEquals(block.getInstructions().get(3), CoreOpcode.MUL, 0);
         assertInstructionEquals(block.getInstructions().get(4), CoreOpcode.ADD, 0);
         assertInstructionEquals(block.getInstructions().get(5), CoreOpcode.RETURN, 0);
+        assertEquals(3, script.getMaxIntStackDepth());
+        assertEquals(0, script.getMaxStringStackDepth());
+        assertEquals(0, script.getMaxLongStackDepth());
+    }
+
+    @Test
+    void testStackDepths() {
+        var script = fromString("[proc,test](int $a)(string) return(tostring(calc($a + func_i_i(calc(1 + 2)))));")[0];
+        assertEquals(3, script.getMaxIntStackDepth());
+        assertEquals(1, script.getMaxStringStackDepth());
+        assertEquals(0, script.getMaxLongStackDepth());
     }
 
     @Test
@@ -183,7 +194,7 @@ class CodeGeneratorTest {
                 var unit = new CompiledScriptUnit();
                 unit.setSyntax(parser.script());
                 scripts.add(unit);
-            } while (lexer.remaining() > 0);
+            } while (lexer.hasRemaining());
             checker.executePre(scripts);
             checker.execute(scripts);
             var parsed = new BinaryScript[scripts.size()];
@@ -206,7 +217,7 @@ class CodeGeneratorTest {
             var unit = new CompiledScriptUnit();
             unit.setSyntax(parser.script());
             scripts.add(unit);
-        } while (lexer.remaining() > 0);
+        } while (lexer.hasRemaining());
         checker.executePre(scripts);
         checker.execute(scripts);
         checker.getErrors().forEach(System.out::println);
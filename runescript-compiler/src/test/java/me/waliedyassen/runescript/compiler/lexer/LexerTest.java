@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.compiler.lexer;
+
+import me.waliedyassen.runescript.commons.stream.BufferedCharStream;
+import me.waliedyassen.runescript.compiler.ScriptCompiler;
+import me.waliedyassen.runescript.compiler.error.ThrowingErrorReporter;
+import me.waliedyassen.runescript.compiler.lexer.tokenizer.Tokenizer;
+import org.junit.jupiter.api.Test;
+
+import static me.waliedyassen.runescript.compiler.lexer.token.Kind.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexerTest {
+
+    @Test
+    void testLookahead() {
+        var lexer = fromString("a /* comment */ ( b , c ) // comment");
+        assertNull(lexer.previous());
+        assertEquals(IDENTIFIER, lexer.peek().getKind());
+        assertEquals(LPAREN, lexer.lookahead(1).getKind());
+        assertEquals(RPAREN, lexer.lookahead(5).getKind());
+        assertNull(lexer.lookahead(6));
+        assertEquals("a", lexer.take().getLexeme());
+        assertEquals("a", lexer.previous().getLexeme());
+        assertEquals(1, lexer.getIndex());
+        assertThrows(IllegalArgumentException.class, () -> lexer.lookahead(LexerBase.MAX_LOOKAHEAD + 1));
+    }
+
+    @Test
+    void testStreaming() {
+        var text = new StringBuilder();
+        for (var index = 0; index < 1000; index++) {
+            text.append("identifier").append(index).append(' ');
+        }
+        var lexer = fromString(text.toString());
+        for (var index = 0; index < 1000; index++) {
+            assertTrue(lexer.hasRemaining());
+            // looking far ahead must not evict the current or the previous token from the buffer.
+            lexer.lookahead(LexerBase.MAX_LOOKAHEAD);
+            assertEquals("identifier" + index, lexer.take().getLexeme());
+            assertEquals("identifier" + index, lexer.previous().getLexeme());
+        }
+        assertFalse(lexer.hasRemaining());
+        assertNull(lexer.take());
+    }
+
+    private static Lexer fromString(String text) {
+        return new Lexer(new Tokenizer(new ThrowingErrorReporter(), ScriptCompiler.createLexicalTable(), new BufferedCharStream(text.toCharArray())));
+    }
+}
@@ -9,8 +9,10 @@ package me.waliedyassen.runescript.compiler.lexer.tokenizer;
 
 import me.waliedyassen.runescript.commons.stream.BufferedCharStream;
 import me.waliedyassen.runescript.compiler.ScriptCompiler;
+import me.waliedyassen.runescript.compiler.error.ErrorReporter;
 import me.waliedyassen.runescript.compiler.error.ThrowingErrorReporter;
 import me.waliedyassen.runescript.compiler.lexer.LexicalError;
+import me.waliedyassen.runescript.compiler.lexer.table.LexicalTable;
 import me.waliedyassen.runescript.compiler.lexer.token.Kind;
 import org.junit.jupiter.api.Test;
 
@@ -141,6 +143,48 @@ class TokenizerTest {
         assertEquals(tokenizer.parse().getKind(), Kind.SEMICOLON);
     }
 
+    @Test
+    void testOperatorsLongestMatch() {
+        var tokenizer = fromString("a<=b>=c<d>");
+        var expected = new Kind[]{IDENTIFIER, LESS_THAN_OR_EQUAL, IDENTIFIER, GREATER_THAN_OR_EQUAL, IDENTIFIER, LESS_THAN, IDENTIFIER, GREATER_THAN, EOF};
+        var lexemes = new String[]{"a", "<=", "b", ">=", "c", "<", "d", ">", ""};
+        for (var index = 0; index < expected.length; index++) {
+            var token = tokenizer.parse();
+            assertEquals(expected[index], token.getKind());
+            assertEquals(lexemes[index], token.getLexeme());
+        }
+    }
+
+    @Test
+    void testKeywordPrefixes() {
+        var tokenizer = fromString("iffy if elsewhere 1abc");
+        var ident = tokenizer.parse();
+        assertEquals(IDENTIFIER, ident.getKind());
+        assertEquals("iffy", ident.getLexeme());
+        assertEquals(IF, tokenizer.parse().getKind());
+        assertEquals("elsewhere", tokenizer.parse().getLexeme());
+        var number = tokenizer.parse();
+        assertEquals(IDENTIFIER, number.getKind());
+        assertEquals("1abc", number.getLexeme());
+    }
+
+    @Test
+    void testUnmatchedOperatorStart() {
+        // '<' starts an operator but does not match any operator on its own in this table.
+        var table = new LexicalTable<Kind>();
+        table.registerOperator("<=", LESS_THAN_OR_EQUAL);
+        table.freeze();
+        var errorReporter = new ErrorReporter();
+        var tokenizer = new Tokenizer(errorReporter, table, new BufferedCharStream("a<b<=c<".toCharArray()));
+        var expected = new Kind[]{IDENTIFIER, IDENTIFIER, LESS_THAN_OR_EQUAL, IDENTIFIER, EOF};
+        var lexemes = new String[]{"a", "b", "<=", "c", ""};
+        for (var index = 0; index < expected.length; index++) {
+            var token = tokenizer.parse();
+            assertEquals(expected[index], token.getKind());
+            assertEquals(lexemes[index], token.getLexeme());
+        }
+        assertEquals(2, errorReporter.getErrors().size());
+    }
 
     @Test
     void testCoordLiteral() {
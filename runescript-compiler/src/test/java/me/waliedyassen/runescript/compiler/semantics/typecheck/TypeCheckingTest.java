@@ -171,7 +171,7 @@ class TypeCheckingTest {
                 var unit = new CompiledScriptUnit();
                 unit.setSyntax(parser.script());
                 scripts.add(unit);
-            } while (lexer.remaining() > 0);
+            } while (lexer.hasRemaining());
             checker.executePre(scripts);
             checker.execute(scripts);
             for (CompilerError error : checker.getErrors()) {
@@ -191,7 +191,7 @@ class TypeCheckingTest {
             var unit = new CompiledScriptUnit();
             unit.setSyntax(parser.script());
             scripts.add(unit);
-        } while (lexer.remaining() > 0);
+        } while (lexer.hasRemaining());
         checker.executePre(scripts);
         checker.execute(scripts);
         for (CompilerError error : checker.getErrors()) {
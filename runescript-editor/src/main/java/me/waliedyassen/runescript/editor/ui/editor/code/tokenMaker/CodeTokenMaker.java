@@ -19,6 +19,7 @@ import org.fife.ui.rsyntaxtextarea.Token;
 import org.fife.ui.rsyntaxtextarea.TokenMap;
 
 import javax.swing.text.Segment;
+import java.nio.CharBuffer;
 import java.util.Stack;
 
 import static me.waliedyassen.runescript.editor.ui.editor.code.tokenMaker.CodeTokens.*;
@@ -110,8 +111,7 @@ public final class CodeTokenMaker extends AbstractTokenMaker {
                         if (lexicalTable.isOperatorStart(ch)) {
                             var size = 1;
                             while (pos + size < end) {
-                                var opText = new String(chs, pos, size + 1);
-                                if (lexicalTable.isOperator(opText)) {
+                                if (lexicalTable.isOperator(CharBuffer.wrap(chs, pos, size + 1))) {
                                     size++;
                                 } else {
                                     break;
@@ -198,7 +198,7 @@ public final class CodeTokenMaker extends AbstractTokenMaker {
                         if (!configuration && ((ScriptSymbolTable) symbolTable).lookupCommand(identifierText) != null) {
                             changeTokenType(COMMAND);
                         } else {
-                            var keywordKind = lexicalTable.getKeywords().get(identifierText);
+                            var keywordKind = lexicalTable.lookupKeyword(identifierText);
                             if (keywordKind != null) {
                                 if (keywordKind == Kind.TYPE || keywordKind == Kind.DEFINE) {
                                     changeTokenType(TYPE_NAME);
@@ -30,22 +30,22 @@ public final class ScriptFrame {
     private int address;
 
     /**
-     * The integer local fields of the script frame.
+     * The index of the first int local field of the script frame within the runtime int locals.
      */
     @Getter
-    private final int[] intLocals = new int[ScriptRuntime.MAX_LOCALS];
+    private int intBase;
 
     /**
-     * The string local fields of the script frame.
+     * The index of the first string local field of the script frame within the runtime string locals.
      */
     @Getter
-    private final String[] stringLocals = new String[ScriptRuntime.MAX_LOCALS];
+    private int stringBase;
 
     /**
-     * The long local fields of the script frame.
+     * The index of the first long local field of the script frame within the runtime long locals.
      */
     @Getter
-    private final long[] longLocals = new long[ScriptRuntime.MAX_LOCALS];
+    private int longBase;
 
     /**
      * Sets the content of the script frame based on the specified {@link ScriptRuntime}.
@@ -53,10 +53,10 @@ public final class ScriptFrame {
      * @param runtime the runtime which we want to populate the data from.
      */
     public void set(ScriptRuntime runtime) {
-        System.arraycopy(runtime.getIntLocals(), 0, intLocals, 0, ScriptRuntime.MAX_LOCALS);
-        System.arraycopy(runtime.getStringLocals(), 0, stringLocals, 0, ScriptRuntime.MAX_LOCALS);
-        System.arraycopy(runtime.getLongLocals(), 0, longLocals, 0, ScriptRuntime.MAX_LOCALS);
         script = runtime.getScript();
         address = runtime.getAddress();
+        intBase = runtime.getIntBase();
+        stringBase = runtime.getStringBase();
+        longBase = runtime.getLongBase();
     }
 }
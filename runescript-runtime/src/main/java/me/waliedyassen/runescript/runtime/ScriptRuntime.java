@@ -8,25 +8,35 @@
 package me.waliedyassen.runescript.runtime;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import me.waliedyassen.runescript.runtime.executor.ExecutionBudget;
+import me.waliedyassen.runescript.runtime.executor.Preemption;
+import me.waliedyassen.runescript.runtime.executor.ScriptFramePool;
+import me.waliedyassen.runescript.runtime.executor.linker.ScriptVerifier;
 import me.waliedyassen.runescript.runtime.script.Script;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EmptyStackException;
 
 /**
  * The script execution runtime, it holds the information about the current context as well
  *
  * @author Walied K. Yassen
  */
-@RequiredArgsConstructor
 public abstract class ScriptRuntime implements AutoCloseable {
 
     /**
-     * The maximum amount of local fields we can have per runtime.
+     * The maximum amount of local fields of each type we can have per script.
      */
     public static final int MAX_LOCALS = 256;
 
+    /**
+     * The initial capacity of each of the local fields arrays, the arrays grow on demand.
+     */
+    public static final int INITIAL_LOCALS_CAPACITY = 16;
+
     /**
      * The maximum amount of arrays we can have per runtime.
      */
@@ -38,40 +48,109 @@ public abstract class ScriptRuntime implements AutoCloseable {
     public static final int MAX_ARRAY_ELEMENTS = 5000;
 
     /**
-     * The integer stack of the runtime.
+     * The initial capacity of each of the operand stacks, the stacks grow on demand.
+     */
+    public static final int INITIAL_STACK_CAPACITY = 32;
+
+    /**
+     * The largest capacity of the {@link #borrowStringBuilder() pooled string builder} that is kept for reuse.
+     */
+    public static final int MAX_POOLED_BUILDER_CAPACITY = 4096;
+
+    /**
+     * The amount of instructions between each time check of a timed {@link ExecutionBudget}.
+     */
+    public static final int BUDGET_TIME_CHECK_INTERVAL = 1024;
+
+    /**
+     * The integer stack of the runtime, only the elements below {@link #intStackSize} are valid.
+     */
+    @Getter
+    private int[] intStack = new int[INITIAL_STACK_CAPACITY];
+
+    /**
+     * The amount of elements that are currently in the integer stack.
+     */
+    @Getter
+    private int intStackSize;
+
+    /**
+     * The string stack of the runtime, only the elements below {@link #stringStackSize} are valid.
+     */
+    @Getter
+    private String[] stringStack = new String[INITIAL_STACK_CAPACITY];
+
+    /**
+     * The amount of elements that are currently in the string stack.
+     */
+    @Getter
+    private int stringStackSize;
+
+    /**
+     * The long stack of the runtime, only the elements below {@link #longStackSize} are valid.
+     */
+    @Getter
+    private long[] longStack = new long[INITIAL_STACK_CAPACITY];
+
+    /**
+     * The amount of elements that are currently in the long stack.
+     */
+    @Getter
+    private int longStackSize;
+
+    /**
+     * An array holding the int local fields values of every script in the call stack, each script uses a window of
+     * the array that starts at {@link #intBase}.
      */
     @Getter
-    private final Stack<Integer> intStack = new Stack<>();
+    private int[] intLocals = new int[INITIAL_LOCALS_CAPACITY];
 
     /**
-     * The string stack of the runtime.
+     * An array holding the string local fields values of every script in the call stack, each script uses a window of
+     * the array that starts at {@link #stringBase}.
      */
     @Getter
-    private final Stack<String> stringStack = new Stack<>();
+    private String[] stringLocals = new String[INITIAL_LOCALS_CAPACITY];
 
     /**
-     * The long stack of the runtime.
+     * An array holding the long local fields values of every script in the call stack, each script uses a window of
+     * the array that starts at {@link #longBase}.
      */
     @Getter
-    private final Stack<Long> longStack = new Stack<>();
+    private long[] longLocals = new long[INITIAL_LOCALS_CAPACITY];
+
+    /**
+     * The amount of elements at the start of {@link #intLocals} that were used since the last reset.
+     */
+    private int intLocalsHighWater;
 
     /**
-     * An array holding of all the long int fields values.
+     * The amount of elements at the start of {@link #stringLocals} that were used since the last reset.
+     */
+    private int stringLocalsHighWater;
+
+    /**
+     * The amount of elements at the start of {@link #longLocals} that were used since the last reset.
+     */
+    private int longLocalsHighWater;
+
+    /**
+     * The index of the first int local field of the current script within {@link #intLocals}.
      */
     @Getter
-    private final int[] intLocals = new int[MAX_LOCALS];
+    private int intBase;
 
     /**
-     * An array holding of all the long string fields values.
+     * The index of the first string local field of the current script within {@link #stringLocals}.
      */
     @Getter
-    private final String[] stringLocals = new String[MAX_LOCALS];
+    private int stringBase;
 
     /**
-     * An array holding of all the long local fields values.
+     * The index of the first long local field of the current script within {@link #longLocals}.
      */
     @Getter
-    private final long[] longLocals = new long[MAX_LOCALS];
+    private int longBase;
 
     /**
      * An array of all the array sizes in the runtime.
@@ -80,16 +159,27 @@ public abstract class ScriptRuntime implements AutoCloseable {
     private final int[] arraySize = new int[MAX_ARRAYS];
 
     /**
-     * An array of all the array elements in the runtime.
+     * An array of all the array elements in the runtime, each array is allocated on its first definition.
+     */
+    @Getter
+    private final int[][] arrayElements = new int[MAX_ARRAYS][];
+
+    /**
+     * The string builder which is reused by the string operations of the runtime.
+     */
+    private StringBuilder stringBuilder = new StringBuilder(INITIAL_STACK_CAPACITY);
+
+    /**
+     * The execution call frame of the runtime, the top of the deque is the most recent frame.
      */
     @Getter
-    private final int[][] arrayElements = new int[MAX_ARRAYS][MAX_ARRAY_ELEMENTS];
+    private final Deque<ScriptFrame> frames = new ArrayDeque<>();
 
     /**
-     * The execution call frame of the runtime.
+     * The pool of the {@link ScriptFrame} objects that are owned by this runtime.
      */
     @Getter
-    private final Stack<ScriptFrame> frames = new Stack<>();
+    private final ScriptFramePool framePool;
 
     /**
      * The owner {@link ScriptRuntimePool} of this object.
@@ -102,7 +192,6 @@ public abstract class ScriptRuntime implements AutoCloseable {
      * The script which we are currently executing.
      */
     @Getter
-    @Setter
     private Script script;
 
     /**
@@ -119,6 +208,91 @@ public abstract class ScriptRuntime implements AutoCloseable {
     @Setter
     private boolean abort;
 
+    /**
+     * The reason the runtime was last suspended by the executor, or {@code null} if it was not.
+     */
+    @Getter
+    private Preemption preemption;
+
+    /**
+     * The amount of instructions the current execution can still execute, not counting the current slice.
+     */
+    private long budgetInstructions = ExecutionBudget.UNLIMITED;
+
+    /**
+     * The time at which the current execution exceeds its time limit.
+     */
+    private long budgetDeadline;
+
+    /**
+     * Whether or not the current execution has a time limit.
+     */
+    private boolean budgetTimed;
+
+    /**
+     * The size of the current budget slice.
+     */
+    private int budgetSliceSize = Integer.MAX_VALUE;
+
+    /**
+     * The amount of instructions left in the current budget slice, the slow budget checks only run once it runs out.
+     */
+    private int budgetSlice = Integer.MAX_VALUE;
+
+    /**
+     * Constructs a new {@link ScriptRuntime} type object instance.
+     *
+     * @param pool
+     *         the owner {@link ScriptRuntimePool} of the runtime.
+     */
+    @SuppressWarnings("rawtypes")
+    public ScriptRuntime(ScriptRuntimePool pool) {
+        this(pool, ScriptFramePool.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new {@link ScriptRuntime} type object instance.
+     *
+     * @param pool
+     *         the owner {@link ScriptRuntimePool} of the runtime.
+     * @param framePoolCapacity
+     *         the maximum amount of {@link ScriptFrame} objects the runtime can keep for reuse.
+     */
+    @SuppressWarnings("rawtypes")
+    public ScriptRuntime(ScriptRuntimePool pool, int framePoolCapacity) {
+        this.pool = pool;
+        framePool = new ScriptFramePool(framePoolCapacity);
+    }
+
+    /**
+     * Pushes the current execution frame onto the frames stack, the frame object is taken from the runtime
+     * {@link #framePool}.
+     */
+    public void pushFrame() {
+        var frame = framePool.pop();
+        frame.set(this);
+        frames.push(frame);
+    }
+
+    /**
+     * Pops the most recent execution frame from the frames stack and sets the current execution frame based on it,
+     * the frame object is then returned to the runtime {@link #framePool}.
+     */
+    public void popFrame() {
+        var frame = frames.pop();
+        set(frame);
+        framePool.push(frame);
+    }
+
+    /**
+     * Discards all of the execution frames in the frames stack, returning them to the runtime {@link #framePool}.
+     */
+    public void clearFrames() {
+        while (!frames.isEmpty()) {
+            framePool.push(frames.pop());
+        }
+    }
+
     /**
      * Sets the current execution frame of the runtime from the specified {@link ScriptFrame frame}.
      *
@@ -128,21 +302,316 @@ public abstract class ScriptRuntime implements AutoCloseable {
     public void set(ScriptFrame frame) {
         script = frame.getScript();
         address = frame.getAddress();
-        System.arraycopy(frame.getIntLocals(), 0, intLocals, 0, MAX_LOCALS);
-        System.arraycopy(frame.getStringLocals(), 0, stringLocals, 0, MAX_LOCALS);
-        System.arraycopy(frame.getLongLocals(), 0, longLocals, 0, MAX_LOCALS);
+        intBase = frame.getIntBase();
+        stringBase = frame.getStringBase();
+        longBase = frame.getLongBase();
+    }
+
+    /**
+     * Sets the script which we are currently executing, the local fields window of the current script is grown to fit
+     * the local fields of the specified {@link Script script}.
+     *
+     * @param script
+     *         the script which we want to execute.
+     */
+    public void setScript(Script script) {
+        this.script = script;
+        ensureLocals(script);
+    }
+
+    /**
+     * Calls the specified {@link Script script}, the local fields window of the called script starts right after the
+     * window of the current script, then the arguments of the called script are popped from the stack into its window.
+     * The current execution frame must be saved before calling this method.
+     *
+     * @param callee
+     *         the script which we want to call.
+     */
+    public void call(Script callee) {
+        intBase += Math.max(script.getNumIntLocals(), script.getNumIntArguments());
+        stringBase += Math.max(script.getNumStringLocals(), script.getNumStringArguments());
+        longBase += Math.max(script.getNumLongLocals(), script.getNumLongArguments());
+        enter(callee);
+    }
+
+    /**
+     * Jumps to the specified {@link Script script} discarding the local fields of every script in the call stack, then
+     * the arguments of the script are popped from the stack into its window.
+     *
+     * @param script
+     *         the script which we want to jump to.
+     */
+    public void jump(Script script) {
+        intBase = 0;
+        stringBase = 0;
+        longBase = 0;
+        enter(script);
+    }
+
+    /**
+     * Enters the specified {@link Script script} in the current local fields window, popping its arguments from the
+     * stack and clearing the rest of its local fields.
+     *
+     * @param script
+     *         the script which we want to enter.
+     */
+    private void enter(Script script) {
+        setScript(script);
+        address = -1;
+        var numIntArguments = script.getNumIntArguments();
+        for (var index = numIntArguments - 1; index >= 0; index--) {
+            intLocals[intBase + index] = popInt();
+        }
+        Arrays.fill(intLocals, intBase + numIntArguments, intBase + Math.max(script.getNumIntLocals(), numIntArguments), 0);
+        var numStringArguments = script.getNumStringArguments();
+        for (var index = numStringArguments - 1; index >= 0; index--) {
+            stringLocals[stringBase + index] = popString();
+        }
+        Arrays.fill(stringLocals, stringBase + numStringArguments, stringBase + Math.max(script.getNumStringLocals(), numStringArguments), null);
+        var numLongArguments = script.getNumLongArguments();
+        for (var index = numLongArguments - 1; index >= 0; index--) {
+            longLocals[longBase + index] = popLong();
+        }
+        Arrays.fill(longLocals, longBase + numLongArguments, longBase + Math.max(script.getNumLongLocals(), numLongArguments), 0L);
+    }
+
+    /**
+     * Grows the local fields arrays if necessary to fit the local fields of the specified {@link Script script} in the
+     * current local fields window.
+     *
+     * @param script
+     *         the script which we want to fit its local fields.
+     */
+    private void ensureLocals(Script script) {
+        var intEnd = intBase + Math.max(script.getNumIntLocals(), script.getNumIntArguments());
+        if (intEnd > intLocals.length) {
+            intLocals = Arrays.copyOf(intLocals, Math.max(intEnd, intLocals.length << 1));
+        }
+        intLocalsHighWater = Math.max(intLocalsHighWater, intEnd);
+        var stringEnd = stringBase + Math.max(script.getNumStringLocals(), script.getNumStringArguments());
+        if (stringEnd > stringLocals.length) {
+            stringLocals = Arrays.copyOf(stringLocals, Math.max(stringEnd, stringLocals.length << 1));
+        }
+        stringLocalsHighWater = Math.max(stringLocalsHighWater, stringEnd);
+        var longEnd = longBase + Math.max(script.getNumLongLocals(), script.getNumLongArguments());
+        if (longEnd > longLocals.length) {
+            longLocals = Arrays.copyOf(longLocals, Math.max(longEnd, longLocals.length << 1));
+        }
+        longLocalsHighWater = Math.max(longLocalsHighWater, longEnd);
+    }
+
+    /**
+     * Defines the array with the specified {@code id}, the array storage is allocated or grown if necessary and then
+     * the first {@code size} elements are filled with the specified {@code defaultValue}.
+     *
+     * @param id
+     *         the id of the array to define.
+     * @param size
+     *         the size of the array to define.
+     * @param defaultValue
+     *         the default value of the array elements.
+     */
+    public void defineArray(int id, int size, int defaultValue) {
+        var elements = arrayElements[id];
+        if (elements == null || elements.length < size) {
+            elements = arrayElements[id] = new int[size];
+        }
+        Arrays.fill(elements, 0, size, defaultValue);
+        arraySize[id] = size;
+    }
+
+    /**
+     * Returns the value of the int local field with the specified {@code index} in the current script.
+     *
+     * @param index
+     *         the index of the local field.
+     *
+     * @return the value of the local field.
+     */
+    public int getIntLocal(int index) {
+        return intLocals[intBase + index];
+    }
+
+    /**
+     * Sets the value of the int local field with the specified {@code index} in the current script.
+     *
+     * @param index
+     *         the index of the local field.
+     * @param value
+     *         the new value of the local field.
+     */
+    public void setIntLocal(int index, int value) {
+        intLocals[intBase + index] = value;
+    }
+
+    /**
+     * Returns the value of the string local field with the specified {@code index} in the current script.
+     *
+     * @param index
+     *         the index of the local field.
+     *
+     * @return the value of the local field.
+     */
+    public String getStringLocal(int index) {
+        return stringLocals[stringBase + index];
+    }
+
+    /**
+     * Sets the value of the string local field with the specified {@code index} in the current script.
+     *
+     * @param index
+     *         the index of the local field.
+     * @param value
+     *         the new value of the local field.
+     */
+    public void setStringLocal(int index, String value) {
+        stringLocals[stringBase + index] = value;
+    }
+
+    /**
+     * Returns the value of the long local field with the specified {@code index} in the current script.
+     *
+     * @param index
+     *         the index of the local field.
+     *
+     * @return the value of the local field.
+     */
+    public long getLongLocal(int index) {
+        return longLocals[longBase + index];
+    }
+
+    /**
+     * Sets the value of the long local field with the specified {@code index} in the current script.
+     *
+     * @param index
+     *         the index of the local field.
+     * @param value
+     *         the new value of the local field.
+     */
+    public void setLongLocal(int index, long value) {
+        longLocals[longBase + index] = value;
     }
 
     /**
-     * Resets the state of the runtime.
+     * Resets the state of the runtime, only the local fields that were used since the last reset are cleared.
      */
     public void reset() {
-        intStack.clear();
-        stringStack.clear();
-        longStack.clear();
-        frames.clear();
+        clearStacks();
+        clearFrames();
+        Arrays.fill(intLocals, 0, intLocalsHighWater, 0);
+        Arrays.fill(stringLocals, 0, stringLocalsHighWater, null);
+        Arrays.fill(longLocals, 0, longLocalsHighWater, 0L);
+        intLocalsHighWater = 0;
+        stringLocalsHighWater = 0;
+        longLocalsHighWater = 0;
+        Arrays.fill(arraySize, 0);
+        intBase = 0;
+        stringBase = 0;
+        longBase = 0;
         address = 0;
         abort = false;
+        startBudget(null);
+    }
+
+    /**
+     * Starts a new execution with the specified {@link ExecutionBudget}.
+     *
+     * @param budget the budget of the execution, or {@code null} for an unlimited execution.
+     */
+    public void startBudget(ExecutionBudget budget) {
+        preemption = null;
+        if (budget == null) {
+            budgetInstructions = ExecutionBudget.UNLIMITED;
+            budgetTimed = false;
+        } else {
+            budgetInstructions = budget.getMaxInstructions();
+            budgetTimed = budget.isTimed();
+            if (budgetTimed) {
+                budgetDeadline = System.nanoTime() + budget.getMaxNanos();
+            }
+        }
+        nextBudgetSlice();
+    }
+
+    /**
+     * Charges the specified amount of instructions to the budget of the current execution before they are executed.
+     * When the budget is exceeded the runtime is aborted and {@link #getPreemption()} tells which limit was exceeded.
+     *
+     * @param count the amount of instructions that are about to be executed.
+     * @return <code>true</code> if the budget was exceeded otherwise <code>false</code>.
+     */
+    public final boolean charge(int count) {
+        if ((budgetSlice -= count) >= 0) {
+            return false;
+        }
+        budgetInstructions -= budgetSliceSize - budgetSlice;
+        if (budgetInstructions < 0) {
+            return preempt(Preemption.INSTRUCTION_BUDGET);
+        }
+        if (budgetTimed && System.nanoTime() - budgetDeadline >= 0) {
+            return preempt(Preemption.TIME_BUDGET);
+        }
+        nextBudgetSlice();
+        return false;
+    }
+
+    /**
+     * Suspends the current execution because of the specified {@link Preemption}.
+     *
+     * @param reason the reason of the suspension.
+     * @return <code>true</code> always.
+     */
+    private boolean preempt(Preemption reason) {
+        preemption = reason;
+        abort = true;
+        return true;
+    }
+
+    /**
+     * Starts the next budget slice of the current execution.
+     */
+    private void nextBudgetSlice() {
+        var limit = budgetTimed ? BUDGET_TIME_CHECK_INTERVAL : Integer.MAX_VALUE;
+        budgetSliceSize = (int) Math.min(budgetInstructions, limit);
+        budgetSlice = budgetSliceSize;
+    }
+
+    /**
+     * Discards all of the values that are currently in the operand stacks.
+     */
+    public void clearStacks() {
+        Arrays.fill(stringStack, 0, stringStackSize, null);
+        intStackSize = 0;
+        stringStackSize = 0;
+        longStackSize = 0;
+    }
+
+    /**
+     * Grows each of the operand stacks if necessary so it can hold at least the specified amount of values without
+     * growing during the execution.
+     *
+     * @param capacity
+     *         the amount of values each stack must be able to hold.
+     */
+    public void reserveStacks(int capacity) {
+        if (intStack.length < capacity) {
+            intStack = Arrays.copyOf(intStack, capacity);
+        }
+        if (stringStack.length < capacity) {
+            stringStack = Arrays.copyOf(stringStack, capacity);
+        }
+        if (longStack.length < capacity) {
+            longStack = Arrays.copyOf(longStack, capacity);
+        }
+    }
+
+    /**
+     * Returns the amount of values every one of the operand stacks can hold without growing.
+     *
+     * @return the capacity of the smallest stack.
+     */
+    public int getStackCapacity() {
+        return Math.min(intStack.length, Math.min(stringStack.length, longStack.length));
     }
 
     /**
@@ -162,7 +631,10 @@ public abstract class ScriptRuntime implements AutoCloseable {
      *         the int value to push to the int stack.
      */
     public void pushInt(int value) {
-        intStack.push(value);
+        if (intStackSize == intStack.length) {
+            intStack = Arrays.copyOf(intStack, intStackSize << 1);
+        }
+        intStack[intStackSize++] = value;
     }
 
     /**
@@ -171,7 +643,20 @@ public abstract class ScriptRuntime implements AutoCloseable {
      * @return the popped {@code int} value.
      */
     public int popInt() {
-        return intStack.pop();
+        if (intStackSize == 0) {
+            throw new EmptyStackException();
+        }
+        return intStack[--intStackSize];
+    }
+
+    /**
+     * Pops an {@code int} value from the top of the int stack without checking whether the stack is empty, it must
+     * only be used where the depth of the stack was proven by the {@link ScriptVerifier}.
+     *
+     * @return the popped {@code int} value.
+     */
+    public int popIntUnchecked() {
+        return intStack[--intStackSize];
     }
 
     /**
@@ -181,7 +666,10 @@ public abstract class ScriptRuntime implements AutoCloseable {
      *         the string value to push to the string stack.
      */
     public void pushString(String value) {
-        stringStack.push(value);
+        if (stringStackSize == stringStack.length) {
+            stringStack = Arrays.copyOf(stringStack, stringStackSize << 1);
+        }
+        stringStack[stringStackSize++] = value;
     }
 
     /**
@@ -190,7 +678,105 @@ public abstract class ScriptRuntime implements AutoCloseable {
      * @return the popped {@link String} value.
      */
     public String popString() {
-        return stringStack.pop();
+        if (stringStackSize == 0) {
+            throw new EmptyStackException();
+        }
+        var value = stringStack[--stringStackSize];
+        stringStack[stringStackSize] = null;
+        return value;
+    }
+
+    /**
+     * Pops a {@link String} value from the top of the string stack without checking whether the stack is empty, it
+     * must only be used where the depth of the stack was proven by the {@link ScriptVerifier}.
+     *
+     * @return the popped {@link String} value.
+     */
+    public String popStringUnchecked() {
+        var value = stringStack[--stringStackSize];
+        stringStack[stringStackSize] = null;
+        return value;
+    }
+
+    /**
+     * Discards the specified amount of {@link String} values from the top of the string stack.
+     *
+     * @param count
+     *         the amount of values to discard from the string stack.
+     */
+    public void discardStrings(int count) {
+        if (count > stringStackSize) {
+            throw new EmptyStackException();
+        }
+        Arrays.fill(stringStack, stringStackSize - count, stringStackSize, null);
+        stringStackSize -= count;
+    }
+
+    /**
+     * Returns the index within the {@link #getStringStack() string stack} of the first of the specified amount of
+     * values at the top of the string stack, the values can then be read in place without popping them.
+     *
+     * @param count
+     *         the amount of values in the slice.
+     *
+     * @return the index of the first value of the slice, the slice ends at the {@link #getStringStackSize() size} of the
+     * string stack.
+     */
+    public int sliceStrings(int count) {
+        if (count < 0 || count > stringStackSize) {
+            throw new EmptyStackException();
+        }
+        return stringStackSize - count;
+    }
+
+    /**
+     * Pops the specified amount of values from the top of the string stack and concatenates them in the order they
+     * were pushed, using the {@link #borrowStringBuilder() pooled string builder} of the runtime.
+     *
+     * @param count
+     *         the amount of values to concatenate.
+     *
+     * @return the concatenated value.
+     */
+    public String joinStrings(int count) {
+        sliceStrings(count);
+        return joinStringsUnchecked(count);
+    }
+
+    /**
+     * Pops the specified amount of values from the top of the string stack and concatenates them in the order they
+     * were pushed without checking whether the stack has enough values, it must only be used where the depth of the
+     * stack was proven by the {@link ScriptVerifier}.
+     *
+     * @param count
+     *         the amount of values to concatenate.
+     *
+     * @return the concatenated value.
+     */
+    public String joinStringsUnchecked(int count) {
+        var end = stringStackSize;
+        var start = end - count;
+        var builder = borrowStringBuilder();
+        for (var index = start; index < end; index++) {
+            builder.append(stringStack[index]);
+        }
+        Arrays.fill(stringStack, start, end, null);
+        stringStackSize = start;
+        return builder.toString();
+    }
+
+    /**
+     * Returns the empty string builder of the runtime, the builder is only valid until the next call to this method.
+     *
+     * @return the {@link StringBuilder} object.
+     */
+    public StringBuilder borrowStringBuilder() {
+        var builder = stringBuilder;
+        if (builder.capacity() > MAX_POOLED_BUILDER_CAPACITY) {
+            builder = stringBuilder = new StringBuilder(INITIAL_STACK_CAPACITY);
+        }
+        builder.setLength(0);
+        return builder;
     }
 
     /**
@@ -200,16 +786,32 @@ public abstract class ScriptRuntime implements AutoCloseable {
      *         the long value to push to the long stack.
      */
     public void pushLong(long value) {
-        longStack.push(value);
+        if (longStackSize == longStack.length) {
+            longStack = Arrays.copyOf(longStack, longStackSize << 1);
+        }
+        longStack[longStackSize++] = value;
     }
 
     /**
-     * Pops an {@link String} value from the top of the long stack.
+     * Pops an {@code long} value from the top of the long stack.
      *
-     * @return the popped {@link String} value.
+     * @return the popped {@code long} value.
      */
     public long popLong() {
-        return longStack.pop();
+        if (longStackSize == 0) {
+            throw new EmptyStackException();
+        }
+        return longStack[--longStackSize];
+    }
+
+    /**
+     * Pops a {@code long} value from the top of the long stack without checking whether the stack is empty, it must
+     * only be used where the depth of the stack was proven by the {@link ScriptVerifier}.
+     *
+     * @return the popped {@code long} value.
+     */
+    public long popLongUnchecked() {
+        return longStack[--longStackSize];
     }
 
     /**
@@ -221,13 +823,23 @@ public abstract class ScriptRuntime implements AutoCloseable {
         pool.push(this);
     }
 
+    /**
+     * Resolves the callee script of the call instruction at the current instruction address, the id of the callee is
+     * the {@link #intOperand() int operand} of the instruction.
+     *
+     * @return the callee {@link Script} or {@code null} if the cache of the runtime does not contain it.
+     */
+    public Script resolveCallee() {
+        return script.getCallSites().resolve(address, intOperand(), pool.getCache());
+    }
+
     /**
      * Returns the {@code int} value operand that is at the current instruction address.
      *
      * @return the {@code int} value of the operand.
      */
     public int intOperand() {
-        return (int) script.getOperands()[address];
+        return script.getIntOperands()[address];
     }
 
     /**
@@ -236,7 +848,7 @@ public abstract class ScriptRuntime implements AutoCloseable {
      * @return the {@link String} value of the operand.
      */
     public String stringOperand() {
-        return (String) script.getOperands()[address];
+        return script.getStringPool()[script.getIntOperands()[address]];
     }
 
     /**
@@ -245,6 +857,6 @@ public abstract class ScriptRuntime implements AutoCloseable {
      * @return the {@code long} value of the operand.
      */
     public long longOperand() {
-        return (long) script.getOperands()[address];
+        return script.getLongPool()[script.getIntOperands()[address]];
     }
 }
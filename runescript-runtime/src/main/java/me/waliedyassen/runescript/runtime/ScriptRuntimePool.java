@@ -8,25 +8,43 @@
 package me.waliedyassen.runescript.runtime;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import me.waliedyassen.runescript.runtime.cache.ScriptCache;
 import me.waliedyassen.runescript.runtime.script.Script;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
  * Represents a pool of {@link ScriptRuntime} objects with a limited size.
+ * <p>
+ * The pool is safe to be used from multiple threads, the runtimes are stored in stripes where each thread prefers the
+ * stripe it is mapped to and only falls back to the other stripes when its own stripe is empty or full.
+ * <p>
+ * The stored runtimes are grouped into size classes by the capacity of their operand stacks, a runtime that is popped
+ * for a specific {@link Script} comes from the smallest class that fits the maximum stack depth of the script, or from
+ * a larger class when that class has no free runtime. This keeps the runtimes of shallow scripts from being grown by
+ * deep scripts, while a runtime that was grown by a deep script may still be reused by a shallow script instead of
+ * creating a new one. Popping a runtime without a script starts at the smallest class.
  *
  * @author Walied K. Yassen
  */
-@RequiredArgsConstructor
 public final class ScriptRuntimePool<R extends ScriptRuntime> {
 
     /**
-     * A stack of the {@link ScriptRuntime} objects that are ready to be used.
+     * The minimum operand stack capacity of each size class, in ascending order.
      */
-    private final Stack<R> runtimes = new Stack<>();
+    private static final int[] SIZE_CLASSES = {ScriptRuntime.INITIAL_STACK_CAPACITY, 128, 1024};
+
+    /**
+     * The stripes which contain the {@link ScriptRuntime} objects that are ready to be used.
+     */
+    private final Stripe<R>[] stripes;
+
+    /**
+     * The mask that is used to map a thread to its stripe.
+     */
+    private final int stripeMask;
 
     /**
      * The supplier of the script runtime.
@@ -42,8 +60,67 @@ public final class ScriptRuntimePool<R extends ScriptRuntime> {
     /**
      * The maximum amount of {@link ScriptRuntime} we can store in the pool.
      */
+    @Getter
     private final int limit;
 
+    /**
+     * The amount of {@link ScriptRuntime} objects that were created by the pool.
+     */
+    private final LongAdder created = new LongAdder();
+
+    /**
+     * The amount of {@link ScriptRuntime} objects that were reused from the pool.
+     */
+    private final LongAdder reused = new LongAdder();
+
+    /**
+     * The amount of {@link ScriptRuntime} objects that were dropped because the pool was full.
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Constructs a new {@link ScriptRuntimePool} type object instance with a stripe count that is based on the amount
+     * of the available processors.
+     *
+     * @param supplier the supplier of the script runtime.
+     * @param cache    the cache object which will provide the {@link Script} objects.
+     * @param limit    the maximum amount of {@link ScriptRuntime} we can store in the pool.
+     */
+    public ScriptRuntimePool(Function<ScriptRuntimePool<R>, R> supplier, ScriptCache cache, int limit) {
+        this(supplier, cache, limit, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new {@link ScriptRuntimePool} type object instance.
+     *
+     * @param supplier    the supplier of the script runtime.
+     * @param cache       the cache object which will provide the {@link Script} objects.
+     * @param limit       the maximum amount of {@link ScriptRuntime} we can store in the pool.
+     * @param concurrency the expected amount of threads that use the pool concurrently, it is rounded up to the
+     *                    nearest power of two to determine the amount of stripes.
+     */
+    @SuppressWarnings("unchecked")
+    public ScriptRuntimePool(Function<ScriptRuntimePool<R>, R> supplier, ScriptCache cache, int limit, int concurrency) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit of the pool cannot be negative: " + limit);
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The concurrency of the pool must be positive: " + concurrency);
+        }
+        this.supplier = supplier;
+        this.cache = cache;
+        this.limit = limit;
+        var count = Integer.highestOneBit(concurrency);
+        if (count < concurrency) {
+            count <<= 1;
+        }
+        stripes = new Stripe[count];
+        for (var index = 0; index < count; index++) {
+            stripes[index] = new Stripe<>(limit / count + (index < limit % count ? 1 : 0));
+        }
+        stripeMask = count - 1;
+    }
+
     /**
      * Attempts to pop an free existing {@link ScriptRuntime} from the pool stack, if none was available, it will create
      * a new {@link ScriptRuntime} object and return it.
@@ -51,14 +128,55 @@ public final class ScriptRuntimePool<R extends ScriptRuntime> {
      * @return the popped or created {@link ScriptRuntime} object.
      */
     public R pop() {
-        if (runtimes.isEmpty()) {
-            return supplier.apply(this);
+        var runtime = poll(0);
+        if (runtime != null) {
+            return runtime;
         }
-        var runtime = runtimes.pop();
-        runtime.reset();
+        created.increment();
+        return supplier.apply(this);
+    }
+
+    /**
+     * Attempts to pop a free existing {@link ScriptRuntime} whose operand stacks fit the maximum stack depth of the
+     * specified {@link Script} from the pool stack, if none was available, it will create a new {@link ScriptRuntime}
+     * object with operand stacks that fit the script and return it.
+     *
+     * @param script the script which the runtime is going to execute.
+     * @return the popped or created {@link ScriptRuntime} object.
+     */
+    public R pop(Script script) {
+        var depth = script.getMaxStackDepth();
+        var sizeClass = sizeClassOf(depth);
+        var runtime = poll(sizeClass);
+        if (runtime != null) {
+            return runtime;
+        }
+        created.increment();
+        runtime = supplier.apply(this);
+        // round the stacks up to the size class so the runtime is stored back into the same class.
+        runtime.reserveStacks(Math.max(depth, SIZE_CLASSES[sizeClass]));
         return runtime;
     }
 
+    /**
+     * Polls a free existing {@link ScriptRuntime} from the specified size class or any larger size class.
+     *
+     * @param sizeClass the smallest size class to poll from.
+     * @return the polled {@link ScriptRuntime} object or {@code null} if none was available.
+     */
+    private R poll(int sizeClass) {
+        var start = stripeIndex();
+        for (var offset = 0; offset < stripes.length; offset++) {
+            var runtime = stripes[(start + offset) & stripeMask].poll(sizeClass);
+            if (runtime != null) {
+                reused.increment();
+                runtime.reset();
+                return runtime;
+            }
+        }
+        return null;
+    }
+
     /**
      * Attempts to push the specified {@link ScriptRuntime} object back into the pool stack, if the current pool stack
      * size exceeds the {@link #limit} nothing will happen.
@@ -66,9 +184,198 @@ public final class ScriptRuntimePool<R extends ScriptRuntime> {
      * @param runtime the runtime object we want to push back into the pool stack.
      */
     public void push(R runtime) {
-        if (runtimes.size() >= limit) {
-            return;
+        var sizeClass = SIZE_CLASSES.length - 1;
+        while (sizeClass > 0 && SIZE_CLASSES[sizeClass] > runtime.getStackCapacity()) {
+            sizeClass--;
+        }
+        var start = stripeIndex();
+        for (var offset = 0; offset < stripes.length; offset++) {
+            if (stripes[(start + offset) & stripeMask].offer(runtime, sizeClass)) {
+                return;
+            }
+        }
+        dropped.increment();
+    }
+
+    /**
+     * Pre-warms the pool by creating the specified amount of {@link ScriptRuntime} objects and storing them, the
+     * amount is capped by the free space that is left in the pool.
+     *
+     * @param count the amount of runtime objects to create.
+     */
+    public void prewarm(int count) {
+        for (var index = 0; index < count && size() < limit; index++) {
+            created.increment();
+            push(supplier.apply(this));
+        }
+    }
+
+    /**
+     * Returns the amount of {@link ScriptRuntime} objects that are currently stored in the pool.
+     *
+     * @return the amount of stored runtime objects.
+     */
+    public int size() {
+        var size = 0;
+        for (var stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the amount of {@link ScriptRuntime} objects that were created by the pool.
+     *
+     * @return the amount of created runtime objects.
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    /**
+     * Returns the amount of {@link ScriptRuntime} objects that were reused from the pool.
+     *
+     * @return the amount of reused runtime objects.
+     */
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+    /**
+     * Returns the amount of {@link ScriptRuntime} objects that were dropped because the pool was full.
+     *
+     * @return the amount of dropped runtime objects.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the amount of {@link ScriptRuntime} objects that are currently stored in each size class of the pool.
+     *
+     * @return the amount of stored runtime objects, indexed by the size class.
+     */
+    public int[] sizeClassSizes() {
+        var sizes = new int[SIZE_CLASSES.length];
+        for (var stripe : stripes) {
+            stripe.sizes(sizes);
+        }
+        return sizes;
+    }
+
+    /**
+     * Returns the smallest size class whose runtimes fit the specified stack depth.
+     *
+     * @param depth the stack depth which the runtimes must fit.
+     * @return the index of the size class.
+     */
+    private static int sizeClassOf(int depth) {
+        for (var sizeClass = 0; sizeClass < SIZE_CLASSES.length; sizeClass++) {
+            if (depth <= SIZE_CLASSES[sizeClass]) {
+                return sizeClass;
+            }
+        }
+        // the runtimes of the largest class may still be too small, their stacks grow during the execution.
+        return SIZE_CLASSES.length - 1;
+    }
+
+    /**
+     * Returns the index of the stripe that the current thread is mapped to.
+     *
+     * @return the index of the stripe.
+     */
+    private int stripeIndex() {
+        var id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) & stripeMask;
+    }
+
+    /**
+     * A single stripe of the pool, it is guarded by its own monitor.
+     *
+     * @param <R> the type of the runtime.
+     */
+    private static final class Stripe<R> {
+
+        /**
+         * The runtime objects that are stored in the stripe, indexed by their size class.
+         */
+        private final ArrayDeque<R>[] runtimes;
+
+        /**
+         * The amount of runtime objects that are stored in the stripe.
+         */
+        private int size;
+
+        /**
+         * The maximum amount of runtime objects the stripe can hold.
+         */
+        private final int capacity;
+
+        /**
+         * Constructs a new {@link Stripe} type object instance.
+         *
+         * @param capacity the maximum amount of runtime objects the stripe can hold.
+         */
+        @SuppressWarnings("unchecked")
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            runtimes = new ArrayDeque[SIZE_CLASSES.length];
+            for (var sizeClass = 0; sizeClass < runtimes.length; sizeClass++) {
+                runtimes[sizeClass] = new ArrayDeque<>();
+            }
+        }
+
+        /**
+         * Polls a runtime object from the specified size class or any larger size class of the stripe.
+         *
+         * @param sizeClass the smallest size class to poll from.
+         * @return the runtime object or {@code null} if the stripe had none in the size classes.
+         */
+        synchronized R poll(int sizeClass) {
+            for (; sizeClass < runtimes.length; sizeClass++) {
+                var runtime = runtimes[sizeClass].pollLast();
+                if (runtime != null) {
+                    size--;
+                    return runtime;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Offers the specified runtime object to the stripe.
+         *
+         * @param runtime   the runtime object to offer.
+         * @param sizeClass the size class of the runtime object.
+         * @return <code>true</code> if the stripe had room for it otherwise <code>false</code>.
+         */
+        synchronized boolean offer(R runtime, int sizeClass) {
+            if (size >= capacity) {
+                return false;
+            }
+            runtimes[sizeClass].addLast(runtime);
+            size++;
+            return true;
+        }
+
+        /**
+         * Returns the amount of runtime objects that are stored in the stripe.
+         *
+         * @return the amount of stored runtime objects.
+         */
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Adds the amount of runtime objects that are stored in each size class of the stripe to the specified array.
+         *
+         * @param sizes the amounts indexed by the size class.
+         */
+        synchronized void sizes(int[] sizes) {
+            for (var sizeClass = 0; sizeClass < runtimes.length; sizeClass++) {
+                sizes[sizeClass] += runtimes[sizeClass].size();
+            }
         }
-        runtimes.push(runtime);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * The context of a {@link ScriptLinker} while it links a script, it describes the scripts which will be present in the
+ * cache once the script is stored, which are the scripts of the cache and the scripts which are stored together with
+ * the linked script.
+ *
+ * @author Walied K. Yassen
+ */
+@RequiredArgsConstructor
+public final class LinkContext {
+
+    /**
+     * The cache which the script is linked for.
+     */
+    @Getter
+    private final ScriptCache cache;
+
+    /**
+     * The ids of the scripts which are stored together with the linked script.
+     */
+    private final Set<Integer> pending;
+
+    /**
+     * Checks whether or not a {@link me.waliedyassen.runescript.runtime.script.Script} with the specified id will be
+     * present once the linked script is stored, either because it is already in the cache or because it is stored
+     * together with the linked script.
+     *
+     * @param id the id of the script.
+     * @return <code>true</code> if it will otherwise <code>false</code>.
+     */
+    public boolean contains(int id) {
+        return pending.contains(id) || cache.contains(id);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.script.Script;
+import me.waliedyassen.runescript.runtime.script.SwitchTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link ScriptCache} that is backed by a memory-mapped script archive file written by {@link ScriptArchiveWriter}.
+ * <p>
+ * Opening the cache only maps the file and checks its header, each {@link Script} is decoded and linked the first time
+ * it is requested, and the same object is returned from then on. The cache is safe for use by multiple threads, when
+ * two threads request the same script at the same time only one of the decoded scripts is kept.
+ *
+ * @author Walied K. Yassen
+ * @see ScriptArchive
+ */
+public final class MappedScriptCache extends ScriptCache {
+
+    /**
+     * The mapped content of the archive file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The amount of scripts in the archive.
+     */
+    private final int count;
+
+    /**
+     * The position of the name index within the archive.
+     */
+    private final int namesOffset;
+
+    /**
+     * The scripts that were materialized so far, indexed by their slot in the id index.
+     */
+    private final AtomicReferenceArray<Script> scripts;
+
+    /**
+     * Constructs a new {@link MappedScriptCache} type object instance.
+     *
+     * @param path the path of the archive file.
+     * @throws IOException if anything occurs while mapping the file or if the file is not a valid archive.
+     */
+    public MappedScriptCache(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The script archive is too large: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < ScriptArchive.HEADER_SIZE || buffer.getInt(0) != ScriptArchive.MAGIC) {
+            throw new IOException("The file is not a script archive: " + path);
+        }
+        if (buffer.getInt(4) != ScriptArchive.VERSION) {
+            throw new IOException("Unsupported script archive version: " + buffer.getInt(4));
+        }
+        count = buffer.getInt(8);
+        // the offset is computed in long so a corrupt count cannot overflow past the check.
+        var names = ScriptArchive.HEADER_SIZE + (long) count * ScriptArchive.ENTRY_SIZE;
+        if (count < 0 || names + (long) count * ScriptArchive.ENTRY_SIZE > buffer.capacity()) {
+            throw new IOException("The script archive index is truncated: " + path);
+        }
+        namesOffset = (int) names;
+        scripts = new AtomicReferenceArray<>(count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script get(int id) {
+        var slot = slot(id);
+        return slot == -1 ? null : materialize(slot);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(int id) {
+        return slot(id) != -1;
+    }
+
+    /**
+     * Finds the slot of the script with the specified id in the id index.
+     *
+     * @param id the id of the script.
+     * @return the slot of the script or {@code -1} if the archive does not contain it.
+     */
+    private int slot(int id) {
+        var low = 0;
+        var high = count - 1;
+        while (low <= high) {
+            var mid = (low + high) >>> 1;
+            var value = getId(mid);
+            if (value < id) {
+                low = mid + 1;
+            } else if (value > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script get(String name) {
+        var hash = name.hashCode();
+        var low = 0;
+        var high = count;
+        // find the first entry of the name index with the same hash, then check each of the colliding entries.
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (buffer.getInt(namesOffset + mid * ScriptArchive.ENTRY_SIZE) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (var index = low; index < count; index++) {
+            var position = namesOffset + index * ScriptArchive.ENTRY_SIZE;
+            if (buffer.getInt(position) != hash) {
+                break;
+            }
+            var slot = buffer.getInt(position + 4);
+            var script = scripts.get(slot);
+            if (script != null ? script.getName().equals(name) : readString(offset(slot)).equals(name)) {
+                return materialize(slot);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the amount of scripts in the archive.
+     *
+     * @return the amount of scripts.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the id of the script at the specified slot of the id index.
+     *
+     * @param slot the slot of the script.
+     * @return the id of the script.
+     */
+    public int getId(int slot) {
+        return buffer.getInt(ScriptArchive.HEADER_SIZE + slot * ScriptArchive.ENTRY_SIZE);
+    }
+
+    /**
+     * Returns the materialized script at the specified slot, decoding and linking it if it was not materialized yet.
+     *
+     * @param slot the slot of the script in the id index.
+     * @return the materialized {@link Script} object.
+     */
+    private Script materialize(int slot) {
+        var script = scripts.get(slot);
+        if (script != null) {
+            return script;
+        }
+        try {
+            script = link(decode(offset(slot)));
+        } catch (ExecutionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ExecutionException("Failed to decode the script with id: " + getId(slot), e);
+        }
+        return scripts.compareAndSet(slot, null, script) ? script : scripts.get(slot);
+    }
+
+    /**
+     * Returns the position of the section of the script at the specified slot.
+     *
+     * @param slot the slot of the script.
+     * @return the position of the section.
+     */
+    private int offset(int slot) {
+        return buffer.getInt(ScriptArchive.HEADER_SIZE + slot * ScriptArchive.ENTRY_SIZE + 4);
+    }
+
+    /**
+     * Decodes the script section at the specified position.
+     *
+     * @param offset the position of the section.
+     * @return the decoded {@link Script} object.
+     */
+    private Script decode(int offset) {
+        var data = buffer.duplicate().position(offset);
+        var name = readString(data);
+        var numIntLocals = data.getInt();
+        var numStringLocals = data.getInt();
+        var numLongLocals = data.getInt();
+        var numIntArguments = data.getInt();
+        var numStringArguments = data.getInt();
+        var numLongArguments = data.getInt();
+        var maxIntStackDepth = data.getInt();
+        var maxStringStackDepth = data.getInt();
+        var maxLongStackDepth = data.getInt();
+        var length = data.getInt();
+        var instructions = readInts(data, length);
+        var intOperands = readInts(data, length);
+        var longPool = new long[data.getInt()];
+        data.asLongBuffer().get(longPool);
+        data.position(data.position() + longPool.length * Long.BYTES);
+        var stringPool = new String[data.getInt()];
+        for (var index = 0; index < stringPool.length; index++) {
+            stringPool[index] = readString(data);
+        }
+        var switchTables = new SwitchTable[data.getInt()];
+        for (var index = 0; index < switchTables.length; index++) {
+            var size = data.getInt();
+            if (size != -1) {
+                var keys = readInts(data, size);
+                switchTables[index] = SwitchTable.of(keys, readInts(data, size));
+            }
+        }
+        return new Script(name, instructions, intOperands, longPool, stringPool, numIntLocals, numStringLocals, numLongLocals, numIntArguments, numStringArguments, numLongArguments, switchTables, maxIntStackDepth, maxStringStackDepth, maxLongStackDepth);
+    }
+
+    /**
+     * Reads an int array from the specified buffer.
+     *
+     * @param data   the buffer to read from.
+     * @param length the length of the array.
+     * @return the read array.
+     */
+    private static int[] readInts(ByteBuffer data, int length) {
+        var values = new int[length];
+        data.asIntBuffer().get(values);
+        data.position(data.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Reads a length prefixed UTF-8 string at the specified position of the archive.
+     *
+     * @param offset the position of the string.
+     * @return the read string.
+     */
+    private String readString(int offset) {
+        return readString(buffer.duplicate().position(offset));
+    }
+
+    /**
+     * Reads a length prefixed UTF-8 string from the specified buffer.
+     *
+     * @param data the buffer to read from.
+     * @return the read string.
+     */
+    private static String readString(ByteBuffer data) {
+        var bytes = new byte[data.getInt()];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
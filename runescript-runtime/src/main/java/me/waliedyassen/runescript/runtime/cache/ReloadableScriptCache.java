@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link ScriptCache} whose scripts can be replaced while executors are running.
+ * <p>
+ * The scripts are kept in an immutable snapshot which is replaced as a whole on every change, so the lookups never
+ * lock and always observe a consistent set of scripts. Runtimes that are already executing a replaced script keep
+ * executing the old version until they leave it, while every lookup after the replacement returns the new version.
+ *
+ * @author Walied K. Yassen
+ */
+public final class ReloadableScriptCache extends ScriptCache {
+
+    /**
+     * The current snapshot of the cache.
+     */
+    private volatile Snapshot snapshot = new Snapshot(new Script[0], Map.of(), 0);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script get(int id) {
+        var scripts = snapshot.scripts;
+        return id >= 0 && id < scripts.length ? scripts[id] : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script get(String name) {
+        var current = snapshot;
+        var id = current.ids.get(name);
+        return id == null ? null : current.scripts[id];
+    }
+
+    /**
+     * Links the specified {@link Script} and stores it with the specified id, replacing the script that was stored with
+     * the same id, the name of the script is mapped to the new id from then on.
+     *
+     * @param id     the id of the script.
+     * @param script the script to store.
+     * @throws ExecutionException if the script cannot be linked.
+     */
+    public void put(int id, Script script) throws ExecutionException {
+        putAll(Map.of(id, script));
+    }
+
+    /**
+     * Links all of the specified scripts and stores them at once, the scripts become visible together in a single
+     * version of the cache. Nothing is stored if any of the scripts cannot be linked. The scripts are linked as a batch,
+     * so they can refer to each other even if none of them was in the cache before.
+     *
+     * @param scripts the scripts to store keyed by their ids.
+     * @throws ExecutionException if any of the scripts cannot be linked.
+     */
+    public void putAll(Map<Integer, Script> scripts) throws ExecutionException {
+        var linked = new HashMap<Integer, Script>();
+        for (var entry : scripts.entrySet()) {
+            if (entry.getKey() < 0) {
+                throw new IllegalArgumentException("The script id cannot be negative: " + entry.getKey());
+            }
+            linked.put(entry.getKey(), link(entry.getValue(), scripts.keySet()));
+        }
+        synchronized (this) {
+            var current = snapshot;
+            var length = current.scripts.length;
+            for (var id : linked.keySet()) {
+                length = Math.max(length, id + 1);
+            }
+            var array = Arrays.copyOf(current.scripts, length);
+            var ids = new HashMap<>(current.ids);
+            for (var entry : linked.entrySet()) {
+                var previous = array[entry.getKey()];
+                if (previous != null) {
+                    ids.remove(previous.getName(), entry.getKey());
+                }
+                var script = entry.getValue();
+                ids.put(script.getName(), entry.getKey());
+                array[entry.getKey()] = script;
+            }
+            snapshot = new Snapshot(array, ids, current.version + 1);
+        }
+    }
+
+    /**
+     * Removes the script with the specified id from the cache.
+     *
+     * @param id the id of the script to remove.
+     * @return the removed {@link Script} object or {@code null} if there was no script with the specified id.
+     */
+    public synchronized Script remove(int id) {
+        var current = snapshot;
+        if (id < 0 || id >= current.scripts.length || current.scripts[id] == null) {
+            return null;
+        }
+        var array = current.scripts.clone();
+        var removed = array[id];
+        array[id] = null;
+        var ids = new HashMap<>(current.ids);
+        ids.remove(removed.getName(), id);
+        snapshot = new Snapshot(array, ids, current.version + 1);
+        return removed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * An immutable snapshot of the content of the cache.
+     */
+    private static final class Snapshot {
+
+        /**
+         * The scripts of the snapshot, indexed by their ids.
+         */
+        private final Script[] scripts;
+
+        /**
+         * The ids of the scripts of the snapshot, keyed by their names.
+         */
+        private final Map<String, Integer> ids;
+
+        /**
+         * The version of the snapshot.
+         */
+        private final long version;
+
+        /**
+         * Constructs a new {@link Snapshot} type object instance.
+         *
+         * @param scripts the scripts of the snapshot.
+         * @param ids     the ids of the scripts of the snapshot.
+         * @param version the version of the snapshot.
+         */
+        Snapshot(Script[] scripts, Map<String, Integer> ids, long version) {
+            this.scripts = scripts;
+            this.ids = ids;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+/**
+ * The layout of a script archive file, all of the values are stored in big-endian order.
+ * <pre>
+ * header      magic:int version:int count:int
+ * id index    (id:int offset:int) * count, sorted by id
+ * name index  (hash:int slot:int) * count, sorted by hash then slot, where slot is the position in the id index
+ * scripts     one section per script at the offset from the id index:
+ *             name:string
+ *             numIntLocals:int numStringLocals:int numLongLocals:int
+ *             numIntArguments:int numStringArguments:int numLongArguments:int
+ *             maxIntStackDepth:int maxStringStackDepth:int maxLongStackDepth:int
+ *             length:int instructions:int[length] intOperands:int[length]
+ *             longCount:int longPool:long[longCount]
+ *             stringCount:int stringPool:string[stringCount]
+ *             switchCount:int (size:int keys:int[size] jumps:int[size]) * switchCount, where size is -1 for no table
+ * string      length:int utf8:byte[length]
+ * </pre>
+ *
+ * @author Walied K. Yassen
+ */
+final class ScriptArchive {
+
+    /**
+     * The magic number at the start of every script archive file.
+     */
+    static final int MAGIC = 0x52534152;
+
+    /**
+     * The version of the archive layout.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The size of the archive header in bytes.
+     */
+    static final int HEADER_SIZE = 12;
+
+    /**
+     * The size of a single entry of either index in bytes.
+     */
+    static final int ENTRY_SIZE = 8;
+
+    private ScriptArchive() {
+        // NOOP
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes {@link Script} objects into a script archive file which can be loaded by {@link MappedScriptCache}.
+ *
+ * @author Walied K. Yassen
+ * @see ScriptArchive
+ */
+public final class ScriptArchiveWriter {
+
+    /**
+     * The scripts which will be written, keyed and sorted by their id.
+     */
+    private final Map<Integer, Script> scripts = new TreeMap<>();
+
+    /**
+     * Adds the specified {@link Script} to the archive.
+     *
+     * @param id     the id of the script.
+     * @param script the script to add.
+     * @throws IllegalArgumentException if another script with the same id was already added.
+     */
+    public void add(int id, Script script) {
+        if (scripts.putIfAbsent(id, script) != null) {
+            throw new IllegalArgumentException("A script with the same id was already added: " + id);
+        }
+    }
+
+    /**
+     * Writes the archive into the file at the specified path.
+     *
+     * @param path the path of the file to write.
+     * @throws IOException if anything occurs while writing the file.
+     */
+    public void write(Path path) throws IOException {
+        Files.write(path, toByteArray());
+    }
+
+    /**
+     * Encodes the archive into a byte array.
+     *
+     * @return the encoded archive.
+     */
+    public byte[] toByteArray() {
+        var count = scripts.size();
+        var sections = new ByteArrayOutputStream();
+        var ids = new int[count];
+        var offsets = new int[count];
+        var names = new long[count];
+        var start = ScriptArchive.HEADER_SIZE + count * ScriptArchive.ENTRY_SIZE * 2;
+        try (var data = new DataOutputStream(sections)) {
+            var slot = 0;
+            for (var entry : scripts.entrySet()) {
+                var script = entry.getValue();
+                ids[slot] = entry.getKey();
+                offsets[slot] = start + data.size();
+                // pack the name hash and the slot so a single primitive sort orders the name index.
+                names[slot] = (long) script.getName().hashCode() << 32 | slot;
+                writeScript(data, script);
+                slot++;
+            }
+            Arrays.sort(names);
+            var archive = new ByteArrayOutputStream(start + data.size());
+            try (var header = new DataOutputStream(archive)) {
+                header.writeInt(ScriptArchive.MAGIC);
+                header.writeInt(ScriptArchive.VERSION);
+                header.writeInt(count);
+                for (slot = 0; slot < count; slot++) {
+                    header.writeInt(ids[slot]);
+                    header.writeInt(offsets[slot]);
+                }
+                for (var name : names) {
+                    header.writeInt((int) (name >> 32));
+                    header.writeInt((int) name);
+                }
+                data.flush();
+                sections.writeTo(header);
+            }
+            return archive.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the section of the specified {@link Script}.
+     *
+     * @param data   the stream to write the section into.
+     * @param script the script to write.
+     * @throws IOException if anything occurs while writing the section.
+     */
+    private static void writeScript(DataOutputStream data, Script script) throws IOException {
+        writeString(data, script.getName());
+        data.writeInt(script.getNumIntLocals());
+        data.writeInt(script.getNumStringLocals());
+        data.writeInt(script.getNumLongLocals());
+        data.writeInt(script.getNumIntArguments());
+        data.writeInt(script.getNumStringArguments());
+        data.writeInt(script.getNumLongArguments());
+        data.writeInt(script.getMaxIntStackDepth());
+        data.writeInt(script.getMaxStringStackDepth());
+        data.writeInt(script.getMaxLongStackDepth());
+        var instructions = script.getInstructions();
+        data.writeInt(instructions.length);
+        for (var instruction : instructions) {
+            data.writeInt(instruction);
+        }
+        for (var operand : script.getIntOperands()) {
+            data.writeInt(operand);
+        }
+        data.writeInt(script.getLongPool().length);
+        for (var value : script.getLongPool()) {
+            data.writeLong(value);
+        }
+        data.writeInt(script.getStringPool().length);
+        for (var value : script.getStringPool()) {
+            writeString(data, value);
+        }
+        var switchTables = script.getSwitchTable();
+        data.writeInt(switchTables.length);
+        for (var switchTable : switchTables) {
+            if (switchTable == null) {
+                data.writeInt(-1);
+                continue;
+            }
+            data.writeInt(switchTable.size());
+            for (var key : switchTable.keys()) {
+                data.writeInt(key);
+            }
+            for (var jump : switchTable.jumps()) {
+                data.writeInt(jump);
+            }
+        }
+    }
+
+    /**
+     * Writes a length prefixed UTF-8 string.
+     *
+     * @param data  the stream to write the string into.
+     * @param value the string to write.
+     * @throws IOException if anything occurs while writing the string.
+     */
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+}
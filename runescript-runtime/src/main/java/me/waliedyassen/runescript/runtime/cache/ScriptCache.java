@@ -8,16 +8,29 @@
 package me.waliedyassen.runescript.runtime.cache;
 
 import lombok.RequiredArgsConstructor;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
 import me.waliedyassen.runescript.runtime.script.Script;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Represents a script cache that can be used for loading and storing the loaded scripts in memory for faster access.
+ * <p>
+ * Implementations must pass every {@link Script} through {@link #link(Script)} once before storing it. Scripts which
+ * skip it are still validated by the executor when it first enters them, but none of the other linkers are applied.
  *
  * @author Walied K. Yassen
  */
 @RequiredArgsConstructor
 public abstract class ScriptCache {
 
+    /**
+     * The linkers that are applied to every script that enters the cache.
+     */
+    private final List<ScriptLinker> linkers = new CopyOnWriteArrayList<>();
+
     /**
      * Returns the {@link Script} object with the specified {@code name}.
      *
@@ -33,4 +46,62 @@ public abstract class ScriptCache {
      * @return the {@link Script} object if found otherwise {@code null}.
      */
     public abstract Script get(String name);
+
+    /**
+     * Checks whether or not the cache contains a {@link Script} with the specified id. Implementations that load their
+     * scripts lazily should override this to avoid loading the script.
+     *
+     * @param id the id of the script.
+     * @return <code>true</code> if it does otherwise <code>false</code>.
+     */
+    public boolean contains(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Returns the version of the cache, the version must change every time a script of the cache is replaced or removed,
+     * the scripts which are resolved from the cache are resolved again once the version changes.
+     *
+     * @return the version of the cache, caches whose scripts never change always return {@code 0}.
+     */
+    public long getVersion() {
+        return 0;
+    }
+
+    /**
+     * Adds a new {@link ScriptLinker} to be applied to every script that enters the cache.
+     *
+     * @param linker the linker to add.
+     */
+    public void addLinker(ScriptLinker linker) {
+        linkers.add(linker);
+    }
+
+    /**
+     * Links the specified {@link Script} using all of the registered {@link ScriptLinker}s in order of registration.
+     *
+     * @param script the script which we want to link.
+     * @return the linked {@link Script} object which should be stored in the cache.
+     * @throws ExecutionException if any of the linkers failed to link the script.
+     */
+    protected Script link(Script script) throws ExecutionException {
+        return link(script, Set.of());
+    }
+
+    /**
+     * Links the specified {@link Script} using all of the registered {@link ScriptLinker}s in order of registration,
+     * while the scripts with the specified ids are being stored together with it.
+     *
+     * @param script  the script which we want to link.
+     * @param pending the ids of the scripts which are stored together with the script.
+     * @return the linked {@link Script} object which should be stored in the cache.
+     * @throws ExecutionException if any of the linkers failed to link the script.
+     */
+    protected Script link(Script script, Set<Integer> pending) throws ExecutionException {
+        var context = new LinkContext(this, pending);
+        for (var linker : linkers) {
+            script = linker.link(script, context);
+        }
+        return script;
+    }
 }
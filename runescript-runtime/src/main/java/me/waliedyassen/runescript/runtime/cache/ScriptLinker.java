@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+/**
+ * A linker that is applied to every {@link Script} once when it enters a {@link ScriptCache}, it can validate the
+ * script or replace it with a transformed version of it.
+ *
+ * @author Walied K. Yassen
+ */
+@FunctionalInterface
+public interface ScriptLinker {
+
+    /**
+     * Links the specified {@link Script} object.
+     *
+     * @param script
+     *         the script which we want to link.
+     *
+     * @return the linked {@link Script} object, which may be the same object.
+     * @throws ExecutionException
+     *         if the script cannot be linked.
+     */
+    Script link(Script script) throws ExecutionException;
+
+    /**
+     * Links the specified {@link Script} object within the specified {@link LinkContext}, linkers which depend on the
+     * other scripts of the cache should override this to also take the scripts that are stored together into account.
+     *
+     * @param script
+     *         the script which we want to link.
+     * @param context
+     *         the context of the linking.
+     *
+     * @return the linked {@link Script} object, which may be the same object.
+     * @throws ExecutionException
+     *         if the script cannot be linked.
+     */
+    default Script link(Script script, LinkContext context) throws ExecutionException {
+        return link(script);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a batch execution, each execution of the batch is identified by the index of its setup.
+ *
+ * @param <R> the type of the runtime.
+ * @author Walied K. Yassen
+ */
+public final class BatchResult<R extends ScriptRuntime> {
+
+    /**
+     * The runtimes of the executions that were aborted, indexed by the setup index.
+     */
+    private final ScriptRuntime[] suspended;
+
+    /**
+     * The failures of the executions that failed, indexed by the setup index.
+     */
+    private final ExecutionException[] failures;
+
+    /**
+     * Constructs a new {@link BatchResult} type object instance.
+     *
+     * @param size the amount of executions in the batch.
+     */
+    BatchResult(int size) {
+        suspended = new ScriptRuntime[size];
+        failures = new ExecutionException[size];
+    }
+
+    /**
+     * Records that the execution with the specified index was aborted.
+     *
+     * @param index   the index of the execution.
+     * @param runtime the runtime to store for the execution.
+     */
+    void suspend(int index, R runtime) {
+        suspended[index] = runtime;
+    }
+
+    /**
+     * Records that the execution with the specified index failed.
+     *
+     * @param index     the index of the execution.
+     * @param exception the failure of the execution.
+     */
+    void fail(int index, ExecutionException exception) {
+        failures[index] = exception;
+    }
+
+    /**
+     * Returns the amount of executions in the batch.
+     *
+     * @return the amount of executions.
+     */
+    public int size() {
+        return suspended.length;
+    }
+
+    /**
+     * Checks whether or not the execution with the specified index completed.
+     *
+     * @param index the index of the execution.
+     * @return <code>true</code> if it did otherwise <code>false</code>.
+     */
+    public boolean isCompleted(int index) {
+        return suspended[index] == null && failures[index] == null;
+    }
+
+    /**
+     * Returns the runtime of the execution with the specified index if it was aborted.
+     *
+     * @param index the index of the execution.
+     * @return the runtime to store for the execution or {@code null} if it was not aborted.
+     */
+    @SuppressWarnings("unchecked")
+    public R getSuspended(int index) {
+        return (R) suspended[index];
+    }
+
+    /**
+     * Returns the failure of the execution with the specified index.
+     *
+     * @param index the index of the execution.
+     * @return the failure of the execution or {@code null} if it did not fail.
+     */
+    public ExecutionException getFailure(int index) {
+        return failures[index];
+    }
+
+    /**
+     * Returns all of the failures of the batch in the order of their setups.
+     *
+     * @return the list of failures.
+     */
+    public List<ExecutionException> getFailures() {
+        var list = new ArrayList<ExecutionException>();
+        for (var failure : failures) {
+            if (failure != null) {
+                list.add(failure);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns the amount of executions that completed.
+     *
+     * @return the amount of executions.
+     */
+    public int getCompletedCount() {
+        return size() - getSuspendedCount() - getFailedCount();
+    }
+
+    /**
+     * Returns the amount of executions that were aborted.
+     *
+     * @return the amount of executions.
+     */
+    public int getSuspendedCount() {
+        return count(suspended);
+    }
+
+    /**
+     * Returns the amount of executions that failed.
+     *
+     * @return the amount of executions.
+     */
+    public int getFailedCount() {
+        return count(failures);
+    }
+
+    /**
+     * Counts the non-null elements of the specified array.
+     *
+     * @param array the array to count the elements of.
+     * @return the amount of non-null elements.
+     */
+    private static int count(Object[] array) {
+        var count = 0;
+        for (var element : array) {
+            if (element != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * The limits of a single execution, once an execution exceeds either of its limits the runtime is suspended through
+ * the abort path and can be resumed later with a fresh budget.
+ *
+ * @author Walied K. Yassen
+ */
+public final class ExecutionBudget {
+
+    /**
+     * The value of a limit which is not enforced.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /**
+     * The maximum amount of instructions that can be executed.
+     */
+    @Getter
+    private final long maxInstructions;
+
+    /**
+     * The maximum amount of time in nanoseconds that the execution can take.
+     */
+    @Getter
+    private final long maxNanos;
+
+    /**
+     * Constructs a new {@link ExecutionBudget} type object instance.
+     *
+     * @param maxInstructions the maximum amount of instructions that can be executed, or {@link #UNLIMITED}.
+     * @param maxNanos        the maximum amount of time in nanoseconds that the execution can take, or {@link
+     *                        #UNLIMITED}.
+     */
+    public ExecutionBudget(long maxInstructions, long maxNanos) {
+        if (maxInstructions < 0 || maxNanos < 0) {
+            throw new IllegalArgumentException("The budget limits cannot be negative");
+        }
+        this.maxInstructions = maxInstructions;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Checks whether or not the budget has a time limit.
+     *
+     * @return <code>true</code> if it does otherwise <code>false</code>.
+     */
+    public boolean isTimed() {
+        return maxNanos != UNLIMITED;
+    }
+
+    /**
+     * Creates a budget which only limits the amount of executed instructions.
+     *
+     * @param maxInstructions the maximum amount of instructions that can be executed.
+     * @return the created {@link ExecutionBudget} object.
+     */
+    public static ExecutionBudget ofInstructions(long maxInstructions) {
+        return new ExecutionBudget(maxInstructions, UNLIMITED);
+    }
+
+    /**
+     * Creates a budget which only limits the time the execution can take.
+     *
+     * @param duration the maximum amount of time that the execution can take.
+     * @return the created {@link ExecutionBudget} object.
+     */
+    public static ExecutionBudget ofTime(Duration duration) {
+        return new ExecutionBudget(UNLIMITED, duration.toNanos());
+    }
+}
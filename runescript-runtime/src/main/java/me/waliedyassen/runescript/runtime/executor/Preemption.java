@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor;
+
+/**
+ * The reasons for which the executor can suspend a runtime on its own.
+ *
+ * @author Walied K. Yassen
+ */
+public enum Preemption {
+
+    /**
+     * The execution exceeded the instruction limit of its {@link ExecutionBudget}.
+     */
+    INSTRUCTION_BUDGET,
+
+    /**
+     * The execution exceeded the time limit of its {@link ExecutionBudget}.
+     */
+    TIME_BUDGET,
+}
@@ -8,13 +8,24 @@
 package me.waliedyassen.runescript.runtime.executor;
 
 import lombok.Getter;
+import lombok.Setter;
 import me.waliedyassen.runescript.runtime.ScriptRuntime;
 import me.waliedyassen.runescript.runtime.ScriptRuntimePool;
 import me.waliedyassen.runescript.runtime.ScriptRuntimeSetup;
 import me.waliedyassen.runescript.runtime.cache.ScriptCache;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
 import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.executor.jit.CompiledScript;
+import me.waliedyassen.runescript.runtime.executor.jit.JitCompiler;
+import me.waliedyassen.runescript.runtime.executor.profiler.ScriptProfiler;
 import me.waliedyassen.runescript.runtime.script.Script;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -35,8 +46,44 @@ public final class ScriptExecutor<R extends ScriptRuntime> {
      */
     private final InstructionExecutorMap executorMap;
 
+    /**
+     * The optional compilation tier of the executor, when present hot scripts are compiled into JVM classes.
+     */
+    @Getter
+    @Setter
+    private JitCompiler jitCompiler;
+
+    /**
+     * The optional profiler of the executor, when present the executions it samples are recorded into it.
+     */
+    @Getter
+    @Setter
+    private ScriptProfiler profiler;
+
+    /**
+     * The budget of each execution or resumption, or {@code null} if the executions are not limited.
+     */
+    @Getter
+    @Setter
+    private ExecutionBudget budget;
+
+    /**
+     * The amount of executions that were suspended because they exceeded the instruction limit of their budget.
+     */
+    private final LongAdder instructionBudgetTrips = new LongAdder();
+
+    /**
+     * The amount of executions that were suspended because they exceeded the time limit of their budget.
+     */
+    private final LongAdder timeBudgetTrips = new LongAdder();
+
     /**
      * Constructs a new {@link ScriptExecutor} type object instance.
+     * <p>
+     * Every script that enters the specified {@code cache} is validated against the {@code executorMap}, and scripts
+     * which were not validated yet, because they never entered the cache or the cache did not link them, are validated
+     * once the execution enters them. When the map is {@link InstructionExecutorMap#freeze() frozen} the executor
+     * dispatches through its dense table without checking each instruction.
      *
      * @param poolSize        the runtime objects pool maximum size.
      * @param cache           the cache which is responsible for loading scripts.
@@ -46,6 +93,10 @@ public final class ScriptExecutor<R extends ScriptRuntime> {
     public ScriptExecutor(int poolSize, ScriptCache cache, Function<ScriptRuntimePool<R>, R> runtimeSupplier, InstructionExecutorMap executorMap) {
         this.executorMap = executorMap;
         pool = new ScriptRuntimePool<>(runtimeSupplier, cache, poolSize);
+        cache.addLinker(script -> {
+            executorMap.validate(script);
+            return script;
+        });
     }
 
     /**
@@ -58,7 +109,7 @@ public final class ScriptExecutor<R extends ScriptRuntime> {
      */
     public R execute(ScriptRuntimeSetup<R> setup, Script script) throws ExecutionException {
         try {
-            var runtime = pool.pop();
+            var runtime = pool.pop(script);
             setup.setup(runtime);
             if (execute(runtime, script) != null) {
                 return runtime;
@@ -73,6 +124,88 @@ public final class ScriptExecutor<R extends ScriptRuntime> {
         }
     }
 
+    /**
+     * Executes the specified {@link Script} once for each of the specified setups on the calling thread.
+     * <p>
+     * A single runtime is acquired from the pool and reused for every execution that completes, a new one is only
+     * acquired after an execution is aborted and its runtime is handed over to the result. A failing execution does not
+     * stop the batch, its failure is recorded into the result instead.
+     *
+     * @param script the script which we want to execute.
+     * @param setups the setups of the executions.
+     * @return the outcome of the executions.
+     */
+    public BatchResult<R> executeBatch(Script script, List<? extends ScriptRuntimeSetup<R>> setups) {
+        var result = new BatchResult<R>(setups.size());
+        executeBatch(script, setups, 0, setups.size(), result);
+        return result;
+    }
+
+    /**
+     * Executes the specified {@link Script} once for each of the specified setups, splitting the setups into chunks
+     * which are executed in parallel within the specified {@link ForkJoinPool}. The executions must not share any
+     * mutable state other than what the executor itself guards.
+     *
+     * @param script       the script which we want to execute.
+     * @param setups       the setups of the executions.
+     * @param forkJoinPool the pool which runs the chunks.
+     * @return the outcome of the executions.
+     * @see #executeBatch(Script, List)
+     */
+    public BatchResult<R> executeBatch(Script script, List<? extends ScriptRuntimeSetup<R>> setups, ForkJoinPool forkJoinPool) {
+        var size = setups.size();
+        var result = new BatchResult<R>(size);
+        var chunks = Math.min(size, forkJoinPool.getParallelism());
+        if (chunks <= 1) {
+            executeBatch(script, setups, 0, size, result);
+            return result;
+        }
+        var tasks = new ArrayList<ForkJoinTask<?>>(chunks);
+        for (var chunk = 0; chunk < chunks; chunk++) {
+            var from = (int) ((long) size * chunk / chunks);
+            var to = (int) ((long) size * (chunk + 1) / chunks);
+            tasks.add(forkJoinPool.submit(() -> executeBatch(script, setups, from, to, result)));
+        }
+        for (var task : tasks) {
+            task.join();
+        }
+        return result;
+    }
+
+    /**
+     * Executes the specified {@link Script} once for each of the setups within the specified range.
+     *
+     * @param script the script which we want to execute.
+     * @param setups the setups of the executions.
+     * @param from   the index of the first setup, inclusive.
+     * @param to     the index of the last setup, exclusive.
+     * @param result the result to record the outcome of the executions into.
+     */
+    private void executeBatch(Script script, List<? extends ScriptRuntimeSetup<R>> setups, int from, int to, BatchResult<R> result) {
+        R runtime = null;
+        for (var index = from; index < to; index++) {
+            if (runtime == null) {
+                runtime = pool.pop(script);
+            }
+            try {
+                setups.get(index).setup(runtime);
+                if (execute(runtime, script) != null) {
+                    result.suspend(index, runtime);
+                    runtime = null;
+                    continue;
+                }
+            } catch (ExecutionException e) {
+                result.fail(index, e);
+            } catch (Throwable e) {
+                result.fail(index, new ExecutionException("Error executing script: " + script.getName(), e));
+            }
+            runtime.reset();
+        }
+        if (runtime != null) {
+            runtime.close();
+        }
+    }
+
     /**
      * Executes the specified {@link Script script} in the given {@link ScriptRuntime runtime}.
      *
@@ -90,22 +223,63 @@ public final class ScriptExecutor<R extends ScriptRuntime> {
 
     /**
      * Resumes the execution of the specified {@code runtime.}
+     * <p>
+     * Every resumption starts with a fresh {@link #getBudget() budget}, when the budget is exceeded the runtime is
+     * suspended the same way an aborted runtime is, and {@link ScriptRuntime#getPreemption()} tells which limit was
+     * exceeded.
      *
      * @param runtime the runtime to resume the execute for.
      * @return R the runtime to store if the execution was aborted.
      */
     public R resume(R runtime) {
         runtime.setAbort(false);
+        runtime.startBudget(budget);
+        var profiler = this.profiler;
+        var result = profiler != null && profiler.sample() ? resumeProfiled(runtime, profiler) : interpret(runtime);
+        if (result != null && runtime.getPreemption() != null) {
+            if (runtime.getPreemption() == Preemption.INSTRUCTION_BUDGET) {
+                instructionBudgetTrips.increment();
+            } else {
+                timeBudgetTrips.increment();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes the specified {@code runtime} until it completes or is aborted.
+     *
+     * @param runtime the runtime to execute.
+     * @return R the runtime to store if the execution was aborted.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private R interpret(R runtime) {
+        var executors = executorMap.getExecutors();
+        var jit = jitCompiler;
+        Script current = null;
+        CompiledScript compiled = null;
         while (true) {
             var script = runtime.getScript();
             if (runtime.getAddress() >= script.getInstructions().length) {
                 break;
             }
-            var opcode = script.getInstructions()[runtime.getAddress()];
-            var executor = executorMap.lookup(opcode);
-            if (executor == null) {
-                throw new ExecutionException("Missing InstructionExecutor for instruction with opcode: " + opcode);
+            if (script != current) {
+                current = script;
+                executorMap.ensureValidated(script);
+                compiled = jit != null ? jit.lookup(script) : null;
+            }
+            if (compiled != null) {
+                compiled.run(runtime);
+                if (runtime.isAbort()) {
+                    return runtime;
+                }
+                continue;
             }
+            if (runtime.charge(1)) {
+                return runtime;
+            }
+            var opcode = script.getInstructions()[runtime.getAddress()];
+            InstructionExecutor executor = lookupExecutor(executors, opcode);
             executor.execute(runtime);
             runtime.setAddress(runtime.getAddress() + 1);
             if (runtime.isAbort()) {
@@ -114,4 +288,92 @@ public final class ScriptExecutor<R extends ScriptRuntime> {
         }
         return null;
     }
+
+    /**
+     * Looks-up for the {@link InstructionExecutor} of the specified {@code opcode} using the dense table of a frozen
+     * map, or the map itself when it is not frozen. The script of the instruction must have been
+     * {@link InstructionExecutorMap#ensureValidated(Script) validated} when the execution entered it.
+     *
+     * @param executors the dense table of the frozen map, or {@code null} if the map is not frozen.
+     * @param opcode    the opcode of the instruction.
+     * @return the {@link InstructionExecutor} of the instruction.
+     */
+    @SuppressWarnings("rawtypes")
+    private InstructionExecutor lookupExecutor(InstructionExecutor[] executors, int opcode) {
+        return executors != null ? executors[opcode] : executorMap.lookup(opcode);
+    }
+
+    /**
+     * Resumes the execution of the specified {@code runtime} while recording it into the specified {@link
+     * ScriptProfiler profiler}. The execution is always interpreted so that each instruction is counted, and one of
+     * every {@link ScriptProfiler#getTimingInterval() timing interval} instructions is timed.
+     *
+     * @param runtime  the runtime to resume the execute for.
+     * @param profiler the profiler to record the execution into.
+     * @return R the runtime to store if the execution was aborted.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private R resumeProfiled(R runtime, ScriptProfiler profiler) {
+        var executors = executorMap.getExecutors();
+        var interval = profiler.getTimingInterval();
+        // start at a random offset so the timed instructions do not always land on the same loop iterations.
+        var untilTimed = interval == 1 ? 1 : ThreadLocalRandom.current().nextInt(interval) + 1;
+        var session = profiler.begin(runtime, System.nanoTime());
+        try {
+            Script current = null;
+            while (true) {
+                var script = runtime.getScript();
+                if (runtime.getAddress() >= script.getInstructions().length) {
+                    break;
+                }
+                if (script != current) {
+                    current = script;
+                    executorMap.ensureValidated(script);
+                }
+                if (runtime.charge(1)) {
+                    return runtime;
+                }
+                var opcode = script.getInstructions()[runtime.getAddress()];
+                InstructionExecutor executor = lookupExecutor(executors, opcode);
+                if (--untilTimed == 0) {
+                    untilTimed = interval;
+                    var start = System.nanoTime();
+                    executor.execute(runtime);
+                    session.record(opcode, (System.nanoTime() - start) * interval);
+                } else {
+                    executor.execute(runtime);
+                    session.record(opcode, 0);
+                }
+                runtime.setAddress(runtime.getAddress() + 1);
+                if (session.isStale(runtime)) {
+                    session.update(runtime, System.nanoTime());
+                }
+                if (runtime.isAbort()) {
+                    return runtime;
+                }
+            }
+            return null;
+        } finally {
+            session.end(System.nanoTime());
+        }
+    }
+
+    /**
+     * Returns the amount of executions that were suspended because they exceeded the instruction limit of their
+     * budget.
+     *
+     * @return the amount of executions.
+     */
+    public long getInstructionBudgetTrips() {
+        return instructionBudgetTrips.sum();
+    }
+
+    /**
+     * Returns the amount of executions that were suspended because they exceeded the time limit of their budget.
+     *
+     * @return the amount of executions.
+     */
+    public long getTimeBudgetTrips() {
+        return timeBudgetTrips.sum();
+    }
 }
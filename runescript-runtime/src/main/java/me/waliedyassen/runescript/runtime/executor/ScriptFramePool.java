@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021 Walied K. Yassen, All rights reserved.
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
  *
  * This Source Code Form is subject to the terms of the Mozilla Public
  * License, v. 2.0. If a copy of the MPL was not distributed with this
@@ -7,37 +7,67 @@
  */
 package me.waliedyassen.runescript.runtime.executor;
 
+import lombok.Getter;
 import me.waliedyassen.runescript.runtime.ScriptFrame;
 
-import java.util.Stack;
-
 /**
- * Represents a pool for {@link ScriptFrame} objects.
+ * Represents a pool for {@link ScriptFrame} objects, each pool is owned by a single runtime and must not be shared
+ * between threads.
  *
  * @author Walied K. Yassen
  */
 public final class ScriptFramePool {
 
     /**
-     * The maximum amount of objects that can be pushed onto the pool stack.
+     * The default maximum amount of objects that can be pushed onto the pool stack.
      */
-    private static final int POOL_SIZE = 512;
+    public static final int DEFAULT_CAPACITY = 128;
 
     /**
      * The stack which contains the pool objects.
      */
-    private static final Stack<ScriptFrame> frames = new Stack<>();
+    private final ScriptFrame[] frames;
+
+    /**
+     * The amount of objects that are currently in the pool stack.
+     */
+    @Getter
+    private int size;
+
+    /**
+     * The amount of times an object was popped from the pool stack.
+     */
+    @Getter
+    private long hits;
+
+    /**
+     * The amount of times the pool stack was empty and a new object had to be created.
+     */
+    @Getter
+    private long misses;
+
+    /**
+     * Constructs a new {@link ScriptFramePool} type object instance.
+     *
+     * @param capacity the maximum amount of objects that can be pushed onto the pool stack.
+     */
+    public ScriptFramePool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity of the pool cannot be negative: " + capacity);
+        }
+        frames = new ScriptFrame[capacity];
+    }
 
     /**
      * Pushes the specified {@link ScriptFrame} object back into the pool.
      *
      * @param frame the frame object to  push back into the pool.
      */
-    public static void push(ScriptFrame frame) {
-        if (frames.size() >= POOL_SIZE) {
+    public void push(ScriptFrame frame) {
+        if (size >= frames.length) {
             return;
         }
-        frames.push(frame);
+        frames[size++] = frame;
     }
 
     /**
@@ -45,14 +75,23 @@ public final class ScriptFramePool {
      *
      * @return the {@link ScriptFrame} object.
      */
-    public static ScriptFrame pop() {
-        if (frames.isEmpty()) {
+    public ScriptFrame pop() {
+        if (size == 0) {
+            misses++;
             return new ScriptFrame();
         }
-        return frames.pop();
+        hits++;
+        var frame = frames[--size];
+        frames[size] = null;
+        return frame;
     }
 
-    private ScriptFramePool() {
-        // NOOP
+    /**
+     * Returns the maximum amount of objects that can be pushed onto the pool stack.
+     *
+     * @return the maximum amount of objects.
+     */
+    public int getCapacity() {
+        return frames.length;
     }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.fusion;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+
+/**
+ * Represents a fusion of a sequence of instructions into a single superinstruction.
+ *
+ * @author Walied K. Yassen
+ */
+@SuppressWarnings("rawtypes")
+@RequiredArgsConstructor
+public final class Fusion {
+
+    /**
+     * The name of the fusion.
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * The sequence of instruction executors that the fusion matches.
+     */
+    @Getter
+    private final InstructionExecutor[] pattern;
+
+    /**
+     * The superinstruction executor that replaces the first instruction of the matched sequence, it must leave the
+     * execution address at the last instruction of the sequence or at the branch target address.
+     */
+    @Getter
+    private final InstructionExecutor superinstruction;
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.fusion;
+
+import me.waliedyassen.runescript.runtime.cache.ScriptLinker;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.impl.FusedOps;
+import me.waliedyassen.runescript.runtime.executor.impl.MathOps;
+import me.waliedyassen.runescript.runtime.executor.impl.UncheckedOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ScriptLinker} that rewrites hot instruction sequences into superinstructions.
+ * <p>
+ * Only the first instruction of a matched sequence is replaced, the remaining instructions are kept as they are, so
+ * the addresses of all the instructions, the branch offsets and the switch tables stay valid, and a branch into the
+ * middle of a fused sequence still executes the original instructions.
+ * <p>
+ * The fuser registers its superinstructions into the {@link InstructionExecutorMap} when it is constructed, which means
+ * it must be constructed before the map is {@link InstructionExecutorMap#freeze() frozen}.
+ *
+ * @author Walied K. Yassen
+ */
+@SuppressWarnings("rawtypes")
+public final class SuperinstructionFuser implements ScriptLinker {
+
+    /**
+     * The executor map which we use to resolve the executors of the instructions.
+     */
+    private final InstructionExecutorMap executorMap;
+
+    /**
+     * The fusions of the fuser, sorted by the length of their patterns from longest to shortest.
+     */
+    private final Fusion[] fusions;
+
+    /**
+     * The opcodes of the superinstructions, indexed the same as {@link #fusions}.
+     */
+    private final int[] opcodes;
+
+    /**
+     * The amount of sites each fusion was applied to, indexed the same as {@link #fusions}.
+     */
+    private final LongAdder[] sites;
+
+    /**
+     * The amount of scripts that were linked by the fuser.
+     */
+    private final LongAdder scripts = new LongAdder();
+
+    /**
+     * Constructs a new {@link SuperinstructionFuser} type object instance with the {@link #defaultFusions() default
+     * fusions}.
+     *
+     * @param executorMap the executor map to resolve the executors from and to register the superinstructions into.
+     */
+    public SuperinstructionFuser(InstructionExecutorMap executorMap) {
+        this(executorMap, defaultFusions());
+    }
+
+    /**
+     * Constructs a new {@link SuperinstructionFuser} type object instance.
+     *
+     * @param executorMap the executor map to resolve the executors from and to register the superinstructions into.
+     * @param fusions     the fusions that the fuser will apply.
+     */
+    public SuperinstructionFuser(InstructionExecutorMap executorMap, List<Fusion> fusions) {
+        this.executorMap = executorMap;
+        this.fusions = fusions.stream()
+                .sorted(Comparator.comparingInt((Fusion fusion) -> fusion.getPattern().length).reversed())
+                .toArray(Fusion[]::new);
+        opcodes = new int[this.fusions.length];
+        sites = new LongAdder[this.fusions.length];
+        for (var index = 0; index < this.fusions.length; index++) {
+            opcodes[index] = executorMap.register(this.fusions[index].getSuperinstruction());
+            sites[index] = new LongAdder();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script link(Script script) {
+        scripts.increment();
+        var instructions = script.getInstructions();
+        var executors = new InstructionExecutor[instructions.length];
+        for (var address = 0; address < instructions.length; address++) {
+            var executor = executorMap.lookup(instructions[address]);
+            executors[address] = UncheckedOps.CHECKED.getOrDefault(executor, executor);
+        }
+        int[] fused = null;
+        var address = 0;
+        while (address < instructions.length) {
+            var index = match(executors, address);
+            if (index == -1) {
+                address++;
+                continue;
+            }
+            if (fused == null) {
+                fused = instructions.clone();
+            }
+            fused[address] = opcodes[index];
+            sites[index].increment();
+            address += fusions[index].getPattern().length;
+        }
+        return fused == null ? script : script.withInstructions(fused);
+    }
+
+    /**
+     * Finds the first fusion that matches the instructions starting at the specified {@code address}.
+     *
+     * @param executors the executors of the instructions.
+     * @param address   the address to match the fusions at.
+     * @return the index of the matched fusion or {@code -1} if none matched.
+     */
+    private int match(InstructionExecutor[] executors, int address) {
+        outer:
+        for (var index = 0; index < fusions.length; index++) {
+            var pattern = fusions[index].getPattern();
+            if (address + pattern.length > executors.length) {
+                continue;
+            }
+            for (var offset = 0; offset < pattern.length; offset++) {
+                if (executors[address + offset] != pattern[offset]) {
+                    continue outer;
+                }
+            }
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the amount of sites each fusion was applied to, by the name of the fusion.
+     *
+     * @return the amount of sites by fusion name.
+     */
+    public Map<String, Long> getFusionCounts() {
+        var counts = new LinkedHashMap<String, Long>();
+        for (var index = 0; index < fusions.length; index++) {
+            counts.put(fusions[index].getName(), sites[index].sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the amount of instruction dispatches that are eliminated when every fused site executes once.
+     *
+     * @return the amount of eliminated dispatches.
+     */
+    public long getEliminatedDispatches() {
+        var total = 0L;
+        for (var index = 0; index < fusions.length; index++) {
+            total += sites[index].sum() * (fusions[index].getPattern().length - 1);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the opcode the superinstruction of the fusion with the specified {@code name} was registered for.
+     *
+     * @param name the name of the fusion.
+     * @return the opcode of the superinstruction or {@code -1} if there was no fusion with such name.
+     */
+    public int getOpcode(String name) {
+        for (var index = 0; index < fusions.length; index++) {
+            if (fusions[index].getName().equals(name)) {
+                return opcodes[index];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Builds a human-readable report of which fusions were applied and how many times.
+     *
+     * @return the report text.
+     */
+    public String report() {
+        var builder = new StringBuilder();
+        builder.append("Scripts linked: ").append(scripts.sum()).append('\n');
+        for (var entry : getFusionCounts().entrySet()) {
+            if (entry.getValue() > 0) {
+                builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+            }
+        }
+        builder.append("Eliminated dispatches per pass: ").append(getEliminatedDispatches()).append('\n');
+        return builder.toString();
+    }
+
+    /**
+     * Returns the default fusions, which cover the int local comparisons, the int local increments and the constant
+     * assignments.
+     *
+     * @return the list of the default fusions.
+     */
+    public static List<Fusion> defaultFusions() {
+        var fusions = new ArrayList<Fusion>();
+        fusions.add(branch("local_constant_branch_not", CoreOps.PUSH_CONSTANT_INT, CoreOps.BRANCH_NOT, FusedOps.LOCAL_CONSTANT_BRANCH_NOT));
+        fusions.add(branch("local_constant_branch_equals", CoreOps.PUSH_CONSTANT_INT, CoreOps.BRANCH_EQUALS, FusedOps.LOCAL_CONSTANT_BRANCH_EQUALS));
+        fusions.add(branch("local_constant_branch_less_than", CoreOps.PUSH_CONSTANT_INT, CoreOps.BRANCH_LESS_THAN, FusedOps.LOCAL_CONSTANT_BRANCH_LESS_THAN));
+        fusions.add(branch("local_constant_branch_greater_than", CoreOps.PUSH_CONSTANT_INT, CoreOps.BRANCH_GREATER_THAN, FusedOps.LOCAL_CONSTANT_BRANCH_GREATER_THAN));
+        fusions.add(branch("local_constant_branch_less_than_or_equals", CoreOps.PUSH_CONSTANT_INT, CoreOps.BRANCH_LESS_THAN_OR_EQUALS, FusedOps.LOCAL_CONSTANT_BRANCH_LESS_THAN_OR_EQUALS));
+        fusions.add(branch("local_constant_branch_greater_than_or_equals", CoreOps.PUSH_CONSTANT_INT, CoreOps.BRANCH_GREATER_THAN_OR_EQUALS, FusedOps.LOCAL_CONSTANT_BRANCH_GREATER_THAN_OR_EQUALS));
+        fusions.add(branch("local_local_branch_not", CoreOps.PUSH_INT_LOCAL, CoreOps.BRANCH_NOT, FusedOps.LOCAL_LOCAL_BRANCH_NOT));
+        fusions.add(branch("local_local_branch_equals", CoreOps.PUSH_INT_LOCAL, CoreOps.BRANCH_EQUALS, FusedOps.LOCAL_LOCAL_BRANCH_EQUALS));
+        fusions.add(branch("local_local_branch_less_than", CoreOps.PUSH_INT_LOCAL, CoreOps.BRANCH_LESS_THAN, FusedOps.LOCAL_LOCAL_BRANCH_LESS_THAN));
+        fusions.add(branch("local_local_branch_greater_than", CoreOps.PUSH_INT_LOCAL, CoreOps.BRANCH_GREATER_THAN, FusedOps.LOCAL_LOCAL_BRANCH_GREATER_THAN));
+        fusions.add(branch("local_local_branch_less_than_or_equals", CoreOps.PUSH_INT_LOCAL, CoreOps.BRANCH_LESS_THAN_OR_EQUALS, FusedOps.LOCAL_LOCAL_BRANCH_LESS_THAN_OR_EQUALS));
+        fusions.add(branch("local_local_branch_greater_than_or_equals", CoreOps.PUSH_INT_LOCAL, CoreOps.BRANCH_GREATER_THAN_OR_EQUALS, FusedOps.LOCAL_LOCAL_BRANCH_GREATER_THAN_OR_EQUALS));
+        fusions.add(new Fusion("local_add_constant", new InstructionExecutor[]{CoreOps.PUSH_INT_LOCAL, CoreOps.PUSH_CONSTANT_INT, MathOps.ADD, CoreOps.POP_INT_LOCAL}, FusedOps.LOCAL_ADD_CONSTANT));
+        fusions.add(new Fusion("constant_to_local", new InstructionExecutor[]{CoreOps.PUSH_CONSTANT_INT, CoreOps.POP_INT_LOCAL}, FusedOps.CONSTANT_TO_LOCAL));
+        return fusions;
+    }
+
+    /**
+     * Creates a {@link Fusion} for an int local comparison with a conditional branch.
+     *
+     * @param name             the name of the fusion.
+     * @param right            the executor which pushes the right hand side of the comparison.
+     * @param branch           the executor of the conditional branch.
+     * @param superinstruction the superinstruction executor.
+     * @return the created {@link Fusion} object.
+     */
+    private static Fusion branch(String name, InstructionExecutor right, InstructionExecutor branch, InstructionExecutor superinstruction) {
+        return new Fusion(name, new InstructionExecutor[]{CoreOps.PUSH_INT_LOCAL, right, branch}, superinstruction);
+    }
+}
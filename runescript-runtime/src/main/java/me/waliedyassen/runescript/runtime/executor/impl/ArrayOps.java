@@ -25,17 +25,10 @@ public interface ArrayOps {
         var id = runtime.intOperand() >> 16;
         var type = runtime.intOperand() & 0xffff;
         var size = runtime.popInt();
-        if (size < 0 || size > 5000) {
+        if (size < 0 || size > ScriptRuntime.MAX_ARRAY_ELEMENTS) {
             throw new ExecutionException("Failed to execute define_array: invalid array size: " + size);
         }
-        runtime.getArraySize()[id] = size;
-        var defaultValue = -1;
-        if (type == 105) {
-            defaultValue = 0;
-        }
-        for (var index = 0; index < size; index++) {
-            runtime.getArrayElements()[id][index] = defaultValue;
-        }
+        runtime.defineArray(id, size, type == 105 ? 0 : -1);
     };
 
     /**
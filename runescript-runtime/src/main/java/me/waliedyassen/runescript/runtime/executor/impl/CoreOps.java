@@ -9,10 +9,8 @@ package me.waliedyassen.runescript.runtime.executor.impl;
 
 import me.waliedyassen.runescript.runtime.ScriptRuntime;
 import me.waliedyassen.runescript.runtime.executor.ExecutionException;
-import me.waliedyassen.runescript.runtime.executor.ScriptFramePool;
 import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
-
-import java.util.Stack;
+import me.waliedyassen.runescript.runtime.script.SwitchTable;
 
 /**
  * Contains all of the core RuneScript operations.
@@ -54,32 +52,32 @@ public interface CoreOps {
     /**
      * Pushes the value of an integer local field to the stack.
      */
-    InstructionExecutor<? extends ScriptRuntime> PUSH_INT_LOCAL = runtime -> runtime.pushInt(runtime.getIntLocals()[runtime.intOperand()]);
+    InstructionExecutor<? extends ScriptRuntime> PUSH_INT_LOCAL = runtime -> runtime.pushInt(runtime.getIntLocal(runtime.intOperand()));
 
     /**
      * Updates the value of a local field from the stack.
      */
-    InstructionExecutor<? extends ScriptRuntime> POP_INT_LOCAL = runtime -> runtime.getIntLocals()[runtime.intOperand()] = runtime.popInt();
+    InstructionExecutor<? extends ScriptRuntime> POP_INT_LOCAL = runtime -> runtime.setIntLocal(runtime.intOperand(), runtime.popInt());
 
     /**
      * Pushes the value of a string local field to the stack.
      */
-    InstructionExecutor<? extends ScriptRuntime> PUSH_STRING_LOCAL = runtime -> runtime.pushString(runtime.getStringLocals()[runtime.intOperand()]);
+    InstructionExecutor<? extends ScriptRuntime> PUSH_STRING_LOCAL = runtime -> runtime.pushString(runtime.getStringLocal(runtime.intOperand()));
 
     /**
      * Updates the value of a string local field from the stack.
      */
-    InstructionExecutor<? extends ScriptRuntime> POP_STRING_LOCAL = runtime -> runtime.getStringLocals()[runtime.intOperand()] = runtime.popString();
+    InstructionExecutor<? extends ScriptRuntime> POP_STRING_LOCAL = runtime -> runtime.setStringLocal(runtime.intOperand(), runtime.popString());
 
     /**
      * Pushes the value of an long local field to the stack.
      */
-    InstructionExecutor<? extends ScriptRuntime> PUSH_LONG_LOCAL = runtime -> runtime.pushLong(runtime.getLongLocals()[runtime.intOperand()]);
+    InstructionExecutor<? extends ScriptRuntime> PUSH_LONG_LOCAL = runtime -> runtime.pushLong(runtime.getLongLocal(runtime.intOperand()));
 
     /**
      * Updates the value of a long local field from the stack.
      */
-    InstructionExecutor<? extends ScriptRuntime> POP_LONG_LOCAL = runtime -> runtime.getLongLocals()[runtime.intOperand()] = runtime.popLong();
+    InstructionExecutor<? extends ScriptRuntime> POP_LONG_LOCAL = runtime -> runtime.setLongLocal(runtime.intOperand(), runtime.popLong());
 
     /**
      * Branch to an address that is X away from the current address.
@@ -155,24 +153,7 @@ public interface CoreOps {
     /**
      * Takes an X amount of strings and combine them into one string then push that into the stack.
      */
-    InstructionExecutor<? extends ScriptRuntime> JOIN_STRING = runtime -> {
-        var count = runtime.intOperand();
-        var size = 0;
-        for (var index = 0; index < count; index++) {
-            Stack<String> stack = runtime.getStringStack();
-            var value = stack.get(runtime.getStringStack().size() - count + index);
-            size += value == null ? 4 : value.length();
-        }
-        var builder = new StringBuilder(size);
-        for (var index = 0; index < count; index++) {
-            var value = runtime.getStringStack().get(runtime.getStringStack().size() - count + index);
-            builder.append(value);
-        }
-        for (var index = 0; index < count; index++) {
-            runtime.popString();
-        }
-        runtime.pushString(builder.toString());
-    };
+    InstructionExecutor<? extends ScriptRuntime> JOIN_STRING = runtime -> runtime.pushString(runtime.joinStrings(runtime.intOperand()));
 
     /**
      * Returns the execution to the script that is one level higher in execution stack or do nothing if there is none.
@@ -181,39 +162,22 @@ public interface CoreOps {
         if (runtime.getFrames().isEmpty()) {
             return;
         }
-        var frame = runtime.getFrames().pop();
-        runtime.set(frame);
-        ScriptFramePool.push(frame);
+        runtime.popFrame();
     };
 
     /**
      * Jumps to the specific script and returns to the original when the execution is over.
      */
     InstructionExecutor<? extends ScriptRuntime> GOSUB_WITH_PARAMS = runtime -> {
-        var script = runtime.getPool().getCache().get(runtime.intOperand());
+        var script = runtime.resolveCallee();
         if (script == null) {
             throw new ExecutionException("Failed to resolve script for id: " + runtime.intOperand());
         }
         if (runtime.getFrames().size() >= 100) {
             throw new ExecutionException("Script used more than 100 script frame, possible stuck in an infinite recursion, script: " + script.getName());
         }
-        var frame = ScriptFramePool.pop();
-        frame.set(runtime);
-        runtime.getFrames().push(frame);
-        runtime.setScript(script);
-        runtime.setAddress(-1);
-        for (var index = 0; index < ScriptRuntime.MAX_LOCALS; index++) {
-            var argument = index < script.getNumIntArguments();
-            runtime.getIntLocals()[argument ? script.getNumIntArguments() - index - 1 : index] = argument ? runtime.popInt() : 0;
-        }
-        for (var index = 0; index < ScriptRuntime.MAX_LOCALS; index++) {
-            var argument = index < script.getNumStringArguments();
-            runtime.getStringLocals()[argument ? script.getNumStringArguments() - index - 1 : index] = argument ? runtime.popString() : null;
-        }
-        for (var index = 0; index < ScriptRuntime.MAX_LOCALS; index++) {
-            var argument = index < script.getNumLongArguments();
-            runtime.getLongLocals()[argument ? script.getNumLongArguments() - index - 1 : index] = argument ? runtime.popLong() : 0;
-        }
+        runtime.pushFrame();
+        runtime.call(script);
     };
 
 
@@ -221,30 +185,13 @@ public interface CoreOps {
      * Jumps to the specific script without returning to the original when the execution is over.
      */
     InstructionExecutor<? extends ScriptRuntime> JUMP_WITH_PARAMS = runtime -> {
-        var script = runtime.getPool().getCache().get(runtime.intOperand());
+        var script = runtime.resolveCallee();
         if (script == null) {
             throw new ExecutionException("Failed to resolve script for name: " + runtime.intOperand());
         }
-        runtime.setScript(script);
-        runtime.setAddress(-1);
-        for (var index = 0; index < ScriptRuntime.MAX_LOCALS; index++) {
-            var argument = index < script.getNumIntArguments();
-            runtime.getIntLocals()[argument ? script.getNumIntArguments() - index - 1 : index] = argument ? runtime.popInt() : 0;
-        }
-        for (var index = 0; index < ScriptRuntime.MAX_LOCALS; index++) {
-            var argument = index < script.getNumStringArguments();
-            runtime.getStringLocals()[argument ? script.getNumStringArguments() - index - 1 : index] = argument ? runtime.popString() : null;
-        }
-        for (var index = 0; index < ScriptRuntime.MAX_LOCALS; index++) {
-            var argument = index < script.getNumLongArguments();
-            runtime.getLongLocals()[argument ? script.getNumLongArguments() - index - 1 : index] = argument ? runtime.popLong() : 0;
-        }
-        runtime.getIntStack().clear();
-        runtime.getStringStack().clear();
-        runtime.getLongStack().clear();
-        while (!runtime.getFrames().isEmpty()) {
-            ScriptFramePool.push(runtime.getFrames().pop());
-        }
+        runtime.jump(script);
+        runtime.clearStacks();
+        runtime.clearFrames();
     };
 
     /**
@@ -255,8 +202,8 @@ public interface CoreOps {
         if (switchTable == null) {
             throw new ExecutionException("Failed to find a switch table for switch index: " + runtime.intOperand());
         }
-        var jump = switchTable.get(runtime.popInt());
-        if (jump != null) {
+        var jump = switchTable.lookup(runtime.popInt());
+        if (jump != SwitchTable.NO_CASE) {
             runtime.setAddress(runtime.getAddress() + jump);
         }
     };
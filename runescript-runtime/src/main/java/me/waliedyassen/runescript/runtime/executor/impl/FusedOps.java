@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.impl;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+
+/**
+ * Contains all of the superinstructions, each one executes a sequence of core operations in a single dispatch.
+ * <p>
+ * A superinstruction replaces only the first instruction of the sequence it was fused from, it reads the operands of
+ * the remaining instructions from their original addresses and then skips over them.
+ *
+ * @author Walied K. Yassen
+ */
+public interface FusedOps {
+
+    /**
+     * Fused {@code push_int_local}, {@code push_constant_int} and {@code branch_not}, branches if the local field
+     * value is not equal to the constant value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_CONSTANT_BRANCH_NOT = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left != operands[address + 1] ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_constant_int} and {@code branch_equals}, branches if the local field
+     * value is equal to the constant value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_CONSTANT_BRANCH_EQUALS = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left == operands[address + 1] ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_constant_int} and {@code branch_less_than}, branches if the local field
+     * value is less than the constant value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_CONSTANT_BRANCH_LESS_THAN = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left < operands[address + 1] ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_constant_int} and {@code branch_greater_than}, branches if the local field
+     * value is greater than the constant value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_CONSTANT_BRANCH_GREATER_THAN = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left > operands[address + 1] ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_constant_int} and {@code branch_less_than_or_equals}, branches if the local field
+     * value is less than or equal to the constant value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_CONSTANT_BRANCH_LESS_THAN_OR_EQUALS = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left <= operands[address + 1] ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_constant_int} and {@code branch_greater_than_or_equals}, branches if the local field
+     * value is greater than or equal to the constant value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_CONSTANT_BRANCH_GREATER_THAN_OR_EQUALS = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left >= operands[address + 1] ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_int_local} and {@code branch_not}, branches if the first local field
+     * value is not equal to the second local field value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_LOCAL_BRANCH_NOT = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left != runtime.getIntLocal(operands[address + 1]) ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_int_local} and {@code branch_equals}, branches if the first local field
+     * value is equal to the second local field value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_LOCAL_BRANCH_EQUALS = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left == runtime.getIntLocal(operands[address + 1]) ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_int_local} and {@code branch_less_than}, branches if the first local field
+     * value is less than the second local field value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_LOCAL_BRANCH_LESS_THAN = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left < runtime.getIntLocal(operands[address + 1]) ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_int_local} and {@code branch_greater_than}, branches if the first local field
+     * value is greater than the second local field value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_LOCAL_BRANCH_GREATER_THAN = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left > runtime.getIntLocal(operands[address + 1]) ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_int_local} and {@code branch_less_than_or_equals}, branches if the first local field
+     * value is less than or equal to the second local field value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_LOCAL_BRANCH_LESS_THAN_OR_EQUALS = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left <= runtime.getIntLocal(operands[address + 1]) ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_int_local} and {@code branch_greater_than_or_equals}, branches if the first local field
+     * value is greater than or equal to the second local field value.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_LOCAL_BRANCH_GREATER_THAN_OR_EQUALS = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        var left = runtime.getIntLocal(operands[address]);
+        runtime.setAddress(address + 2 + (left >= runtime.getIntLocal(operands[address + 1]) ? operands[address + 2] : 0));
+    };
+
+    /**
+     * Fused {@code push_int_local}, {@code push_constant_int}, {@code add} and {@code pop_int_local}, stores the sum of
+     * the local field value and the constant value in a local field.
+     */
+    InstructionExecutor<? extends ScriptRuntime> LOCAL_ADD_CONSTANT = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        runtime.setIntLocal(operands[address + 3], runtime.getIntLocal(operands[address]) + operands[address + 1]);
+        runtime.setAddress(address + 3);
+    };
+
+    /**
+     * Fused {@code push_constant_int} and {@code pop_int_local}, stores the constant value in a local field.
+     */
+    InstructionExecutor<? extends ScriptRuntime> CONSTANT_TO_LOCAL = runtime -> {
+        var operands = runtime.getScript().getIntOperands();
+        var address = runtime.getAddress();
+        runtime.setIntLocal(operands[address + 1], operands[address]);
+        runtime.setAddress(address + 1);
+    };
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.impl;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.linker.ScriptVerifier;
+import me.waliedyassen.runescript.runtime.script.SwitchTable;
+
+import java.util.Map;
+
+/**
+ * Contains the variants of the core operations which skip the checks that the {@link ScriptVerifier} already proved
+ * at link time, they must only be used at the instruction sites the verifier rewrote. The operations which pop from an
+ * operand stack skip the empty stack check, and the local field operations rely on the local field index the verifier
+ * checked.
+ *
+ * @author Walied K. Yassen
+ */
+public interface UncheckedOps {
+
+    /**
+     * {@link CoreOps#POP_INT_DISCARD} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> POP_INT_DISCARD = ScriptRuntime::popIntUnchecked;
+
+    /**
+     * {@link CoreOps#POP_STRING_DISCARD} without checking the depth of the string stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> POP_STRING_DISCARD = ScriptRuntime::popStringUnchecked;
+
+    /**
+     * {@link CoreOps#POP_LONG_DISCARD} without checking the depth of the long stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> POP_LONG_DISCARD = ScriptRuntime::popLongUnchecked;
+
+    /**
+     * {@link CoreOps#POP_INT_LOCAL} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> POP_INT_LOCAL = runtime -> runtime.setIntLocal(runtime.intOperand(), runtime.popIntUnchecked());
+
+    /**
+     * {@link CoreOps#POP_STRING_LOCAL} without checking the depth of the string stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> POP_STRING_LOCAL = runtime -> runtime.setStringLocal(runtime.intOperand(), runtime.popStringUnchecked());
+
+    /**
+     * {@link CoreOps#POP_LONG_LOCAL} without checking the depth of the long stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> POP_LONG_LOCAL = runtime -> runtime.setLongLocal(runtime.intOperand(), runtime.popLongUnchecked());
+
+    /**
+     * {@link CoreOps#BRANCH_NOT} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> BRANCH_NOT = runtime -> {
+        var right = runtime.popIntUnchecked();
+        var left = runtime.popIntUnchecked();
+        if (left != right) {
+            runtime.setAddress(runtime.getAddress() + runtime.intOperand());
+        }
+    };
+
+    /**
+     * {@link CoreOps#BRANCH_EQUALS} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> BRANCH_EQUALS = runtime -> {
+        var right = runtime.popIntUnchecked();
+        var left = runtime.popIntUnchecked();
+        if (left == right) {
+            runtime.setAddress(runtime.getAddress() + runtime.intOperand());
+        }
+    };
+
+    /**
+     * {@link CoreOps#BRANCH_LESS_THAN} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> BRANCH_LESS_THAN = runtime -> {
+        var right = runtime.popIntUnchecked();
+        var left = runtime.popIntUnchecked();
+        if (left < right) {
+            runtime.setAddress(runtime.getAddress() + runtime.intOperand());
+        }
+    };
+
+    /**
+     * {@link CoreOps#BRANCH_GREATER_THAN} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> BRANCH_GREATER_THAN = runtime -> {
+        var right = runtime.popIntUnchecked();
+        var left = runtime.popIntUnchecked();
+        if (left > right) {
+            runtime.setAddress(runtime.getAddress() + runtime.intOperand());
+        }
+    };
+
+    /**
+     * {@link CoreOps#BRANCH_LESS_THAN_OR_EQUALS} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> BRANCH_LESS_THAN_OR_EQUALS = runtime -> {
+        var right = runtime.popIntUnchecked();
+        var left = runtime.popIntUnchecked();
+        if (left <= right) {
+            runtime.setAddress(runtime.getAddress() + runtime.intOperand());
+        }
+    };
+
+    /**
+     * {@link CoreOps#BRANCH_GREATER_THAN_OR_EQUALS} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> BRANCH_GREATER_THAN_OR_EQUALS = runtime -> {
+        var right = runtime.popIntUnchecked();
+        var left = runtime.popIntUnchecked();
+        if (left >= right) {
+            runtime.setAddress(runtime.getAddress() + runtime.intOperand());
+        }
+    };
+
+    /**
+     * {@link MathOps#ADD} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> ADD = runtime -> runtime.pushInt(runtime.popIntUnchecked() + runtime.popIntUnchecked());
+
+    /**
+     * {@link MathOps#SUB} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> SUB = runtime -> runtime.pushInt(runtime.popIntUnchecked() - runtime.popIntUnchecked());
+
+    /**
+     * {@link MathOps#MUL} without checking the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> MUL = runtime -> runtime.pushInt(runtime.popIntUnchecked() * runtime.popIntUnchecked());
+
+    /**
+     * {@link ArrayOps#PUSH_ARRAY_INT} without checking the depth of the int stack, the element index is still checked.
+     */
+    InstructionExecutor<? extends ScriptRuntime> PUSH_ARRAY_INT = runtime -> {
+        var id = runtime.intOperand();
+        var index = runtime.popIntUnchecked();
+        if (index < 0 || index >= runtime.getArraySize()[id]) {
+            throw new ExecutionException("Failed to execute push_array_int: invalid array index: " + index);
+        }
+        runtime.pushInt(runtime.getArrayElements()[id][index]);
+    };
+
+    /**
+     * {@link ArrayOps#POP_ARRAY_INT} without checking the depth of the int stack, the element index is still checked.
+     */
+    InstructionExecutor<? extends ScriptRuntime> POP_ARRAY_INT = runtime -> {
+        var id = runtime.intOperand();
+        var value = runtime.popIntUnchecked();
+        var index = runtime.popIntUnchecked();
+        if (index < 0 || index >= runtime.getArraySize()[id]) {
+            throw new ExecutionException("Failed to execute pop_array_int: invalid array index: " + index);
+        }
+        runtime.getArrayElements()[id][index] = value;
+    };
+
+    /**
+     * {@link CoreOps#JOIN_STRING} without checking the amount of strings on the stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> JOIN_STRING = runtime -> runtime.pushString(runtime.joinStringsUnchecked(runtime.intOperand()));
+
+    /**
+     * {@link CoreOps#SWITCH} without checking whether the switch table exists or the depth of the int stack.
+     */
+    InstructionExecutor<? extends ScriptRuntime> SWITCH = runtime -> {
+        var jump = runtime.getScript().getSwitchTable()[runtime.intOperand()].lookup(runtime.popIntUnchecked());
+        if (jump != SwitchTable.NO_CASE) {
+            runtime.setAddress(runtime.getAddress() + jump);
+        }
+    };
+
+    /**
+     * The checked operation of each of the unchecked operations, keyed by the unchecked operation. Linkers and
+     * compilers which look for the checked operations use it to also recognise the sites the verifier rewrote.
+     */
+    Map<InstructionExecutor<?>, InstructionExecutor<?>> CHECKED = Map.ofEntries(
+            Map.entry(POP_INT_DISCARD, CoreOps.POP_INT_DISCARD),
+            Map.entry(POP_STRING_DISCARD, CoreOps.POP_STRING_DISCARD),
+            Map.entry(POP_LONG_DISCARD, CoreOps.POP_LONG_DISCARD),
+            Map.entry(POP_INT_LOCAL, CoreOps.POP_INT_LOCAL),
+            Map.entry(POP_STRING_LOCAL, CoreOps.POP_STRING_LOCAL),
+            Map.entry(POP_LONG_LOCAL, CoreOps.POP_LONG_LOCAL),
+            Map.entry(BRANCH_NOT, CoreOps.BRANCH_NOT),
+            Map.entry(BRANCH_EQUALS, CoreOps.BRANCH_EQUALS),
+            Map.entry(BRANCH_LESS_THAN, CoreOps.BRANCH_LESS_THAN),
+            Map.entry(BRANCH_GREATER_THAN, CoreOps.BRANCH_GREATER_THAN),
+            Map.entry(BRANCH_LESS_THAN_OR_EQUALS, CoreOps.BRANCH_LESS_THAN_OR_EQUALS),
+            Map.entry(BRANCH_GREATER_THAN_OR_EQUALS, CoreOps.BRANCH_GREATER_THAN_OR_EQUALS),
+            Map.entry(ADD, MathOps.ADD),
+            Map.entry(SUB, MathOps.SUB),
+            Map.entry(MUL, MathOps.MUL),
+            Map.entry(PUSH_ARRAY_INT, ArrayOps.PUSH_ARRAY_INT),
+            Map.entry(POP_ARRAY_INT, ArrayOps.POP_ARRAY_INT),
+            Map.entry(JOIN_STRING, CoreOps.JOIN_STRING),
+            Map.entry(SWITCH, CoreOps.SWITCH));
+}
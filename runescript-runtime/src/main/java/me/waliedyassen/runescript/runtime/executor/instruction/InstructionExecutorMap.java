@@ -7,6 +7,10 @@
  */
 package me.waliedyassen.runescript.runtime.executor.instruction;
 
+import lombok.Getter;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.script.Script;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,11 +22,23 @@ import java.util.Map;
 @SuppressWarnings("rawtypes")
 public final class InstructionExecutorMap {
 
+    /**
+     * The maximum opcode value that can be registered in a frozen map.
+     */
+    public static final int MAX_FROZEN_OPCODE = 0xffff;
+
     /**
      * A look-up for all of the {@link InstructionExecutor instruction executor}s by their associated instruction id.
      */
     private final Map<Integer, InstructionExecutor> executorsByOpcode = new HashMap<>();
 
+    /**
+     * A dense table of all the {@link InstructionExecutor instruction executor}s indexed by their opcode, this is only
+     * present after the map has been {@link #freeze() frozen}.
+     */
+    @Getter
+    private InstructionExecutor[] executors;
+
     /**
      * Registers a new {@link InstructionExecutor} into the map.
      *
@@ -32,12 +48,64 @@ public final class InstructionExecutorMap {
      *         the executor object to register.
      */
     public void register(int opcode, InstructionExecutor executor) {
+        if (isFrozen()) {
+            throw new IllegalStateException("The InstructionExecutorMap is frozen and cannot accept new registrations");
+        }
         if (executorsByOpcode.containsKey(opcode)) {
             throw new IllegalArgumentException("The specified opcode is already registered for another InstructionExecutor");
         }
         executorsByOpcode.put(opcode, executor);
     }
 
+    /**
+     * Registers a new {@link InstructionExecutor} into the map using the first opcode after the highest registered
+     * opcode.
+     *
+     * @param executor
+     *         the executor object to register.
+     *
+     * @return the opcode which the executor was registered for.
+     */
+    public int register(InstructionExecutor executor) {
+        var opcode = 0;
+        for (var registered : executorsByOpcode.keySet()) {
+            opcode = Math.max(opcode, registered + 1);
+        }
+        register(opcode, executor);
+        return opcode;
+    }
+
+    /**
+     * Freezes the map and compiles all of the registered executors into a dense table that is indexed by opcode, no
+     * more executors can be registered after the map has been frozen.
+     */
+    public void freeze() {
+        if (isFrozen()) {
+            throw new IllegalStateException("The InstructionExecutorMap is already frozen");
+        }
+        var maxOpcode = -1;
+        for (var opcode : executorsByOpcode.keySet()) {
+            if (opcode < 0 || opcode > MAX_FROZEN_OPCODE) {
+                throw new IllegalStateException("Cannot freeze an InstructionExecutorMap with opcode: " + opcode);
+            }
+            maxOpcode = Math.max(maxOpcode, opcode);
+        }
+        var table = new InstructionExecutor[maxOpcode + 1];
+        for (var entry : executorsByOpcode.entrySet()) {
+            table[entry.getKey()] = entry.getValue();
+        }
+        executors = table;
+    }
+
+    /**
+     * Checks whether or not the map has been {@link #freeze() frozen}.
+     *
+     * @return <code>true</code> if it was otherwise <code>false</code>.
+     */
+    public boolean isFrozen() {
+        return executors != null;
+    }
+
     /**
      * Looks-up for the {@link InstructionExecutor} object which is registered for the specified {@code opcode}.
      *
@@ -47,6 +115,46 @@ public final class InstructionExecutorMap {
      * @return the {@link InstructionExecutor} object if it was present otherwise {@code null}.
      */
     public InstructionExecutor lookup(int opcode) {
+        var table = executors;
+        if (table != null) {
+            return opcode >= 0 && opcode < table.length ? table[opcode] : null;
+        }
         return executorsByOpcode.get(opcode);
     }
+
+    /**
+     * Validates that every instruction in the specified {@link Script} has a registered {@link InstructionExecutor}.
+     *
+     * @param script
+     *         the script which we want to validate.
+     *
+     * @throws ExecutionException
+     *         if any of the instructions had no registered executor.
+     */
+    public void validate(Script script) throws ExecutionException {
+        var instructions = script.getInstructions();
+        for (var address = 0; address < instructions.length; address++) {
+            if (lookup(instructions[address]) == null) {
+                throw new ExecutionException("Missing InstructionExecutor for instruction with opcode: " + instructions[address] + " at address: " + address + " in script: " + script.getName());
+            }
+        }
+        script.setValidatedMap(this);
+    }
+
+    /**
+     * Validates the specified {@link Script} unless it was already validated against this map. Executors are never
+     * removed from the map, so a script that was validated once stays valid.
+     *
+     * @param script
+     *         the script which we want to validate.
+     *
+     * @throws ExecutionException
+     *         if any of the instructions had no registered executor.
+     * @see #validate(Script)
+     */
+    public void ensureValidated(Script script) throws ExecutionException {
+        if (script.getValidatedMap() != this) {
+            validate(script);
+        }
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.jit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable buffer of JVM bytecode with support for forward and backward jumps to labels.
+ *
+ * @author Walied K. Yassen
+ */
+final class BytecodeBuffer {
+
+    // The JVM opcodes that are used by the compiler.
+    static final int ICONST_0 = 0x03;
+    static final int LCONST_0 = 0x09;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+    static final int ILOAD = 0x15;
+    static final int ALOAD_0 = 0x2a;
+    static final int ALOAD_1 = 0x2b;
+    static final int ALOAD_2 = 0x2c;
+    static final int AALOAD = 0x32;
+    static final int ISTORE = 0x36;
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int IDIV = 0x6c;
+    static final int IF_ICMPEQ = 0x9f;
+    static final int IF_ICMPNE = 0xa0;
+    static final int IF_ICMPLT = 0xa1;
+    static final int IF_ICMPGE = 0xa2;
+    static final int IF_ICMPGT = 0xa3;
+    static final int IF_ICMPLE = 0xa4;
+    static final int IF_ACMPNE = 0xa6;
+    static final int GOTO = 0xa7;
+    static final int TABLESWITCH = 0xaa;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+
+    /**
+     * The constant pool of the class the code belongs to.
+     */
+    private final ClassFileWriter classFile;
+
+    /**
+     * The positions of the labels, or {@code -1} if a label is not bound yet.
+     */
+    private int[] labels = new int[16];
+
+    /**
+     * The amount of labels that were created.
+     */
+    private int labelCount;
+
+    /**
+     * The jumps that need to be patched once all of the labels are bound.
+     */
+    private final List<int[]> jumps = new ArrayList<>();
+
+    /**
+     * The bytecode buffer.
+     */
+    private byte[] code = new byte[256];
+
+    /**
+     * The amount of bytes that were written to the buffer.
+     */
+    private int length;
+
+    /**
+     * Constructs a new {@link BytecodeBuffer} type object instance.
+     *
+     * @param classFile the class file which holds the constant pool.
+     */
+    BytecodeBuffer(ClassFileWriter classFile) {
+        this.classFile = classFile;
+    }
+
+    /**
+     * Creates a new unbound label.
+     *
+     * @return the id of the label.
+     */
+    int newLabel() {
+        if (labelCount == labels.length) {
+            labels = Arrays.copyOf(labels, labelCount << 1);
+        }
+        labels[labelCount] = -1;
+        return labelCount++;
+    }
+
+    /**
+     * Binds the specified label to the current position.
+     *
+     * @param label the label to bind.
+     */
+    void bind(int label) {
+        labels[label] = length;
+    }
+
+    /**
+     * Writes an instruction without operands.
+     *
+     * @param opcode the opcode of the instruction.
+     */
+    void op(int opcode) {
+        u1(opcode);
+    }
+
+    /**
+     * Writes an instruction with a constant pool index operand.
+     *
+     * @param opcode the opcode of the instruction.
+     * @param index  the constant pool index.
+     */
+    void op(int opcode, int index) {
+        u1(opcode);
+        u2(index);
+    }
+
+    /**
+     * Writes an instruction with a local variable index operand.
+     *
+     * @param opcode the opcode of the instruction.
+     * @param index  the local variable index.
+     */
+    void local(int opcode, int index) {
+        u1(opcode);
+        u1(index);
+    }
+
+    /**
+     * Writes an {@code invokeinterface} instruction.
+     *
+     * @param index the constant pool index of the interface method.
+     * @param count the size of the arguments including the receiver.
+     */
+    void invokeInterface(int index, int count) {
+        u1(INVOKEINTERFACE);
+        u2(index);
+        u1(count);
+        u1(0);
+    }
+
+    /**
+     * Writes a jump instruction to the specified label.
+     *
+     * @param opcode the opcode of the jump instruction.
+     * @param label  the target label.
+     */
+    void jump(int opcode, int label) {
+        jumps.add(new int[]{length, length + 1, label, 2});
+        u1(opcode);
+        u2(0);
+    }
+
+    /**
+     * Writes a {@code tableswitch} instruction with keys starting at zero.
+     *
+     * @param targets       the labels of the cases.
+     * @param defaultTarget the label of the default case.
+     */
+    void tableSwitch(int[] targets, int defaultTarget) {
+        var start = length;
+        u1(TABLESWITCH);
+        while ((length & 3) != 0) {
+            u1(0);
+        }
+        jumps.add(new int[]{start, length, defaultTarget, 4});
+        u4(0);
+        u4(0);
+        u4(targets.length - 1);
+        for (var target : targets) {
+            jumps.add(new int[]{start, length, target, 4});
+            u4(0);
+        }
+    }
+
+    /**
+     * Writes the instructions that push the specified {@code int} constant.
+     *
+     * @param value the value to push.
+     */
+    void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            u1(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            u1(BIPUSH);
+            u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            u1(SIPUSH);
+            u2(value);
+        } else {
+            ldc(classFile.integer(value));
+        }
+    }
+
+    /**
+     * Writes the instructions that push the specified {@code long} constant.
+     *
+     * @param value the value to push.
+     */
+    void pushLong(long value) {
+        if (value == 0 || value == 1) {
+            u1(LCONST_0 + (int) value);
+        } else {
+            op(LDC2_W, classFile.longValue(value));
+        }
+    }
+
+    /**
+     * Writes the instructions that push the specified {@link String} constant.
+     *
+     * @param value the value to push.
+     */
+    void pushString(String value) {
+        ldc(classFile.string(value));
+    }
+
+    /**
+     * Writes a {@code ldc} or {@code ldc_w} instruction depending on the constant pool index.
+     *
+     * @param index the constant pool index.
+     */
+    private void ldc(int index) {
+        if (index <= 0xff) {
+            u1(LDC);
+            u1(index);
+        } else {
+            op(LDC_W, index);
+        }
+    }
+
+    /**
+     * Patches all of the jumps and returns the final bytecode.
+     *
+     * @return the bytecode or {@code null} if any of the jumps does not fit in its offset.
+     */
+    byte[] toByteArray() {
+        for (var jump : jumps) {
+            var target = labels[jump[2]];
+            if (target == -1) {
+                throw new IllegalStateException("Jump to an unbound label");
+            }
+            var offset = target - jump[0];
+            if (jump[3] == 2) {
+                if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                    return null;
+                }
+                code[jump[1]] = (byte) (offset >> 8);
+                code[jump[1] + 1] = (byte) offset;
+            } else {
+                code[jump[1]] = (byte) (offset >> 24);
+                code[jump[1] + 1] = (byte) (offset >> 16);
+                code[jump[1] + 2] = (byte) (offset >> 8);
+                code[jump[1] + 3] = (byte) offset;
+            }
+        }
+        return Arrays.copyOf(code, length);
+    }
+
+    private void u1(int value) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, length << 1);
+        }
+        code[length++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        u1(value >> 8);
+        u1(value);
+    }
+
+    private void u4(int value) {
+        u2(value >> 16);
+        u2(value);
+    }
+}
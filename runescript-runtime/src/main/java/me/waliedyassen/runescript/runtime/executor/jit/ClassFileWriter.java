@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal class file writer that produces version 49 class files, which do not require stack map frames and are
+ * verified using the type inferencing verifier.
+ *
+ * @author Walied K. Yassen
+ */
+final class ClassFileWriter {
+
+    /**
+     * The public access flag.
+     */
+    static final int ACC_PUBLIC = 0x0001;
+
+    /**
+     * The private access flag.
+     */
+    static final int ACC_PRIVATE = 0x0002;
+
+    /**
+     * The final access flag.
+     */
+    static final int ACC_FINAL = 0x0010;
+
+    /**
+     * The super access flag.
+     */
+    static final int ACC_SUPER = 0x0020;
+
+    /**
+     * The major version of the produced class files.
+     */
+    private static final int MAJOR_VERSION = 49;
+
+    /**
+     * The constant pool entries by their key.
+     */
+    private final Map<String, Integer> constants = new HashMap<>();
+
+    /**
+     * The encoded constant pool.
+     */
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+    /**
+     * The encoded constant pool writer.
+     */
+    private final DataOutputStream poolData = new DataOutputStream(pool);
+
+    /**
+     * The encoded fields of the class.
+     */
+    private final List<byte[]> fields = new ArrayList<>();
+
+    /**
+     * The encoded methods of the class.
+     */
+    private final List<byte[]> methods = new ArrayList<>();
+
+    /**
+     * The constant pool index of the class.
+     */
+    private final int thisClass;
+
+    /**
+     * The constant pool index of the super class.
+     */
+    private final int superClass;
+
+    /**
+     * The constant pool indices of the interfaces.
+     */
+    private final int[] interfaces;
+
+    /**
+     * The next free constant pool index.
+     */
+    private int nextConstant = 1;
+
+    /**
+     * Constructs a new {@link ClassFileWriter} type object instance.
+     *
+     * @param name       the internal name of the class.
+     * @param superName  the internal name of the super class.
+     * @param interfaces the internal names of the interfaces.
+     */
+    ClassFileWriter(String name, String superName, String... interfaces) {
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+        this.interfaces = new int[interfaces.length];
+        for (var index = 0; index < interfaces.length; index++) {
+            this.interfaces[index] = classRef(interfaces[index]);
+        }
+    }
+
+    /**
+     * Adds a field to the class.
+     *
+     * @param access     the access flags of the field.
+     * @param name       the name of the field.
+     * @param descriptor the descriptor of the field.
+     */
+    void addField(int access, String name, String descriptor) {
+        var bos = new ByteArrayOutputStream();
+        try (var data = new DataOutputStream(bos)) {
+            data.writeShort(access);
+            data.writeShort(utf8(name));
+            data.writeShort(utf8(descriptor));
+            data.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fields.add(bos.toByteArray());
+    }
+
+    /**
+     * Adds a method with a code attribute to the class.
+     *
+     * @param access     the access flags of the method.
+     * @param name       the name of the method.
+     * @param descriptor the descriptor of the method.
+     * @param maxStack   the maximum depth of the operand stack of the method.
+     * @param maxLocals  the maximum amount of locals of the method.
+     * @param code       the bytecode of the method.
+     */
+    void addMethod(int access, String name, String descriptor, int maxStack, int maxLocals, byte[] code) {
+        var bos = new ByteArrayOutputStream();
+        try (var data = new DataOutputStream(bos)) {
+            data.writeShort(access);
+            data.writeShort(utf8(name));
+            data.writeShort(utf8(descriptor));
+            data.writeShort(1);
+            data.writeShort(utf8("Code"));
+            data.writeInt(12 + code.length);
+            data.writeShort(maxStack);
+            data.writeShort(maxLocals);
+            data.writeInt(code.length);
+            data.write(code);
+            data.writeShort(0);
+            data.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(bos.toByteArray());
+    }
+
+    /**
+     * Encodes the class file.
+     *
+     * @return the encoded class file.
+     */
+    byte[] toByteArray() {
+        var bos = new ByteArrayOutputStream();
+        try (var data = new DataOutputStream(bos)) {
+            data.writeInt(0xCAFEBABE);
+            data.writeShort(0);
+            data.writeShort(MAJOR_VERSION);
+            data.writeShort(nextConstant);
+            data.write(pool.toByteArray());
+            data.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            data.writeShort(thisClass);
+            data.writeShort(superClass);
+            data.writeShort(interfaces.length);
+            for (var index : interfaces) {
+                data.writeShort(index);
+            }
+            data.writeShort(fields.size());
+            for (var field : fields) {
+                data.write(field);
+            }
+            data.writeShort(methods.size());
+            for (var method : methods) {
+                data.write(method);
+            }
+            data.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_Utf8} entry.
+     *
+     * @param value the value of the entry.
+     * @return the constant pool index of the entry.
+     */
+    int utf8(String value) {
+        return constant("U" + value, 1, 1, data -> data.writeUTF(value));
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_Class} entry.
+     *
+     * @param name the internal name of the class.
+     * @return the constant pool index of the entry.
+     */
+    int classRef(String name) {
+        var nameIndex = utf8(name);
+        return constant("C" + name, 7, 1, data -> data.writeShort(nameIndex));
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_String} entry.
+     *
+     * @param value the value of the string.
+     * @return the constant pool index of the entry.
+     */
+    int string(String value) {
+        var valueIndex = utf8(value);
+        return constant("S" + value, 8, 1, data -> data.writeShort(valueIndex));
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_Integer} entry.
+     *
+     * @param value the value of the integer.
+     * @return the constant pool index of the entry.
+     */
+    int integer(int value) {
+        return constant("I" + value, 3, 1, data -> data.writeInt(value));
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_Long} entry.
+     *
+     * @param value the value of the long.
+     * @return the constant pool index of the entry.
+     */
+    int longValue(long value) {
+        return constant("J" + value, 5, 2, data -> data.writeLong(value));
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_Fieldref} entry.
+     *
+     * @param owner      the internal name of the owner class.
+     * @param name       the name of the field.
+     * @param descriptor the descriptor of the field.
+     * @return the constant pool index of the entry.
+     */
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_Methodref} entry.
+     *
+     * @param owner      the internal name of the owner class.
+     * @param name       the name of the method.
+     * @param descriptor the descriptor of the method.
+     * @return the constant pool index of the entry.
+     */
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    /**
+     * Adds or gets a {@code CONSTANT_InterfaceMethodref} entry.
+     *
+     * @param owner      the internal name of the owner interface.
+     * @param name       the name of the method.
+     * @param descriptor the descriptor of the method.
+     * @return the constant pool index of the entry.
+     */
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(11, owner, name, descriptor);
+    }
+
+    /**
+     * Adds or gets a member reference entry.
+     *
+     * @param tag        the tag of the entry.
+     * @param owner      the internal name of the owner class.
+     * @param name       the name of the member.
+     * @param descriptor the descriptor of the member.
+     * @return the constant pool index of the entry.
+     */
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        var ownerIndex = classRef(owner);
+        var nameIndex = utf8(name);
+        var descriptorIndex = utf8(descriptor);
+        var nameAndType = constant("N" + name + ":" + descriptor, 12, 1, data -> {
+            data.writeShort(nameIndex);
+            data.writeShort(descriptorIndex);
+        });
+        return constant("M" + tag + owner + "." + name + ":" + descriptor, tag, 1, data -> {
+            data.writeShort(ownerIndex);
+            data.writeShort(nameAndType);
+        });
+    }
+
+    /**
+     * Adds or gets a constant pool entry.
+     *
+     * @param key   the unique key of the entry.
+     * @param tag   the tag of the entry.
+     * @param slots the amount of constant pool slots the entry takes.
+     * @param body  the writer of the body of the entry.
+     * @return the constant pool index of the entry.
+     */
+    private int constant(String key, int tag, int slots, EntryWriter body) {
+        var index = constants.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            poolData.writeByte(tag);
+            body.write(poolData);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        index = nextConstant;
+        nextConstant += slots;
+        if (nextConstant > 0xffff) {
+            throw new IllegalStateException("The constant pool is too large");
+        }
+        constants.put(key, index);
+        return index;
+    }
+
+    /**
+     * Writes the body of a constant pool entry.
+     */
+    @FunctionalInterface
+    private interface EntryWriter {
+
+        /**
+         * Writes the body of the entry.
+         *
+         * @param data the stream to write the body to.
+         * @throws IOException if anything occurs while writing.
+         */
+        void write(DataOutputStream data) throws IOException;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.jit;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+
+/**
+ * A script that was compiled into a JVM class by the {@link JitCompiler}.
+ *
+ * @author Walied K. Yassen
+ */
+public interface CompiledScript {
+
+    /**
+     * Executes the script in the specified runtime starting from the current execution address of the runtime.
+     * <p>
+     * The method returns when the end of the script is reached, when the runtime switches to another script or when
+     * the execution is aborted, leaving the execution address at the next instruction that should be executed so the
+     * interpreter can carry on from there.
+     *
+     * @param runtime the runtime to execute the script in.
+     */
+    void run(ScriptRuntime runtime);
+}
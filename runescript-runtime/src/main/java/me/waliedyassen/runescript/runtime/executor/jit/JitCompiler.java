@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.jit;
+
+import lombok.Getter;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.impl.MathOps;
+import me.waliedyassen.runescript.runtime.executor.impl.UncheckedOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static me.waliedyassen.runescript.runtime.executor.jit.BytecodeBuffer.*;
+
+/**
+ * A compilation tier that translates hot {@link Script}s into hidden JVM classes.
+ * <p>
+ * The core operations are inlined into the generated code, every other instruction calls its
+ * {@link InstructionExecutor} directly. After such a call, the generated code returns to the interpreter if the
+ * execution was aborted or the runtime switched to another script, which keeps the abort and resume semantics of the
+ * interpreter intact. The straight-line code is not charged to the execution budget, only the backward branches are,
+ * each charging the length of the loop it closes.
+ * <p>
+ * The compiled code is bound to the {@link InstructionExecutorMap} of the compiler, a compiled script must only be
+ * executed by executors that use the same map.
+ *
+ * @author Walied K. Yassen
+ */
+@SuppressWarnings("rawtypes")
+public final class JitCompiler {
+
+    /**
+     * The default amount of invocations after which a script is compiled.
+     */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    private static final String CLASS_NAME = "me/waliedyassen/runescript/runtime/executor/jit/GeneratedScript";
+    private static final String COMPILED_SCRIPT = "me/waliedyassen/runescript/runtime/executor/jit/CompiledScript";
+    private static final String RUNTIME = "me/waliedyassen/runescript/runtime/ScriptRuntime";
+    private static final String SCRIPT = "me/waliedyassen/runescript/runtime/script/Script";
+    private static final String EXECUTOR = "me/waliedyassen/runescript/runtime/executor/instruction/InstructionExecutor";
+    private static final String SCRIPT_DESCRIPTOR = "L" + SCRIPT + ";";
+    private static final String EXECUTORS_DESCRIPTOR = "[L" + EXECUTOR + ";";
+
+    /**
+     * The core operations that are inlined by the compiler.
+     */
+    private final Map<InstructionExecutor, Operation> operations = new IdentityHashMap<>();
+
+    /**
+     * The executor map which we use to resolve the executors of the instructions.
+     */
+    private final InstructionExecutorMap executorMap;
+
+    /**
+     * The amount of invocations after which a script is compiled.
+     */
+    @Getter
+    private final int threshold;
+
+    /**
+     * The amount of scripts that were compiled.
+     */
+    private final LongAdder compiled = new LongAdder();
+
+    /**
+     * The amount of scripts that could not be compiled.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Constructs a new {@link JitCompiler} type object instance.
+     *
+     * @param executorMap the executor map to resolve the executors of the instructions from.
+     * @param threshold   the amount of invocations after which a script is compiled.
+     */
+    public JitCompiler(InstructionExecutorMap executorMap, int threshold) {
+        this.executorMap = executorMap;
+        this.threshold = threshold;
+        operations.put(CoreOps.PUSH_CONSTANT_INT, Operation.PUSH_CONSTANT_INT);
+        operations.put(CoreOps.PUSH_CONSTANT_STRING, Operation.PUSH_CONSTANT_STRING);
+        operations.put(CoreOps.PUSH_CONSTANT_LONG, Operation.PUSH_CONSTANT_LONG);
+        operations.put(CoreOps.POP_INT_DISCARD, Operation.POP_INT_DISCARD);
+        operations.put(CoreOps.POP_STRING_DISCARD, Operation.POP_STRING_DISCARD);
+        operations.put(CoreOps.POP_LONG_DISCARD, Operation.POP_LONG_DISCARD);
+        operations.put(CoreOps.PUSH_INT_LOCAL, Operation.PUSH_INT_LOCAL);
+        operations.put(CoreOps.POP_INT_LOCAL, Operation.POP_INT_LOCAL);
+        operations.put(CoreOps.PUSH_STRING_LOCAL, Operation.PUSH_STRING_LOCAL);
+        operations.put(CoreOps.POP_STRING_LOCAL, Operation.POP_STRING_LOCAL);
+        operations.put(CoreOps.PUSH_LONG_LOCAL, Operation.PUSH_LONG_LOCAL);
+        operations.put(CoreOps.POP_LONG_LOCAL, Operation.POP_LONG_LOCAL);
+        operations.put(CoreOps.BRANCH, Operation.BRANCH);
+        operations.put(CoreOps.BRANCH_NOT, Operation.BRANCH_NOT);
+        operations.put(CoreOps.BRANCH_EQUALS, Operation.BRANCH_EQUALS);
+        operations.put(CoreOps.BRANCH_LESS_THAN, Operation.BRANCH_LESS_THAN);
+        operations.put(CoreOps.BRANCH_GREATER_THAN, Operation.BRANCH_GREATER_THAN);
+        operations.put(CoreOps.BRANCH_LESS_THAN_OR_EQUALS, Operation.BRANCH_LESS_THAN_OR_EQUALS);
+        operations.put(CoreOps.BRANCH_GREATER_THAN_OR_EQUALS, Operation.BRANCH_GREATER_THAN_OR_EQUALS);
+        operations.put(MathOps.ADD, Operation.ADD);
+        operations.put(MathOps.SUB, Operation.SUB);
+        operations.put(MathOps.MUL, Operation.MUL);
+        operations.put(MathOps.DIV, Operation.DIV);
+    }
+
+    /**
+     * Counts an invocation of the specified {@link Script} and returns its compiled form, the script is compiled once
+     * its invocation count reaches the {@link #threshold}. A script which cannot be compiled, or whose compilation
+     * fails, is never compiled again and is interpreted instead.
+     *
+     * @param script the script which is being invoked.
+     * @return the {@link CompiledScript} object or {@code null} if the script should be interpreted.
+     */
+    public CompiledScript lookup(Script script) {
+        var compiledScript = script.getCompiled();
+        if (compiledScript != null || script.isCompilationDisabled()) {
+            return compiledScript;
+        }
+        if (script.incrementInvocationCount() < threshold) {
+            return null;
+        }
+        synchronized (script) {
+            compiledScript = script.getCompiled();
+            if (compiledScript == null && !script.isCompilationDisabled()) {
+                try {
+                    compiledScript = compile(script);
+                } catch (RuntimeException e) {
+                    // a script which fails to compile keeps running in the interpreter instead of failing the call.
+                    compiledScript = null;
+                }
+                if (compiledScript == null) {
+                    failed.increment();
+                    script.setCompilationDisabled(true);
+                } else {
+                    compiled.increment();
+                    script.setCompiled(compiledScript);
+                }
+            }
+        }
+        return compiledScript;
+    }
+
+    /**
+     * Compiles the specified {@link Script} into a hidden JVM class.
+     *
+     * @param script the script which we want to compile.
+     * @return the {@link CompiledScript} object or {@code null} if the script cannot be compiled.
+     * @throws ExecutionException if anything occurs while defining the generated class.
+     */
+    public CompiledScript compile(Script script) throws ExecutionException {
+        var instructions = script.getInstructions();
+        if (instructions.length == 0) {
+            return null;
+        }
+        var classFile = new ClassFileWriter(CLASS_NAME, "java/lang/Object", COMPILED_SCRIPT);
+        classFile.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "script", SCRIPT_DESCRIPTOR);
+        classFile.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "executors", EXECUTORS_DESCRIPTOR);
+        classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "(" + SCRIPT_DESCRIPTOR + EXECUTORS_DESCRIPTOR + ")V", 2, 3, constructor(classFile));
+        var executors = new InstructionExecutor[instructions.length];
+        var code = run(classFile, script, executors);
+        if (code == null || code.length > 0xffff) {
+            return null;
+        }
+        classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "run", "(L" + RUNTIME + ";)V", 6, 3, code);
+        try {
+            var lookup = MethodHandles.lookup().defineHiddenClass(classFile.toByteArray(), true);
+            var constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Script.class, InstructionExecutor[].class));
+            return (CompiledScript) constructor.invoke(script, executors);
+        } catch (Throwable e) {
+            throw new ExecutionException("Failed to compile script: " + script.getName(), e);
+        }
+    }
+
+    /**
+     * Generates the code of the constructor of the generated class.
+     *
+     * @param classFile the class file we are generating.
+     * @return the bytecode of the constructor.
+     */
+    private byte[] constructor(ClassFileWriter classFile) {
+        var code = new BytecodeBuffer(classFile);
+        code.op(ALOAD_0);
+        code.op(INVOKESPECIAL, classFile.methodRef("java/lang/Object", "<init>", "()V"));
+        code.op(ALOAD_0);
+        code.op(ALOAD_1);
+        code.op(PUTFIELD, classFile.fieldRef(CLASS_NAME, "script", SCRIPT_DESCRIPTOR));
+        code.op(ALOAD_0);
+        code.op(ALOAD_2);
+        code.op(PUTFIELD, classFile.fieldRef(CLASS_NAME, "executors", EXECUTORS_DESCRIPTOR));
+        code.op(BytecodeBuffer.RETURN);
+        return code.toByteArray();
+    }
+
+    /**
+     * Generates the code of the {@link CompiledScript#run} method of the generated class.
+     * <p>
+     * The generated method dispatches on the execution address once, then falls through the inlined instructions, the
+     * local variable {@code 2} holds the next address whenever the method needs to dispatch again or exit.
+     *
+     * @param classFile the class file we are generating.
+     * @param script    the script we are compiling.
+     * @param executors the executors array that is populated with the executors of the non-inlined instructions.
+     * @return the bytecode of the method or {@code null} if the script cannot be compiled.
+     */
+    private byte[] run(ClassFileWriter classFile, Script script, InstructionExecutor[] executors) {
+        var instructions = script.getInstructions();
+        var operands = script.getIntOperands();
+        var length = instructions.length;
+        var code = new BytecodeBuffer(classFile);
+        var labels = new int[length + 1];
+        for (var index = 0; index <= length; index++) {
+            labels[index] = code.newLabel();
+        }
+        var dispatch = code.newLabel();
+        var outOfRange = code.newLabel();
+        var exit = code.newLabel();
+        var backEdges = new ArrayList<int[]>();
+        code.op(ALOAD_1);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "getAddress", "()I"));
+        code.local(ISTORE, 2);
+        code.bind(dispatch);
+        code.local(ILOAD, 2);
+        code.tableSwitch(Arrays.copyOf(labels, length), outOfRange);
+        for (var address = 0; address < length; address++) {
+            code.bind(labels[address]);
+            var executor = executorMap.lookup(instructions[address]);
+            if (executor == null) {
+                return null;
+            }
+            var operation = operations.get(UncheckedOps.CHECKED.getOrDefault(executor, executor));
+            var operand = operands[address];
+            if (operation != null && operation.isBranch()) {
+                var target = address + operand + 1;
+                if (target < 0 || target > length) {
+                    operation = null;
+                } else {
+                    var label = labels[target];
+                    if (target <= address) {
+                        label = code.newLabel();
+                        backEdges.add(new int[]{label, target, address - target + 1});
+                    }
+                    if (operation == Operation.BRANCH) {
+                        code.jump(GOTO, label);
+                        continue;
+                    }
+                    code.op(ALOAD_1);
+                    code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "popInt", "()I"));
+                    code.op(ALOAD_1);
+                    code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "popInt", "()I"));
+                    // the right value is below the left value on the operand stack, so the comparison is mirrored.
+                    code.jump(operation.mirroredCompare, label);
+                    continue;
+                }
+            }
+            if (operation == null) {
+                executors[address] = executor;
+                call(classFile, code, address, dispatch, exit);
+                continue;
+            }
+            inline(classFile, code, script, operation, operand);
+        }
+        code.bind(labels[length]);
+        code.pushInt(length);
+        code.local(ISTORE, 2);
+        code.jump(GOTO, exit);
+        // every backward branch charges the instructions of its loop body to the budget before it is taken.
+        for (var backEdge : backEdges) {
+            code.bind(backEdge[0]);
+            charge(classFile, code, backEdge[2]);
+            code.jump(IFEQ, labels[backEdge[1]]);
+            code.pushInt(backEdge[1]);
+            code.local(ISTORE, 2);
+            code.jump(GOTO, exit);
+        }
+        code.bind(outOfRange);
+        code.local(ILOAD, 2);
+        code.pushInt(length);
+        code.jump(IF_ICMPGE, exit);
+        // a negative address fails the same way it does in the interpreter.
+        code.op(ALOAD_0);
+        code.op(GETFIELD, classFile.fieldRef(CLASS_NAME, "executors", EXECUTORS_DESCRIPTOR));
+        code.local(ILOAD, 2);
+        code.op(AALOAD);
+        code.op(POP);
+        code.bind(exit);
+        code.op(ALOAD_1);
+        code.local(ILOAD, 2);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "setAddress", "(I)V"));
+        code.op(BytecodeBuffer.RETURN);
+        return code.toByteArray();
+    }
+
+    /**
+     * Generates the code of an inlined core operation.
+     *
+     * @param classFile the class file we are generating.
+     * @param code      the code buffer of the method.
+     * @param script    the script we are compiling.
+     * @param operation the operation to inline.
+     * @param operand   the int operand of the instruction.
+     */
+    private void inline(ClassFileWriter classFile, BytecodeBuffer code, Script script, Operation operation, int operand) {
+        switch (operation) {
+            case PUSH_CONSTANT_INT -> {
+                code.op(ALOAD_1);
+                code.pushInt(operand);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "pushInt", "(I)V"));
+            }
+            case PUSH_CONSTANT_STRING -> {
+                code.op(ALOAD_1);
+                code.pushString(script.getStringPool()[operand]);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "pushString", "(Ljava/lang/String;)V"));
+            }
+            case PUSH_CONSTANT_LONG -> {
+                code.op(ALOAD_1);
+                code.pushLong(script.getLongPool()[operand]);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "pushLong", "(J)V"));
+            }
+            case POP_INT_DISCARD -> {
+                code.op(ALOAD_1);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "popInt", "()I"));
+                code.op(POP);
+            }
+            case POP_STRING_DISCARD -> {
+                code.op(ALOAD_1);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "popString", "()Ljava/lang/String;"));
+                code.op(POP);
+            }
+            case POP_LONG_DISCARD -> {
+                code.op(ALOAD_1);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "popLong", "()J"));
+                code.op(POP2);
+            }
+            case PUSH_INT_LOCAL -> pushLocal(classFile, code, operand, "Int", "I");
+            case PUSH_STRING_LOCAL -> pushLocal(classFile, code, operand, "String", "Ljava/lang/String;");
+            case PUSH_LONG_LOCAL -> pushLocal(classFile, code, operand, "Long", "J");
+            case POP_INT_LOCAL -> popLocal(classFile, code, operand, "Int", "I");
+            case POP_STRING_LOCAL -> popLocal(classFile, code, operand, "String", "Ljava/lang/String;");
+            case POP_LONG_LOCAL -> popLocal(classFile, code, operand, "Long", "J");
+            case ADD, SUB, MUL, DIV -> {
+                code.op(ALOAD_1);
+                code.op(ALOAD_1);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "popInt", "()I"));
+                code.op(ALOAD_1);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "popInt", "()I"));
+                code.op(operation.arithmetic);
+                code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "pushInt", "(I)V"));
+            }
+            default -> throw new IllegalStateException("Unexpected operation: " + operation);
+        }
+    }
+
+    /**
+     * Generates the code which pushes the value of a local field to the stack.
+     */
+    private void pushLocal(ClassFileWriter classFile, BytecodeBuffer code, int index, String type, String descriptor) {
+        code.op(ALOAD_1);
+        code.op(ALOAD_1);
+        code.pushInt(index);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "get" + type + "Local", "(I)" + descriptor));
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "push" + type, "(" + descriptor + ")V"));
+    }
+
+    /**
+     * Generates the code which pops a value from the stack into a local field.
+     */
+    private void popLocal(ClassFileWriter classFile, BytecodeBuffer code, int index, String type, String descriptor) {
+        code.op(ALOAD_1);
+        code.pushInt(index);
+        code.op(ALOAD_1);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "pop" + type, "()" + descriptor));
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "set" + type + "Local", "(I" + descriptor + ")V"));
+    }
+
+    /**
+     * Generates the code which charges a constant amount of instructions to the budget of the runtime, leaving whether
+     * or not the budget was exceeded on the operand stack.
+     */
+    private void charge(ClassFileWriter classFile, BytecodeBuffer code, int count) {
+        code.op(ALOAD_1);
+        code.pushInt(count);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "charge", "(I)Z"));
+    }
+
+    /**
+     * Generates the code which calls the {@link InstructionExecutor} of an instruction, then returns to the interpreter
+     * if the execution was aborted or the runtime switched to another script, otherwise dispatches to the next address.
+     */
+    private void call(ClassFileWriter classFile, BytecodeBuffer code, int address, int dispatch, int exit) {
+        code.op(ALOAD_1);
+        code.pushInt(address);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "setAddress", "(I)V"));
+        code.op(ALOAD_0);
+        code.op(GETFIELD, classFile.fieldRef(CLASS_NAME, "executors", EXECUTORS_DESCRIPTOR));
+        code.pushInt(address);
+        code.op(AALOAD);
+        code.op(ALOAD_1);
+        code.invokeInterface(classFile.interfaceMethodRef(EXECUTOR, "execute", "(L" + RUNTIME + ";)V"), 2);
+        code.op(ALOAD_1);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "getAddress", "()I"));
+        code.pushInt(1);
+        code.op(IADD);
+        code.local(ISTORE, 2);
+        // the executor jumped backwards, so charge the instructions it jumped over to the budget.
+        var forward = code.newLabel();
+        code.local(ILOAD, 2);
+        code.pushInt(address);
+        code.jump(IF_ICMPGT, forward);
+        code.op(ALOAD_1);
+        code.pushInt(address + 1);
+        code.local(ILOAD, 2);
+        code.op(ISUB);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "charge", "(I)Z"));
+        code.jump(IFNE, exit);
+        code.bind(forward);
+        code.op(ALOAD_1);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "isAbort", "()Z"));
+        code.jump(IFNE, exit);
+        code.op(ALOAD_1);
+        code.op(INVOKEVIRTUAL, classFile.methodRef(RUNTIME, "getScript", "()" + SCRIPT_DESCRIPTOR));
+        code.op(ALOAD_0);
+        code.op(GETFIELD, classFile.fieldRef(CLASS_NAME, "script", SCRIPT_DESCRIPTOR));
+        code.jump(IF_ACMPNE, exit);
+        code.jump(GOTO, dispatch);
+    }
+
+    /**
+     * Returns the amount of scripts that were compiled.
+     *
+     * @return the amount of compiled scripts.
+     */
+    public long getCompiledCount() {
+        return compiled.sum();
+    }
+
+    /**
+     * Returns the amount of scripts that could not be compiled and are interpreted instead.
+     *
+     * @return the amount of failed compilations.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * The core operations that can be inlined by the compiler.
+     */
+    private enum Operation {
+        PUSH_CONSTANT_INT,
+        PUSH_CONSTANT_STRING,
+        PUSH_CONSTANT_LONG,
+        POP_INT_DISCARD,
+        POP_STRING_DISCARD,
+        POP_LONG_DISCARD,
+        PUSH_INT_LOCAL,
+        POP_INT_LOCAL,
+        PUSH_STRING_LOCAL,
+        POP_STRING_LOCAL,
+        PUSH_LONG_LOCAL,
+        POP_LONG_LOCAL,
+        BRANCH(GOTO, 0),
+        BRANCH_NOT(IF_ICMPNE, 0),
+        BRANCH_EQUALS(IF_ICMPEQ, 0),
+        BRANCH_LESS_THAN(IF_ICMPGT, 0),
+        BRANCH_GREATER_THAN(IF_ICMPLT, 0),
+        BRANCH_LESS_THAN_OR_EQUALS(IF_ICMPGE, 0),
+        BRANCH_GREATER_THAN_OR_EQUALS(IF_ICMPLE, 0),
+        ADD(0, IADD),
+        SUB(0, ISUB),
+        MUL(0, IMUL),
+        DIV(0, IDIV);
+
+        /**
+         * The opcode of the comparison with its operands swapped, or {@code 0} if it is not a branch.
+         */
+        private final int mirroredCompare;
+
+        /**
+         * The opcode of the arithmetic instruction, or {@code 0} if it is not an arithmetic operation.
+         */
+        private final int arithmetic;
+
+        Operation() {
+            this(0, 0);
+        }
+
+        Operation(int mirroredCompare, int arithmetic) {
+            this.mirroredCompare = mirroredCompare;
+            this.arithmetic = arithmetic;
+        }
+
+        /**
+         * Checks whether or not the operation is a branch.
+         *
+         * @return <code>true</code> if it is otherwise <code>false</code>.
+         */
+        boolean isBranch() {
+            return mirroredCompare != 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.linker;
+
+import me.waliedyassen.runescript.runtime.cache.LinkContext;
+import me.waliedyassen.runescript.runtime.cache.ScriptCache;
+import me.waliedyassen.runescript.runtime.cache.ScriptLinker;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ScriptLinker} that checks the callees of the {@link CoreOps#GOSUB_WITH_PARAMS} and
+ * {@link CoreOps#JUMP_WITH_PARAMS} instructions of every script that enters the cache.
+ * <p>
+ * The callees are only checked for existence at link time and are resolved into the {@link Script#getCallSites() call
+ * sites} of the script on their first call, resolving them eagerly would load the whole call graph of a lazily loaded
+ * cache and could not handle recursive scripts. A callee which is stored together with the script counts as present.
+ * In strict mode a missing callee fails the linking of the script, otherwise it is only counted and fails the call as
+ * before.
+ *
+ * @author Walied K. Yassen
+ */
+public final class CallLinker implements ScriptLinker {
+
+    /**
+     * The executor map which we use to find the call instructions.
+     */
+    private final InstructionExecutorMap executorMap;
+
+    /**
+     * The cache which the callees are resolved from.
+     */
+    private final ScriptCache cache;
+
+    /**
+     * Whether or not a missing callee fails the linking of the script.
+     */
+    private final boolean strict;
+
+    /**
+     * The amount of call instructions whose callee was missing at link time.
+     */
+    private final LongAdder unresolved = new LongAdder();
+
+    /**
+     * Constructs a new {@link CallLinker} type object instance.
+     *
+     * @param executorMap the executor map which we use to find the call instructions.
+     * @param cache       the cache which the callees are resolved from.
+     * @param strict      whether or not a missing callee fails the linking of the script.
+     */
+    public CallLinker(InstructionExecutorMap executorMap, ScriptCache cache, boolean strict) {
+        this.executorMap = executorMap;
+        this.cache = cache;
+        this.strict = strict;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script link(Script script) throws ExecutionException {
+        return link(script, new LinkContext(cache, Set.of()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script link(Script script, LinkContext context) throws ExecutionException {
+        var instructions = script.getInstructions();
+        var operands = script.getIntOperands();
+        for (var address = 0; address < instructions.length; address++) {
+            var executor = executorMap.lookup(instructions[address]);
+            if (executor != CoreOps.GOSUB_WITH_PARAMS && executor != CoreOps.JUMP_WITH_PARAMS) {
+                continue;
+            }
+            if (context.contains(operands[address])) {
+                continue;
+            }
+            if (strict) {
+                throw new ExecutionException("Script " + script.getName() + " calls a missing script with id " + operands[address] + " at address " + address);
+            }
+            unresolved.increment();
+        }
+        return script;
+    }
+
+    /**
+     * Returns the amount of call instructions whose callee was missing at link time.
+     *
+     * @return the amount of call instructions.
+     */
+    public long getUnresolvedCount() {
+        return unresolved.sum();
+    }
+}
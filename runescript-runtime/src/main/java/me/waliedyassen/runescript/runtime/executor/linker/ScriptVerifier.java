@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.linker;
+
+import me.waliedyassen.runescript.runtime.cache.ScriptLinker;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.impl.ArrayOps;
+import me.waliedyassen.runescript.runtime.executor.impl.ConsoleOps;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.impl.MathOps;
+import me.waliedyassen.runescript.runtime.executor.impl.StringOps;
+import me.waliedyassen.runescript.runtime.executor.impl.UncheckedOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ScriptLinker} that statically verifies every script that enters the cache once, so the checks it proves
+ * do not have to be repeated every time an instruction executes.
+ * <p>
+ * Every instruction is checked for branch and switch targets within the script, local field indices within the local
+ * fields of the script, switch table indices that refer to an existing table and pool indices within the pools of the
+ * script. The depth of each operand stack is then tracked along every path of the script, failing the script on an
+ * underflow or when two paths meet with different depths. The depths are unknown after a gosub since the return
+ * values of the callee are not known, and the tracking is abandoned entirely at any instruction with no
+ * {@link #declare(InstructionExecutor, StackEffect) declared} stack effect. Scripts that fail any of the checks fail
+ * their linking.
+ * <p>
+ * The instruction sites whose checks were proven are rewritten to use {@link UncheckedOps}: the pops of the stack
+ * operations, local field stores, conditional branches, math and array operations whose stack depth was proven, the
+ * string joins whose string stack depth was proven and the switches whose table and int stack depth were proven. Other
+ * sites keep their checked executors. The verifier must be added to the cache before any {@link ScriptLinker} that
+ * introduces instructions it does not know of, such as the superinstruction fuser, which recognises the rewritten
+ * sites through {@link UncheckedOps#CHECKED}.
+ *
+ * @author Walied K. Yassen
+ */
+@SuppressWarnings("rawtypes")
+public final class ScriptVerifier implements ScriptLinker {
+
+    /**
+     * The depth of an address that no path reached yet.
+     */
+    private static final int UNVISITED = -2;
+
+    /**
+     * The depth of an address that is reached with a depth which cannot be determined.
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * The index of the int stack in the depths arrays.
+     */
+    private static final int INT = 0;
+
+    /**
+     * The index of the string stack in the depths arrays.
+     */
+    private static final int STRING = 1;
+
+    /**
+     * The index of the long stack in the depths arrays.
+     */
+    private static final int LONG = 2;
+
+    /**
+     * The names of the stacks, indexed by their index in the depths arrays.
+     */
+    private static final String[] STACK_NAMES = {"int", "string", "long"};
+
+    /**
+     * The executor map which we use to resolve the executors of the instructions.
+     */
+    private final InstructionExecutorMap executorMap;
+
+    /**
+     * The declared stack effects of the instruction executors.
+     */
+    private final Map<InstructionExecutor, StackEffect> effects = new IdentityHashMap<>();
+
+    /**
+     * The unchecked rewrites of the instruction executors, keyed by the checked executor.
+     */
+    private final Map<InstructionExecutor, Rewrite> rewrites = new IdentityHashMap<>();
+
+    /**
+     * The amount of scripts whose stack depths were tracked along all of their paths.
+     */
+    private final LongAdder verified = new LongAdder();
+
+    /**
+     * The amount of scripts whose stack depths could not be tracked along some of their paths.
+     */
+    private final LongAdder partiallyVerified = new LongAdder();
+
+    /**
+     * The amount of instruction sites that were rewritten to skip their checks.
+     */
+    private final LongAdder uncheckedSites = new LongAdder();
+
+    /**
+     * Constructs a new {@link ScriptVerifier} type object instance.
+     *
+     * @param executorMap the executor map to resolve the executors from and to register the unchecked executors into.
+     */
+    public ScriptVerifier(InstructionExecutorMap executorMap) {
+        this.executorMap = executorMap;
+        rewrite(CoreOps.POP_INT_DISCARD, UncheckedOps.POP_INT_DISCARD, INT, 1);
+        rewrite(CoreOps.POP_STRING_DISCARD, UncheckedOps.POP_STRING_DISCARD, STRING, 1);
+        rewrite(CoreOps.POP_LONG_DISCARD, UncheckedOps.POP_LONG_DISCARD, LONG, 1);
+        rewrite(CoreOps.POP_INT_LOCAL, UncheckedOps.POP_INT_LOCAL, INT, 1);
+        rewrite(CoreOps.POP_STRING_LOCAL, UncheckedOps.POP_STRING_LOCAL, STRING, 1);
+        rewrite(CoreOps.POP_LONG_LOCAL, UncheckedOps.POP_LONG_LOCAL, LONG, 1);
+        rewrite(CoreOps.BRANCH_NOT, UncheckedOps.BRANCH_NOT, INT, 2);
+        rewrite(CoreOps.BRANCH_EQUALS, UncheckedOps.BRANCH_EQUALS, INT, 2);
+        rewrite(CoreOps.BRANCH_LESS_THAN, UncheckedOps.BRANCH_LESS_THAN, INT, 2);
+        rewrite(CoreOps.BRANCH_GREATER_THAN, UncheckedOps.BRANCH_GREATER_THAN, INT, 2);
+        rewrite(CoreOps.BRANCH_LESS_THAN_OR_EQUALS, UncheckedOps.BRANCH_LESS_THAN_OR_EQUALS, INT, 2);
+        rewrite(CoreOps.BRANCH_GREATER_THAN_OR_EQUALS, UncheckedOps.BRANCH_GREATER_THAN_OR_EQUALS, INT, 2);
+        rewrite(MathOps.ADD, UncheckedOps.ADD, INT, 2);
+        rewrite(MathOps.SUB, UncheckedOps.SUB, INT, 2);
+        rewrite(MathOps.MUL, UncheckedOps.MUL, INT, 2);
+        rewrite(ArrayOps.PUSH_ARRAY_INT, UncheckedOps.PUSH_ARRAY_INT, INT, 1);
+        rewrite(ArrayOps.POP_ARRAY_INT, UncheckedOps.POP_ARRAY_INT, INT, 2);
+        rewrite(CoreOps.JOIN_STRING, UncheckedOps.JOIN_STRING, STRING, Rewrite.OPERAND_POPS);
+        rewrite(CoreOps.SWITCH, UncheckedOps.SWITCH, INT, 1);
+        declare(CoreOps.PUSH_CONSTANT_INT, StackEffect.ints(0, 1));
+        declare(CoreOps.PUSH_CONSTANT_STRING, StackEffect.strings(0, 1));
+        declare(CoreOps.PUSH_CONSTANT_LONG, StackEffect.longs(0, 1));
+        declare(CoreOps.POP_INT_DISCARD, StackEffect.ints(1, 0));
+        declare(CoreOps.POP_STRING_DISCARD, StackEffect.strings(1, 0));
+        declare(CoreOps.POP_LONG_DISCARD, StackEffect.longs(1, 0));
+        declare(CoreOps.PUSH_INT_LOCAL, StackEffect.ints(0, 1));
+        declare(CoreOps.POP_INT_LOCAL, StackEffect.ints(1, 0));
+        declare(CoreOps.PUSH_STRING_LOCAL, StackEffect.strings(0, 1));
+        declare(CoreOps.POP_STRING_LOCAL, StackEffect.strings(1, 0));
+        declare(CoreOps.PUSH_LONG_LOCAL, StackEffect.longs(0, 1));
+        declare(CoreOps.POP_LONG_LOCAL, StackEffect.longs(1, 0));
+        declare(MathOps.ADD, StackEffect.ints(2, 1));
+        declare(MathOps.SUB, StackEffect.ints(2, 1));
+        declare(MathOps.MUL, StackEffect.ints(2, 1));
+        declare(MathOps.DIV, StackEffect.ints(2, 1));
+        declare(MathOps.RANDOM, StackEffect.ints(1, 1));
+        declare(MathOps.RANDOMINC, StackEffect.ints(1, 1));
+        declare(MathOps.INTERPOLATE, StackEffect.ints(5, 1));
+        declare(StringOps.TOSTRING, new StackEffect(1, 0, 0, 0, 1, 0));
+        declare(ConsoleOps.WRITECONSOLE, StackEffect.strings(1, 0));
+        declare(ArrayOps.DEFINE_ARRAY, StackEffect.ints(1, 0));
+        declare(ArrayOps.PUSH_ARRAY_INT, StackEffect.ints(1, 1));
+        declare(ArrayOps.POP_ARRAY_INT, StackEffect.ints(2, 0));
+    }
+
+    /**
+     * Registers the specified unchecked executor into the executor map and rewrites the sites of the specified checked
+     * executor to it wherever the depth of its stack is proven.
+     *
+     * @param checked   the checked executor to rewrite.
+     * @param unchecked the unchecked executor to rewrite to.
+     * @param stack     the index of the stack which the executor pops from.
+     * @param pops      the amount of values the executor pops, or {@link Rewrite#OPERAND_POPS} if it pops as many as
+     *                  its operand.
+     */
+    private void rewrite(InstructionExecutor checked, InstructionExecutor unchecked, int stack, int pops) {
+        rewrites.put(checked, new Rewrite(executorMap.register(unchecked), stack, pops));
+    }
+
+    /**
+     * Declares the stack effect of the specified {@link InstructionExecutor}, the executor must not change the address
+     * of the runtime.
+     *
+     * @param executor the executor to declare the stack effect for.
+     * @param effect   the stack effect of the executor.
+     */
+    public void declare(InstructionExecutor executor, StackEffect effect) {
+        effects.put(executor, effect);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Script link(Script script) throws ExecutionException {
+        var instructions = script.getInstructions();
+        var executors = new InstructionExecutor[instructions.length];
+        for (var address = 0; address < instructions.length; address++) {
+            executors[address] = executorMap.lookup(instructions[address]);
+            checkOperand(script, executors[address], address);
+        }
+        var depths = trackDepths(script, executors);
+        if (depths != null && isComplete(depths)) {
+            verified.increment();
+        } else {
+            partiallyVerified.increment();
+        }
+        if (depths == null) {
+            return script;
+        }
+        var operands = script.getIntOperands();
+        int[] rewritten = null;
+        for (var address = 0; address < instructions.length; address++) {
+            var rewrite = rewrites.get(executors[address]);
+            if (rewrite == null) {
+                continue;
+            }
+            var pops = rewrite.pops == Rewrite.OPERAND_POPS ? operands[address] : rewrite.pops;
+            // unknown and unvisited depths are negative so they never prove the pops.
+            if (depths[rewrite.stack][address] < pops) {
+                continue;
+            }
+            if (rewritten == null) {
+                rewritten = instructions.clone();
+            }
+            rewritten[address] = rewrite.opcode;
+            uncheckedSites.increment();
+        }
+        return rewritten == null ? script : script.withInstructions(rewritten);
+    }
+
+    /**
+     * Checks the operand of the instruction at the specified address against the script.
+     *
+     * @param script   the script which the instruction is in.
+     * @param executor the executor of the instruction.
+     * @param address  the address of the instruction.
+     * @throws ExecutionException if the operand is not valid for the instruction.
+     */
+    private static void checkOperand(Script script, InstructionExecutor executor, int address) {
+        var operand = script.getIntOperands()[address];
+        if (executor == CoreOps.PUSH_INT_LOCAL || executor == CoreOps.POP_INT_LOCAL) {
+            checkIndex(script, address, operand, Math.max(script.getNumIntLocals(), script.getNumIntArguments()), "int local field");
+        } else if (executor == CoreOps.PUSH_STRING_LOCAL || executor == CoreOps.POP_STRING_LOCAL) {
+            checkIndex(script, address, operand, Math.max(script.getNumStringLocals(), script.getNumStringArguments()), "string local field");
+        } else if (executor == CoreOps.PUSH_LONG_LOCAL || executor == CoreOps.POP_LONG_LOCAL) {
+            checkIndex(script, address, operand, Math.max(script.getNumLongLocals(), script.getNumLongArguments()), "long local field");
+        } else if (executor == CoreOps.PUSH_CONSTANT_STRING) {
+            checkIndex(script, address, operand, script.getStringPool().length, "string constant");
+        } else if (executor == CoreOps.PUSH_CONSTANT_LONG) {
+            checkIndex(script, address, operand, script.getLongPool().length, "long constant");
+        } else if (executor == CoreOps.BRANCH || isConditionalBranch(executor)) {
+            checkTarget(script, address, address + operand + 1);
+        } else if (executor == CoreOps.SWITCH) {
+            checkIndex(script, address, operand, script.getSwitchTable().length, "switch table");
+            var switchTable = script.getSwitchTable()[operand];
+            if (switchTable == null) {
+                throw new ExecutionException("Script " + script.getName() + " refers to a missing switch table " + operand + " at address " + address);
+            }
+            for (var jump : switchTable.jumps()) {
+                checkTarget(script, address, address + jump + 1);
+            }
+        } else if (executor == CoreOps.JOIN_STRING && operand < 0) {
+            throw new ExecutionException("Script " + script.getName() + " joins a negative amount of strings at address " + address);
+        }
+    }
+
+    /**
+     * Checks that the specified index is within the range of zero inclusive to the specified bound exclusive.
+     *
+     * @param script  the script which the instruction is in.
+     * @param address the address of the instruction.
+     * @param index   the index to check.
+     * @param bound   the exclusive upper bound of the index.
+     * @param kind    the kind of the element which the index refers to.
+     * @throws ExecutionException if the index is out of range.
+     */
+    private static void checkIndex(Script script, int address, int index, int bound, String kind) {
+        if (index < 0 || index >= bound) {
+            throw new ExecutionException("Script " + script.getName() + " refers to an out of range " + kind + " " + index + " at address " + address);
+        }
+    }
+
+    /**
+     * Checks that the specified branch target is within the script, the address right after the last instruction is
+     * a valid target which completes the script.
+     *
+     * @param script  the script which the instruction is in.
+     * @param address the address of the instruction.
+     * @param target  the address which the instruction branches to.
+     * @throws ExecutionException if the target is out of range.
+     */
+    private static void checkTarget(Script script, int address, int target) {
+        if (target < 0 || target > script.getInstructions().length) {
+            throw new ExecutionException("Script " + script.getName() + " branches to an out of range address " + target + " at address " + address);
+        }
+    }
+
+    /**
+     * Tracks the depth of each of the operand stacks before every instruction of the specified script.
+     *
+     * @param script    the script to track the stack depths of.
+     * @param executors the executors of the instructions of the script.
+     * @return the depths indexed by the stack and then the address, or {@code null} if the script has an instruction
+     * with no declared stack effect.
+     * @throws ExecutionException if the stacks underflow or two paths meet with different stack depths.
+     */
+    private int[][] trackDepths(Script script, InstructionExecutor[] executors) {
+        var length = executors.length;
+        var depths = new int[3][length];
+        for (var stack : depths) {
+            Arrays.fill(stack, UNVISITED);
+        }
+        if (length == 0) {
+            return depths;
+        }
+        var operands = script.getIntOperands();
+        var flow = new Flow(script, depths);
+        var state = new int[3];
+        flow.merge(0, state);
+        while (flow.size > 0) {
+            var address = flow.pending[--flow.size];
+            flow.queued[address] = false;
+            for (var stack = 0; stack < state.length; stack++) {
+                state[stack] = depths[stack][address];
+            }
+            var executor = executors[address];
+            var operand = operands[address];
+            if (executor == CoreOps.RETURN || executor == CoreOps.JUMP_WITH_PARAMS) {
+                continue;
+            }
+            if (executor == CoreOps.BRANCH) {
+                flow.merge(address + operand + 1, state);
+                continue;
+            }
+            if (executor == CoreOps.GOSUB_WITH_PARAMS) {
+                Arrays.fill(state, UNKNOWN);
+            } else if (isConditionalBranch(executor)) {
+                flow.pop(address, state, INT, 2);
+                flow.merge(address + operand + 1, state);
+            } else if (executor == CoreOps.SWITCH) {
+                flow.pop(address, state, INT, 1);
+                for (var jump : script.getSwitchTable()[operand].jumps()) {
+                    flow.merge(address + jump + 1, state);
+                }
+            } else if (executor == CoreOps.JOIN_STRING) {
+                flow.pop(address, state, STRING, operand);
+                flow.push(state, STRING, 1);
+            } else {
+                var effect = effects.get(executor);
+                if (effect == null) {
+                    return null;
+                }
+                flow.pop(address, state, INT, effect.getIntPops());
+                flow.pop(address, state, STRING, effect.getStringPops());
+                flow.pop(address, state, LONG, effect.getLongPops());
+                flow.push(state, INT, effect.getIntPushes());
+                flow.push(state, STRING, effect.getStringPushes());
+                flow.push(state, LONG, effect.getLongPushes());
+            }
+            flow.merge(address + 1, state);
+        }
+        return depths;
+    }
+
+    /**
+     * Checks whether or not the stack depths are known at every reachable address.
+     *
+     * @param depths the tracked stack depths.
+     * @return <code>true</code> if they are otherwise <code>false</code>.
+     */
+    private static boolean isComplete(int[][] depths) {
+        for (var stack : depths) {
+            for (var depth : stack) {
+                if (depth == UNKNOWN) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether or not the specified executor is one of the conditional branch executors.
+     *
+     * @param executor the executor to check.
+     * @return <code>true</code> if it is otherwise <code>false</code>.
+     */
+    private static boolean isConditionalBranch(InstructionExecutor executor) {
+        return executor == CoreOps.BRANCH_NOT
+                || executor == CoreOps.BRANCH_EQUALS
+                || executor == CoreOps.BRANCH_LESS_THAN
+                || executor == CoreOps.BRANCH_GREATER_THAN
+                || executor == CoreOps.BRANCH_LESS_THAN_OR_EQUALS
+                || executor == CoreOps.BRANCH_GREATER_THAN_OR_EQUALS;
+    }
+
+    /**
+     * Returns the amount of scripts whose stack depths were tracked along all of their paths.
+     *
+     * @return the amount of scripts.
+     */
+    public long getVerifiedCount() {
+        return verified.sum();
+    }
+
+    /**
+     * Returns the amount of scripts whose stack depths could not be tracked along some of their paths, either because
+     * of a gosub or an instruction with no declared stack effect.
+     *
+     * @return the amount of scripts.
+     */
+    public long getPartiallyVerifiedCount() {
+        return partiallyVerified.sum();
+    }
+
+    /**
+     * Returns the amount of instruction sites that were rewritten to skip their checks.
+     *
+     * @return the amount of instruction sites.
+     */
+    public long getUncheckedSiteCount() {
+        return uncheckedSites.sum();
+    }
+
+    /**
+     * An unchecked rewrite of a checked instruction executor.
+     */
+    private static final class Rewrite {
+
+        /**
+         * The amount of pops of an executor which pops as many values as its operand.
+         */
+        static final int OPERAND_POPS = -1;
+
+        /**
+         * The opcode which the unchecked executor was registered for.
+         */
+        private final int opcode;
+
+        /**
+         * The index of the stack which the executor pops from.
+         */
+        private final int stack;
+
+        /**
+         * The amount of values the executor pops, or {@link #OPERAND_POPS}.
+         */
+        private final int pops;
+
+        /**
+         * Constructs a new {@link Rewrite} type object instance.
+         *
+         * @param opcode the opcode which the unchecked executor was registered for.
+         * @param stack  the index of the stack which the executor pops from.
+         * @param pops   the amount of values the executor pops, or {@link #OPERAND_POPS}.
+         */
+        Rewrite(int opcode, int stack, int pops) {
+            this.opcode = opcode;
+            this.stack = stack;
+            this.pops = pops;
+        }
+    }
+
+    /**
+     * The work list of the stack depths tracking of a single script.
+     */
+    private static final class Flow {
+
+        /**
+         * The script which the depths are tracked for.
+         */
+        private final Script script;
+
+        /**
+         * The tracked stack depths, indexed by the stack and then the address.
+         */
+        private final int[][] depths;
+
+        /**
+         * The addresses whose depths changed and which are waiting to be visited again.
+         */
+        private final int[] pending;
+
+        /**
+         * Whether or not each address is currently in {@link #pending}.
+         */
+        private final boolean[] queued;
+
+        /**
+         * The amount of addresses in {@link #pending}.
+         */
+        private int size;
+
+        /**
+         * Constructs a new {@link Flow} type object instance.
+         *
+         * @param script the script which the depths are tracked for.
+         * @param depths the tracked stack depths.
+         */
+        Flow(Script script, int[][] depths) {
+            this.script = script;
+            this.depths = depths;
+            pending = new int[depths[0].length];
+            queued = new boolean[depths[0].length];
+        }
+
+        /**
+         * Pops the specified amount of values from the specified stack of the state.
+         *
+         * @param address the address of the instruction which pops the values.
+         * @param state   the stack depths state.
+         * @param stack   the index of the stack.
+         * @param count   the amount of values to pop.
+         * @throws ExecutionException if the stack has less values than the amount.
+         */
+        void pop(int address, int[] state, int stack, int count) {
+            if (state[stack] == UNKNOWN) {
+                return;
+            }
+            if (state[stack] < count) {
+                throw new ExecutionException("Script " + script.getName() + " pops " + count + " values from the " + STACK_NAMES[stack] + " stack holding " + state[stack] + " at address " + address);
+            }
+            state[stack] -= count;
+        }
+
+        /**
+         * Pushes the specified amount of values to the specified stack of the state.
+         *
+         * @param state the stack depths state.
+         * @param stack the index of the stack.
+         * @param count the amount of values to push.
+         */
+        void push(int[] state, int stack, int count) {
+            if (state[stack] != UNKNOWN) {
+                state[stack] += count;
+            }
+        }
+
+        /**
+         * Merges the specified state into the depths of the specified target address, queuing the address to be
+         * visited again if its depths changed.
+         *
+         * @param target the address which the state flows into.
+         * @param state  the stack depths state.
+         * @throws ExecutionException if the address was reached before with different known depths.
+         */
+        void merge(int target, int[] state) {
+            if (target >= depths[0].length) {
+                return;
+            }
+            var changed = false;
+            for (var stack = 0; stack < state.length; stack++) {
+                var current = depths[stack][target];
+                if (current == state[stack] || current == UNKNOWN) {
+                    continue;
+                }
+                if (current != UNVISITED && state[stack] != UNKNOWN) {
+                    throw new ExecutionException("Script " + script.getName() + " reaches address " + target + " with " + STACK_NAMES[stack] + " stack depths " + current + " and " + state[stack]);
+                }
+                depths[stack][target] = state[stack];
+                changed = true;
+            }
+            if (changed && !queued[target]) {
+                queued[target] = true;
+                pending[size++] = target;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.linker;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The fixed amount of values an instruction pops from and pushes to each of the operand stacks, the pops are always
+ * performed before the pushes.
+ *
+ * @author Walied K. Yassen
+ */
+@RequiredArgsConstructor
+public final class StackEffect {
+
+    /**
+     * The effect of an instruction that does not touch any of the stacks.
+     */
+    public static final StackEffect NONE = new StackEffect(0, 0, 0, 0, 0, 0);
+
+    /**
+     * The amount of values popped from the int stack.
+     */
+    @Getter
+    private final int intPops;
+
+    /**
+     * The amount of values popped from the string stack.
+     */
+    @Getter
+    private final int stringPops;
+
+    /**
+     * The amount of values popped from the long stack.
+     */
+    @Getter
+    private final int longPops;
+
+    /**
+     * The amount of values pushed to the int stack.
+     */
+    @Getter
+    private final int intPushes;
+
+    /**
+     * The amount of values pushed to the string stack.
+     */
+    @Getter
+    private final int stringPushes;
+
+    /**
+     * The amount of values pushed to the long stack.
+     */
+    @Getter
+    private final int longPushes;
+
+    /**
+     * Creates a {@link StackEffect} that only touches the int stack.
+     *
+     * @param pops   the amount of values popped from the int stack.
+     * @param pushes the amount of values pushed to the int stack.
+     * @return the created {@link StackEffect} object.
+     */
+    public static StackEffect ints(int pops, int pushes) {
+        return new StackEffect(pops, 0, 0, pushes, 0, 0);
+    }
+
+    /**
+     * Creates a {@link StackEffect} that only touches the string stack.
+     *
+     * @param pops   the amount of values popped from the string stack.
+     * @param pushes the amount of values pushed to the string stack.
+     * @return the created {@link StackEffect} object.
+     */
+    public static StackEffect strings(int pops, int pushes) {
+        return new StackEffect(0, pops, 0, 0, pushes, 0);
+    }
+
+    /**
+     * Creates a {@link StackEffect} that only touches the long stack.
+     *
+     * @param pops   the amount of values popped from the long stack.
+     * @param pushes the amount of values pushed to the long stack.
+     * @return the created {@link StackEffect} object.
+     */
+    public static StackEffect longs(int pops, int pushes) {
+        return new StackEffect(0, 0, pops, 0, 0, pushes);
+    }
+}
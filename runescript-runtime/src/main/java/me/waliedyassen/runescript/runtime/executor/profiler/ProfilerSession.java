@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.profiler;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.util.Arrays;
+
+/**
+ * Records a single profiled execution of a {@link ScriptRuntime}, a session is owned by the thread which is executing
+ * the runtime and must not be shared between threads.
+ * <p>
+ * The session mirrors the call stack of the runtime, and accumulates the counters of the innermost script locally
+ * until the call stack changes, at which point they are flushed into the {@link ScriptProfiler}. The counters of the
+ * opcodes are accumulated locally for the whole session and only flushed once it ends.
+ *
+ * @author Walied K. Yassen
+ */
+public final class ProfilerSession {
+
+    /**
+     * The profiler which the session records into.
+     */
+    private final ScriptProfiler profiler;
+
+    /**
+     * The scripts of the mirrored call stack, from the outermost to the innermost.
+     */
+    private Script[] scripts = new Script[8];
+
+    /**
+     * The profiles of the mirrored call stack scripts.
+     */
+    private ScriptProfile[] profiles = new ScriptProfile[8];
+
+    /**
+     * The times at which each script of the mirrored call stack was entered.
+     */
+    private long[] entries = new long[8];
+
+    /**
+     * The amount of frames below the innermost script of the mirrored call stack.
+     */
+    private int depth;
+
+    /**
+     * The collapsed form of the mirrored call stack.
+     */
+    private String stack;
+
+    /**
+     * The amount of instructions executed in the innermost script that were not flushed yet.
+     */
+    private long pendingInstructions;
+
+    /**
+     * The time spent in the innermost script that was not flushed yet.
+     */
+    private long pendingNanos;
+
+    /**
+     * The counter indices of the opcodes that were executed in the session, offset by one so that zero marks an empty
+     * slot of the open addressing table.
+     */
+    private int[] opcodeKeys = new int[32];
+
+    /**
+     * The amount of times each opcode in {@link #opcodeKeys} was executed.
+     */
+    private long[] opcodeCounts = new long[32];
+
+    /**
+     * The estimated time spent executing each opcode in {@link #opcodeKeys}.
+     */
+    private long[] opcodeNanos = new long[32];
+
+    /**
+     * The amount of opcodes in {@link #opcodeKeys}.
+     */
+    private int opcodeSize;
+
+    /**
+     * Constructs a new {@link ProfilerSession} type object instance.
+     *
+     * @param profiler the profiler which the session records into.
+     * @param runtime  the runtime which is being profiled.
+     * @param now      the time at which the execution begins.
+     */
+    ProfilerSession(ScriptProfiler profiler, ScriptRuntime runtime, long now) {
+        this.profiler = profiler;
+        depth = -1;
+        for (var iterator = runtime.getFrames().descendingIterator(); iterator.hasNext(); ) {
+            open(iterator.next().getScript(), now, false);
+        }
+        open(runtime.getScript(), now, runtime.getAddress() <= 0);
+        stack = collapse();
+    }
+
+    /**
+     * Records the execution of a single instruction in the innermost script.
+     *
+     * @param opcode the opcode of the instruction.
+     * @param nanos  the estimated time spent executing the instruction, {@code 0} if the instruction was not timed.
+     */
+    public void record(int opcode, long nanos) {
+        var slot = slotOf(ScriptProfiler.counterOf(opcode));
+        opcodeCounts[slot]++;
+        opcodeNanos[slot] += nanos;
+        pendingInstructions++;
+        pendingNanos += nanos;
+    }
+
+    /**
+     * Returns the slot of the specified opcode counter in the open addressing table, inserting it if it was not
+     * present.
+     *
+     * @param counter the counter index of the opcode.
+     * @return the slot of the opcode.
+     */
+    private int slotOf(int counter) {
+        var key = counter + 1;
+        var mask = opcodeKeys.length - 1;
+        var slot = (key * 0x9e3779b9) >>> 16 & mask;
+        while (true) {
+            var current = opcodeKeys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == 0) {
+                break;
+            }
+            slot = slot + 1 & mask;
+        }
+        if ((opcodeSize + 1) * 2 > opcodeKeys.length) {
+            growOpcodes();
+            return slotOf(counter);
+        }
+        opcodeKeys[slot] = key;
+        opcodeSize++;
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the opcodes open addressing table.
+     */
+    private void growOpcodes() {
+        var keys = opcodeKeys;
+        var counts = opcodeCounts;
+        var nanos = opcodeNanos;
+        opcodeKeys = new int[keys.length << 1];
+        opcodeCounts = new long[keys.length << 1];
+        opcodeNanos = new long[keys.length << 1];
+        opcodeSize = 0;
+        for (var index = 0; index < keys.length; index++) {
+            if (keys[index] != 0) {
+                var slot = slotOf(keys[index] - 1);
+                opcodeCounts[slot] = counts[index];
+                opcodeNanos[slot] = nanos[index];
+            }
+        }
+    }
+
+    /**
+     * Checks whether or not the call stack of the specified {@link ScriptRuntime runtime} no longer matches the
+     * mirrored call stack, in which case {@link #update(ScriptRuntime, long)} must be called.
+     *
+     * @param runtime the runtime which is being profiled.
+     * @return <code>true</code> if it changed otherwise <code>false</code>.
+     */
+    public boolean isStale(ScriptRuntime runtime) {
+        return runtime.getScript() != scripts[depth] || runtime.getFrames().size() != depth;
+    }
+
+    /**
+     * Updates the mirrored call stack to match the call stack of the specified {@link ScriptRuntime runtime}, closing
+     * the scripts that were returned from and opening the scripts that were entered.
+     *
+     * @param runtime the runtime which is being profiled.
+     * @param now     the current {@link System#nanoTime() time}.
+     */
+    public void update(ScriptRuntime runtime, long now) {
+        flush();
+        var frames = runtime.getFrames();
+        var current = new Script[frames.size() + 1];
+        var index = 0;
+        for (var iterator = frames.descendingIterator(); iterator.hasNext(); ) {
+            current[index++] = iterator.next().getScript();
+        }
+        current[index] = runtime.getScript();
+        var common = 0;
+        while (common <= depth && common < current.length && scripts[common] == current[common]) {
+            common++;
+        }
+        var caller = depth;
+        closeAbove(common, now);
+        if (common == caller + 1) {
+            profiles[caller].recordGosub();
+        }
+        for (var position = common; position < current.length; position++) {
+            open(current[position], now, true);
+        }
+        stack = collapse();
+    }
+
+    /**
+     * Ends the session, flushing all of the pending counters into the profiler.
+     *
+     * @param now the current {@link System#nanoTime() time}.
+     */
+    public void end(long now) {
+        flush();
+        closeAbove(0, now);
+        for (var index = 0; index < opcodeKeys.length; index++) {
+            if (opcodeKeys[index] != 0) {
+                profiler.recordOpcode(opcodeKeys[index] - 1, opcodeCounts[index], opcodeNanos[index]);
+            }
+        }
+    }
+
+    /**
+     * Pushes the specified {@link Script} onto the mirrored call stack.
+     *
+     * @param script  the script to push.
+     * @param now     the time at which the script was entered.
+     * @param invoked whether or not the script was invoked rather than resumed.
+     */
+    private void open(Script script, long now, boolean invoked) {
+        depth++;
+        if (depth == scripts.length) {
+            var capacity = depth << 1;
+            scripts = Arrays.copyOf(scripts, capacity);
+            profiles = Arrays.copyOf(profiles, capacity);
+            entries = Arrays.copyOf(entries, capacity);
+        }
+        var profile = profiler.profile(script);
+        if (invoked) {
+            profile.recordInvocation();
+        }
+        scripts[depth] = script;
+        profiles[depth] = profile;
+        entries[depth] = now;
+    }
+
+    /**
+     * Pops all of the scripts at or above the specified position from the mirrored call stack, recording their
+     * inclusive time. Recursive scripts only record the time of their outermost occurrence.
+     *
+     * @param position the position of the first script to pop.
+     * @param now      the current time.
+     */
+    private void closeAbove(int position, long now) {
+        for (; depth >= position; depth--) {
+            if (!isRecursive(depth)) {
+                profiles[depth].recordInclusive(now - entries[depth]);
+            }
+            scripts[depth] = null;
+            profiles[depth] = null;
+        }
+    }
+
+    /**
+     * Checks whether or not the script at the specified position also appears below it in the mirrored call stack.
+     *
+     * @param position the position of the script.
+     * @return <code>true</code> if it does otherwise <code>false</code>.
+     */
+    private boolean isRecursive(int position) {
+        var script = scripts[position];
+        for (var index = 0; index < position; index++) {
+            if (scripts[index] == script) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Flushes the pending counters of the innermost script into the profiler.
+     */
+    private void flush() {
+        if (pendingInstructions == 0) {
+            return;
+        }
+        profiles[depth].recordInstructions(pendingInstructions, pendingNanos);
+        profiler.recordStack(stack, pendingNanos);
+        pendingInstructions = 0;
+        pendingNanos = 0;
+    }
+
+    /**
+     * Builds the collapsed form of the mirrored call stack.
+     *
+     * @return the collapsed call stack.
+     */
+    private String collapse() {
+        var builder = new StringBuilder();
+        for (var index = 0; index <= depth; index++) {
+            if (index != 0) {
+                builder.append(';');
+            }
+            builder.append(scripts[index].getName());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.profiler;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The profiling counters of a single script, keyed by the name of the script.
+ *
+ * @author Walied K. Yassen
+ */
+@RequiredArgsConstructor
+public final class ScriptProfile {
+
+    /**
+     * Orders the profiles by their inclusive time, from highest to lowest.
+     */
+    public static final Comparator<ScriptProfile> BY_INCLUSIVE_TIME = Comparator.comparingLong(ScriptProfile::getInclusiveNanos).reversed();
+
+    /**
+     * Orders the profiles by their exclusive time, from highest to lowest.
+     */
+    public static final Comparator<ScriptProfile> BY_EXCLUSIVE_TIME = Comparator.comparingLong(ScriptProfile::getExclusiveNanos).reversed();
+
+    /**
+     * Orders the profiles by the amount of times they were invoked, from highest to lowest.
+     */
+    public static final Comparator<ScriptProfile> BY_INVOCATIONS = Comparator.comparingLong(ScriptProfile::getInvocations).reversed();
+
+    /**
+     * Orders the profiles by the amount of instructions they executed, from highest to lowest.
+     */
+    public static final Comparator<ScriptProfile> BY_INSTRUCTIONS = Comparator.comparingLong(ScriptProfile::getInstructions).reversed();
+
+    /**
+     * The name of the script.
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * The amount of times the script was entered.
+     */
+    private final LongAdder invocations = new LongAdder();
+
+    /**
+     * The amount of instructions that were executed within the script.
+     */
+    private final LongAdder instructions = new LongAdder();
+
+    /**
+     * The amount of gosub calls that were made from within the script.
+     */
+    private final LongAdder gosubCalls = new LongAdder();
+
+    /**
+     * The time spent within the script including the scripts it called, in nanoseconds.
+     */
+    private final LongAdder inclusiveNanos = new LongAdder();
+
+    /**
+     * The time spent executing the instructions of the script, in nanoseconds.
+     */
+    private final LongAdder exclusiveNanos = new LongAdder();
+
+    /**
+     * Records an entry into the script.
+     */
+    void recordInvocation() {
+        invocations.increment();
+    }
+
+    /**
+     * Records a gosub call from within the script.
+     */
+    void recordGosub() {
+        gosubCalls.increment();
+    }
+
+    /**
+     * Records the execution of some instructions of the script.
+     *
+     * @param count the amount of instructions that were executed.
+     * @param nanos the time spent executing the instructions.
+     */
+    void recordInstructions(long count, long nanos) {
+        instructions.add(count);
+        exclusiveNanos.add(nanos);
+    }
+
+    /**
+     * Records time spent within the script including the scripts it called.
+     *
+     * @param nanos the time that was spent.
+     */
+    void recordInclusive(long nanos) {
+        inclusiveNanos.add(nanos);
+    }
+
+    /**
+     * Clears all the counters of the profile.
+     */
+    void reset() {
+        invocations.reset();
+        instructions.reset();
+        gosubCalls.reset();
+        inclusiveNanos.reset();
+        exclusiveNanos.reset();
+    }
+
+    /**
+     * Returns the amount of times the script was entered.
+     *
+     * @return the amount of times.
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * Returns the amount of instructions that were executed within the script.
+     *
+     * @return the amount of instructions.
+     */
+    public long getInstructions() {
+        return instructions.sum();
+    }
+
+    /**
+     * Returns the amount of gosub calls that were made from within the script.
+     *
+     * @return the amount of gosub calls.
+     */
+    public long getGosubCalls() {
+        return gosubCalls.sum();
+    }
+
+    /**
+     * Returns the time spent within the script including the scripts it called.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getInclusiveNanos() {
+        return inclusiveNanos.sum();
+    }
+
+    /**
+     * Returns the time spent executing the instructions of the script.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getExclusiveNanos() {
+        return exclusiveNanos.sum();
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.profiler;
+
+import lombok.Getter;
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An execution profiler that records per opcode and per script counters for the executions it samples.
+ * <p>
+ * Only one of every {@link #getSampleInterval() sample interval} executions is profiled, the remaining executions are
+ * not affected by the profiler at all, which makes it cheap enough to leave enabled in production with a large enough
+ * interval. The profiled executions are always interpreted, even when a compilation tier is present, so each of their
+ * instructions is visible to the profiler.
+ * <p>
+ * Every instruction of a profiled execution is counted, but only one of every {@link #getTimingInterval() timing
+ * interval} instructions is timed, and its time is scaled by the interval, so the times of the opcodes and the scripts
+ * are estimates. Opcodes which do not fit in a {@link InstructionExecutorMap#freeze() frozen} map share one counter.
+ *
+ * @author Walied K. Yassen
+ */
+public final class ScriptProfiler {
+
+    /**
+     * The amount of opcodes that the profiler has their own counters for.
+     */
+    static final int MAX_OPCODES = InstructionExecutorMap.MAX_FROZEN_OPCODE + 1;
+
+    /**
+     * The index of the counter which is shared by all the opcodes that do not have their own counter.
+     */
+    static final int OTHER_OPCODES = MAX_OPCODES;
+
+    /**
+     * The default value of the {@link #timingInterval}.
+     */
+    public static final int DEFAULT_TIMING_INTERVAL = 16;
+
+    /**
+     * One of how many executions is profiled.
+     */
+    @Getter
+    private final int sampleInterval;
+
+    /**
+     * One of how many instructions of a profiled execution is timed.
+     */
+    @Getter
+    private final int timingInterval;
+
+    /**
+     * The amount of times each opcode was executed, indexed by the opcode.
+     */
+    private final AtomicLongArray opcodeCounts = new AtomicLongArray(MAX_OPCODES + 1);
+
+    /**
+     * The time spent executing each opcode in nanoseconds, indexed by the opcode.
+     */
+    private final AtomicLongArray opcodeNanos = new AtomicLongArray(MAX_OPCODES + 1);
+
+    /**
+     * The profiles of the scripts, keyed by the name of the script.
+     */
+    private final Map<String, ScriptProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * The exclusive time spent in each call stack, keyed by the collapsed call stack.
+     */
+    private final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of executions that were profiled.
+     */
+    private final LongAdder sampled = new LongAdder();
+
+    /**
+     * Constructs a new {@link ScriptProfiler} type object instance which times one of every {@link
+     * #DEFAULT_TIMING_INTERVAL} instructions.
+     *
+     * @param sampleInterval one of how many executions to profile, {@code 1} profiles every execution.
+     */
+    public ScriptProfiler(int sampleInterval) {
+        this(sampleInterval, DEFAULT_TIMING_INTERVAL);
+    }
+
+    /**
+     * Constructs a new {@link ScriptProfiler} type object instance.
+     *
+     * @param sampleInterval one of how many executions to profile, {@code 1} profiles every execution.
+     * @param timingInterval one of how many instructions of a profiled execution to time, {@code 1} times every
+     *                       instruction.
+     */
+    public ScriptProfiler(int sampleInterval, int timingInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("The sample interval must be positive: " + sampleInterval);
+        }
+        if (timingInterval < 1) {
+            throw new IllegalArgumentException("The timing interval must be positive: " + timingInterval);
+        }
+        this.sampleInterval = sampleInterval;
+        this.timingInterval = timingInterval;
+    }
+
+    /**
+     * Checks whether or not the next execution should be profiled.
+     *
+     * @return <code>true</code> if it should be profiled otherwise <code>false</code>.
+     */
+    public boolean sample() {
+        return sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    /**
+     * Begins profiling an execution of the specified {@link ScriptRuntime runtime}.
+     *
+     * @param runtime the runtime which is about to execute.
+     * @param now     the current {@link System#nanoTime() time}.
+     * @return the session which records the execution.
+     */
+    public ProfilerSession begin(ScriptRuntime runtime, long now) {
+        sampled.increment();
+        return new ProfilerSession(this, runtime, now);
+    }
+
+    /**
+     * Records the executions of an opcode which were accumulated by a session.
+     *
+     * @param counter the counter of the opcode, as returned by {@link #counterOf(int)}.
+     * @param count   the amount of times the opcode was executed.
+     * @param nanos   the estimated time spent executing the opcode.
+     */
+    void recordOpcode(int counter, long count, long nanos) {
+        opcodeCounts.getAndAdd(counter, count);
+        opcodeNanos.getAndAdd(counter, nanos);
+    }
+
+    /**
+     * Returns the index of the counter of the specified opcode, opcodes which do not fit in a frozen map all share the
+     * {@link #OTHER_OPCODES} counter.
+     *
+     * @param opcode the opcode to get the counter for.
+     * @return the index of the counter.
+     */
+    static int counterOf(int opcode) {
+        return opcode >= 0 && opcode < MAX_OPCODES ? opcode : OTHER_OPCODES;
+    }
+
+    /**
+     * Records exclusive time spent in the specified collapsed call stack.
+     *
+     * @param stack the collapsed call stack.
+     * @param nanos the time that was spent.
+     */
+    void recordStack(String stack, long nanos) {
+        stacks.computeIfAbsent(stack, key -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * Returns the {@link ScriptProfile} of the specified {@link Script}, creating it if it was not present.
+     *
+     * @param script the script to get the profile for.
+     * @return the profile of the script.
+     */
+    ScriptProfile profile(Script script) {
+        return profiles.computeIfAbsent(script.getName(), ScriptProfile::new);
+    }
+
+    /**
+     * Returns the amount of times the specified opcode was executed, opcodes which do not fit in a frozen map return
+     * their shared count.
+     *
+     * @param opcode the opcode to get the count for.
+     * @return the amount of times.
+     */
+    public long getOpcodeCount(int opcode) {
+        return opcodeCounts.get(counterOf(opcode));
+    }
+
+    /**
+     * Returns the estimated time spent executing the specified opcode, opcodes which do not fit in a frozen map return
+     * their shared time.
+     *
+     * @param opcode the opcode to get the time for.
+     * @return the time in nanoseconds.
+     */
+    public long getOpcodeNanos(int opcode) {
+        return opcodeNanos.get(counterOf(opcode));
+    }
+
+    /**
+     * Returns the amount of executions that were profiled.
+     *
+     * @return the amount of executions.
+     */
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    /**
+     * Returns the {@link ScriptProfile} of the script with the specified name.
+     *
+     * @param name the name of the script.
+     * @return the profile of the script or {@code null} if the script was never profiled.
+     */
+    public ScriptProfile getProfile(String name) {
+        return profiles.get(name);
+    }
+
+    /**
+     * Returns the profiles of all the scripts that were profiled, sorted by the specified {@link Comparator}.
+     *
+     * @param order the order of the profiles, such as {@link ScriptProfile#BY_EXCLUSIVE_TIME}.
+     * @return the sorted list of profiles.
+     */
+    public List<ScriptProfile> getProfiles(Comparator<ScriptProfile> order) {
+        var list = new ArrayList<>(profiles.values());
+        list.sort(order);
+        return list;
+    }
+
+    /**
+     * Builds a human-readable report of the script profiles sorted by the specified {@link Comparator}, followed by the
+     * opcodes sorted by their time.
+     *
+     * @param order the order of the script profiles.
+     * @return the report text.
+     */
+    public String report(Comparator<ScriptProfile> order) {
+        var builder = new StringBuilder();
+        builder.append("Sampled executions: ").append(getSampledCount()).append('\n');
+        builder.append(String.format("%-40s %12s %14s %14s %14s %10s%n", "script", "invocations", "instructions", "inclusive(us)", "exclusive(us)", "gosubs"));
+        for (var profile : getProfiles(order)) {
+            builder.append(String.format("%-40s %12d %14d %14d %14d %10d%n",
+                    profile.getName(),
+                    profile.getInvocations(),
+                    profile.getInstructions(),
+                    profile.getInclusiveNanos() / 1000,
+                    profile.getExclusiveNanos() / 1000,
+                    profile.getGosubCalls()));
+        }
+        var opcodes = new ArrayList<Integer>();
+        for (var opcode = 0; opcode <= OTHER_OPCODES; opcode++) {
+            if (opcodeCounts.get(opcode) != 0) {
+                opcodes.add(opcode);
+            }
+        }
+        opcodes.sort(Comparator.comparingLong(opcodeNanos::get).reversed());
+        builder.append(String.format("%-10s %14s %14s%n", "opcode", "count", "time(us)"));
+        for (var opcode : opcodes) {
+            var name = opcode == OTHER_OPCODES ? "other" : String.valueOf(opcode);
+            builder.append(String.format("%-10s %14d %14d%n", name, opcodeCounts.get(opcode), opcodeNanos.get(opcode) / 1000));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Builds the collapsed call stacks text of the profiled executions, where each line contains the names of the
+     * scripts from the outermost to the innermost separated by {@code ;} followed by the exclusive time spent in that
+     * call stack in nanoseconds, suitable as an input for flame graph tools.
+     *
+     * @return the collapsed call stacks text.
+     */
+    public String collapsedStacks() {
+        var sorted = new TreeMap<String, Long>();
+        stacks.forEach((stack, nanos) -> sorted.put(stack, nanos.sum()));
+        var builder = new StringBuilder();
+        sorted.forEach((stack, nanos) -> builder.append(stack).append(' ').append(nanos).append('\n'));
+        return builder.toString();
+    }
+
+    /**
+     * Clears all the counters of the profiler.
+     */
+    public void reset() {
+        for (var opcode = 0; opcode <= OTHER_OPCODES; opcode++) {
+            opcodeCounts.set(opcode, 0);
+            opcodeNanos.set(opcode, 0);
+        }
+        profiles.values().forEach(ScriptProfile::reset);
+        stacks.clear();
+        sampled.reset();
+    }
+}
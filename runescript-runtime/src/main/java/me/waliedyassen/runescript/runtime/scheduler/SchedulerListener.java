@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.scheduler;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+
+/**
+ * A listener that is notified about the outcome of the runtimes which a {@link ScriptScheduler} resumes. The listener
+ * may be called from the threads of the resumption {@link java.util.concurrent.Executor} of the scheduler.
+ *
+ * @param <R> the type of the runtime.
+ * @author Walied K. Yassen
+ */
+public interface SchedulerListener<R extends ScriptRuntime> {
+
+    /**
+     * Called when a resumed runtime was aborted again by one of its instructions, the listener is responsible for
+     * parking the runtime again or closing it.
+     *
+     * @param scheduler the scheduler which resumed the runtime.
+     * @param runtime   the runtime which was aborted.
+     */
+    void suspended(ScriptScheduler<R> scheduler, R runtime);
+
+    /**
+     * Called when a resumed runtime failed, the runtime is closed after the listener returns.
+     *
+     * @param runtime   the runtime which failed.
+     * @param exception the failure of the runtime.
+     */
+    default void failed(R runtime, ExecutionException exception) {
+        // NOOP
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.scheduler;
+
+import lombok.Getter;
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.ScriptExecutor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parks suspended runtimes until their wake-up condition is met and then resumes them in batches on each
+ * {@link #tick() tick}.
+ * <p>
+ * A runtime can wait for an amount of ticks, for an external signal, or for an external signal with a timeout. The
+ * timed runtimes are kept in a hashed timer wheel so that each tick only visits the runtimes of a single wheel slot,
+ * the signalled runtimes are queued and resumed on the next tick along with the runtimes whose time came.
+ * <p>
+ * Runtimes which were suspended because they exceeded their {@link me.waliedyassen.runescript.runtime.executor.ExecutionBudget
+ * budget} are parked for the next tick automatically, every other suspension is passed to the
+ * {@link SchedulerListener}. The resumptions of a tick run on the calling thread unless an {@link Executor} is
+ * specified, in which case every runtime is resumed as a separate task of that executor, which suits a virtual thread
+ * per task executor on runtimes that support it.
+ *
+ * @param <R> the type of the runtime.
+ * @author Walied K. Yassen
+ */
+public final class ScriptScheduler<R extends ScriptRuntime> {
+
+    /**
+     * The default amount of slots in the timer wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * The executor which resumes the runtimes.
+     */
+    private final ScriptExecutor<R> executor;
+
+    /**
+     * The listener which is notified about the resumed runtimes.
+     */
+    private final SchedulerListener<R> listener;
+
+    /**
+     * The executor which runs the resumptions, or {@code null} to run them on the thread that calls {@link #tick()}.
+     */
+    private final Executor resumeExecutor;
+
+    /**
+     * The slots of the timer wheel, each slot holds the timed runtimes whose wake-up tick maps to it.
+     */
+    private final List<Parked>[] wheel;
+
+    /**
+     * The mask which maps a tick to its slot in the timer wheel.
+     */
+    private final int wheelMask;
+
+    /**
+     * The runtimes which are waiting for a signal, keyed by the signal.
+     */
+    private final Map<Object, List<Parked>> waiting = new HashMap<>();
+
+    /**
+     * The runtimes which were signalled and are resumed on the next tick.
+     */
+    private final ArrayDeque<Parked> ready = new ArrayDeque<>();
+
+    /**
+     * The current tick of the scheduler.
+     */
+    @Getter
+    private long currentTick;
+
+    /**
+     * The amount of runtimes that are currently parked.
+     */
+    private int size;
+
+    /**
+     * The amount of runtimes that were resumed.
+     */
+    private final LongAdder resumed = new LongAdder();
+
+    /**
+     * The amount of resumed runtimes that completed.
+     */
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * The amount of resumed runtimes that failed.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * The amount of runtimes that woke up because they timed out while waiting for a signal.
+     */
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Constructs a new {@link ScriptScheduler} type object instance which resumes the runtimes on the thread that calls
+     * {@link #tick()}.
+     *
+     * @param executor the executor which resumes the runtimes.
+     * @param listener the listener which is notified about the resumed runtimes.
+     */
+    public ScriptScheduler(ScriptExecutor<R> executor, SchedulerListener<R> listener) {
+        this(executor, listener, DEFAULT_WHEEL_SIZE, null);
+    }
+
+    /**
+     * Constructs a new {@link ScriptScheduler} type object instance.
+     *
+     * @param executor       the executor which resumes the runtimes.
+     * @param listener       the listener which is notified about the resumed runtimes.
+     * @param wheelSize      the amount of slots in the timer wheel, rounded up to a power of two.
+     * @param resumeExecutor the executor which runs the resumptions, or {@code null} to run them on the thread that
+     *                       calls {@link #tick()}.
+     */
+    @SuppressWarnings("unchecked")
+    public ScriptScheduler(ScriptExecutor<R> executor, SchedulerListener<R> listener, int wheelSize, Executor resumeExecutor) {
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("The wheel size must be positive: " + wheelSize);
+        }
+        this.executor = executor;
+        this.listener = listener;
+        this.resumeExecutor = resumeExecutor;
+        var slots = Integer.highestOneBit(wheelSize);
+        if (slots < wheelSize) {
+            slots <<= 1;
+        }
+        wheel = new List[slots];
+        for (var index = 0; index < slots; index++) {
+            wheel[index] = new ArrayList<>();
+        }
+        wheelMask = slots - 1;
+    }
+
+    /**
+     * Parks the specified runtime until the specified amount of ticks pass.
+     *
+     * @param runtime the runtime to park.
+     * @param ticks   the amount of ticks to wait, the runtime is resumed on the next tick if it is less than one.
+     */
+    public synchronized void park(R runtime, int ticks) {
+        schedule(new Parked(runtime, null), ticks);
+        size++;
+    }
+
+    /**
+     * Parks the specified runtime until the specified signal is {@link #signal(Object) signalled}.
+     *
+     * @param runtime the runtime to park.
+     * @param signal  the signal to wait for.
+     */
+    public synchronized void parkUntil(R runtime, Object signal) {
+        addWaiter(new Parked(runtime, signal));
+        size++;
+    }
+
+    /**
+     * Parks the specified runtime until the specified signal is {@link #signal(Object) signalled}, or until the specified
+     * amount of ticks pass, whichever comes first.
+     *
+     * @param runtime the runtime to park.
+     * @param signal  the signal to wait for.
+     * @param timeout the maximum amount of ticks to wait.
+     */
+    public synchronized void parkUntil(R runtime, Object signal, int timeout) {
+        var parked = new Parked(runtime, signal);
+        addWaiter(parked);
+        schedule(parked, timeout);
+        size++;
+    }
+
+    /**
+     * Signals the specified signal, all of the runtimes that wait for it are resumed on the next tick.
+     *
+     * @param signal the signal to signal.
+     * @return the amount of runtimes that were waiting for the signal.
+     */
+    public synchronized int signal(Object signal) {
+        var list = waiting.remove(signal);
+        if (list == null) {
+            return 0;
+        }
+        for (var parked : list) {
+            parked.woken = true;
+            ready.add(parked);
+        }
+        return list.size();
+    }
+
+    /**
+     * Advances the scheduler by a single tick, resuming the runtimes which were signalled since the last tick followed
+     * by the runtimes whose time came. Returns once all of the resumptions are done.
+     *
+     * @return the amount of runtimes that were resumed.
+     */
+    public int tick() {
+        var due = new ArrayList<Parked>();
+        synchronized (this) {
+            currentTick++;
+            due.addAll(ready);
+            ready.clear();
+            var slot = wheel[(int) (currentTick & wheelMask)];
+            for (var index = slot.size() - 1; index >= 0; index--) {
+                var parked = slot.get(index);
+                if (parked.woken) {
+                    removeAt(slot, index);
+                } else if (parked.deadline <= currentTick) {
+                    removeAt(slot, index);
+                    parked.woken = true;
+                    if (parked.signal != null) {
+                        removeWaiter(parked);
+                        timedOut.increment();
+                    }
+                    due.add(parked);
+                }
+            }
+            size -= due.size();
+        }
+        if (resumeExecutor == null) {
+            for (var parked : due) {
+                resume(parked.runtime);
+            }
+        } else {
+            var futures = new CompletableFuture[due.size()];
+            for (var index = 0; index < futures.length; index++) {
+                var runtime = due.get(index).runtime;
+                futures[index] = CompletableFuture.runAsync(() -> resume(runtime), resumeExecutor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+        return due.size();
+    }
+
+    /**
+     * Resumes the specified runtime and handles the outcome of the resumption.
+     *
+     * @param runtime the runtime to resume.
+     */
+    private void resume(R runtime) {
+        resumed.increment();
+        try {
+            if (executor.resume(runtime) == null) {
+                completed.increment();
+                runtime.close();
+            } else if (runtime.getPreemption() != null) {
+                park(runtime, 1);
+            } else {
+                listener.suspended(this, runtime);
+            }
+        } catch (Throwable e) {
+            failed.increment();
+            var exception = e instanceof ExecutionException ? (ExecutionException) e : new ExecutionException("Error resuming script: " + runtime.getScript().getName(), e);
+            try {
+                listener.failed(runtime, exception);
+            } finally {
+                runtime.close();
+            }
+        }
+    }
+
+    /**
+     * Adds the specified parked runtime to the timer wheel.
+     *
+     * @param parked the parked runtime.
+     * @param ticks  the amount of ticks to wait.
+     */
+    private void schedule(Parked parked, int ticks) {
+        parked.deadline = currentTick + Math.max(ticks, 1);
+        wheel[(int) (parked.deadline & wheelMask)].add(parked);
+    }
+
+    /**
+     * Adds the specified parked runtime to the runtimes that wait for its signal.
+     *
+     * @param parked the parked runtime.
+     */
+    private void addWaiter(Parked parked) {
+        waiting.computeIfAbsent(parked.signal, key -> new ArrayList<>()).add(parked);
+    }
+
+    /**
+     * Removes the specified parked runtime from the runtimes that wait for its signal.
+     *
+     * @param parked the parked runtime.
+     */
+    private void removeWaiter(Parked parked) {
+        var list = waiting.get(parked.signal);
+        if (list == null) {
+            return;
+        }
+        list.remove(parked);
+        if (list.isEmpty()) {
+            waiting.remove(parked.signal);
+        }
+    }
+
+    /**
+     * Removes the element at the specified index of the list by replacing it with the last element.
+     *
+     * @param list  the list to remove the element from.
+     * @param index the index of the element.
+     */
+    private static <T> void removeAt(List<T> list, int index) {
+        var last = list.remove(list.size() - 1);
+        if (index < list.size()) {
+            list.set(index, last);
+        }
+    }
+
+    /**
+     * Returns the amount of runtimes that are currently parked.
+     *
+     * @return the amount of runtimes.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of runtimes that were resumed.
+     *
+     * @return the amount of runtimes.
+     */
+    public long getResumedCount() {
+        return resumed.sum();
+    }
+
+    /**
+     * Returns the amount of resumed runtimes that completed.
+     *
+     * @return the amount of runtimes.
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Returns the amount of resumed runtimes that failed.
+     *
+     * @return the amount of runtimes.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the amount of runtimes that woke up because they timed out while waiting for a signal.
+     *
+     * @return the amount of runtimes.
+     */
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    /**
+     * A runtime that is parked in the scheduler.
+     */
+    private final class Parked {
+
+        /**
+         * The runtime which is parked.
+         */
+        private final R runtime;
+
+        /**
+         * The signal which the runtime waits for, or {@code null} if it only waits for a tick.
+         */
+        private final Object signal;
+
+        /**
+         * The tick at which the runtime is resumed, only valid while the runtime is in the timer wheel.
+         */
+        private long deadline;
+
+        /**
+         * Whether or not the runtime was already woken up, the wheel entries of woken runtimes are removed lazily.
+         */
+        private boolean woken;
+
+        /**
+         * Constructs a new {@link Parked} type object instance.
+         *
+         * @param runtime the runtime which is parked.
+         * @param signal  the signal which the runtime waits for.
+         */
+        Parked(R runtime, Object signal) {
+            this.runtime = runtime;
+            this.signal = signal;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.script;
+
+import me.waliedyassen.runescript.runtime.cache.ScriptCache;
+
+/**
+ * The inline cache of the call instructions of a {@link Script}, it remembers the callee of each call instruction so
+ * that repeated calls skip the {@link ScriptCache} lookup.
+ * <p>
+ * Every entry remembers the {@link ScriptCache#getVersion() version} of the cache it was resolved from, and is resolved
+ * again once the cache changes. The entries are immutable, so the inline cache can be shared between threads without
+ * any locking, at worst a call site is resolved more than once.
+ *
+ * @author Walied K. Yassen
+ */
+public final class CallSites {
+
+    /**
+     * The amount of instructions in the script.
+     */
+    private final int length;
+
+    /**
+     * The resolved call sites, indexed by the address of the call instruction, allocated on the first call.
+     */
+    private CallSite[] sites;
+
+    /**
+     * Constructs a new {@link CallSites} type object instance.
+     *
+     * @param length the amount of instructions in the script.
+     */
+    CallSites(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Resolves the callee of the call instruction at the specified address.
+     *
+     * @param address the address of the call instruction.
+     * @param id      the id of the callee script.
+     * @param cache   the cache to resolve the callee from.
+     * @return the callee {@link Script} or {@code null} if the cache does not contain it.
+     */
+    public Script resolve(int address, int id, ScriptCache cache) {
+        var version = cache.getVersion();
+        var sites = this.sites;
+        if (sites == null) {
+            sites = this.sites = new CallSite[length];
+        }
+        var site = sites[address];
+        if (site != null && site.version == version) {
+            return site.target;
+        }
+        var target = cache.get(id);
+        if (target != null) {
+            sites[address] = new CallSite(target, version);
+        }
+        return target;
+    }
+
+    /**
+     * A single resolved call site.
+     */
+    private static final class CallSite {
+
+        /**
+         * The callee script of the call site.
+         */
+        private final Script target;
+
+        /**
+         * The version of the cache the callee was resolved from.
+         */
+        private final long version;
+
+        /**
+         * Constructs a new {@link CallSite} type object instance.
+         *
+         * @param target  the callee script of the call site.
+         * @param version the version of the cache the callee was resolved from.
+         */
+        CallSite(Script target, long version) {
+            this.target = target;
+            this.version = version;
+        }
+    }
+}
@@ -8,16 +8,19 @@
 package me.waliedyassen.runescript.runtime.script;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.executor.jit.CompiledScript;
 
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 
 /**
  * A runtime script, holds all the data and the information we need to execute the script.
  *
  * @author Walied K. Yassen
  */
-@RequiredArgsConstructor
 public final class Script {
 
     /**
@@ -33,10 +36,23 @@ public final class Script {
     private final int[] instructions;
 
     /**
-     * The integer operands of the script.
+     * The integer operands of the script, for {@code long} and {@link String} operands this holds the index of the
+     * operand within the {@link #longPool} or the {@link #stringPool}.
      */
     @Getter
-    private final Object[] operands;
+    private final int[] intOperands;
+
+    /**
+     * The pool of all the {@code long} operands of the script.
+     */
+    @Getter
+    private final long[] longPool;
+
+    /**
+     * The pool of all the {@link String} operands of the script.
+     */
+    @Getter
+    private final String[] stringPool;
 
     /**
      * The amount of integer local fields in the script.
@@ -75,8 +91,235 @@ public final class Script {
     private final int numLongArguments;
 
     /**
-     * The table for all the switch jumps in the script.
+     * The table for all the switch jumps in the script, indexed by the operand of the switch instruction.
+     */
+    @Getter
+    private final SwitchTable[] switchTable;
+
+    /**
+     * The inline cache of the call instructions of the script.
+     */
+    @Getter
+    private final CallSites callSites;
+
+    /**
+     * The maximum depth of the int stack while executing the script, or zero if it is not known.
      */
     @Getter
-    private final Hashtable<Integer, Integer>[] switchTable;
+    private final int maxIntStackDepth;
+
+    /**
+     * The maximum depth of the string stack while executing the script, or zero if it is not known.
+     */
+    @Getter
+    private final int maxStringStackDepth;
+
+    /**
+     * The maximum depth of the long stack while executing the script, or zero if it is not known.
+     */
+    @Getter
+    private final int maxLongStackDepth;
+
+    /**
+     * The executor map which the script was last validated against, or {@code null} if it was never validated.
+     */
+    @Getter
+    @Setter
+    private volatile InstructionExecutorMap validatedMap;
+
+    /**
+     * The compiled form of the script, or {@code null} if the script was not compiled.
+     */
+    @Getter
+    @Setter
+    private volatile CompiledScript compiled;
+
+    /**
+     * Whether or not the script cannot be compiled and should always be interpreted.
+     */
+    @Getter
+    @Setter
+    private volatile boolean compilationDisabled;
+
+    /**
+     * The amount of times the script was invoked by an executor with a compilation tier, the count is approximate
+     * when the script is invoked from multiple threads.
+     */
+    @Getter
+    private int invocationCount;
+
+    /**
+     * Constructs a new {@link Script} type object instance.
+     *
+     * @param name               the name of the script.
+     * @param instructions       the instructions of the script.
+     * @param operands           the operands of the script, each operand is either an {@link Integer}, a {@link Long}, a
+     *                           {@link String} or {@code null}.
+     * @param numIntLocals       the amount of integer local fields in the script.
+     * @param numStringLocals    the amount of string local fields in the script.
+     * @param numLongLocals      the amount of long local fields in the script.
+     * @param numIntArguments    the amount of int arguments in the script.
+     * @param numStringArguments the amount of string arguments in the script.
+     * @param numLongArguments   the amount of long arguments in the script.
+     * @param switchTable        the table for all the switch jumps in the script.
+     */
+    public Script(String name, int[] instructions, Object[] operands, int numIntLocals, int numStringLocals, int numLongLocals, int numIntArguments, int numStringArguments, int numLongArguments, Hashtable<Integer, Integer>[] switchTable) {
+        this(name, instructions, operands, numIntLocals, numStringLocals, numLongLocals, numIntArguments, numStringArguments, numLongArguments, switchTable, 0, 0, 0);
+    }
+
+    /**
+     * Constructs a new {@link Script} type object instance with known maximum stack depths.
+     *
+     * @param name                the name of the script.
+     * @param instructions        the instructions of the script.
+     * @param operands            the operands of the script, each operand is either an {@link Integer}, a {@link Long},
+     *                            a {@link String} or {@code null}.
+     * @param numIntLocals        the amount of integer local fields in the script.
+     * @param numStringLocals     the amount of string local fields in the script.
+     * @param numLongLocals       the amount of long local fields in the script.
+     * @param numIntArguments     the amount of int arguments in the script.
+     * @param numStringArguments  the amount of string arguments in the script.
+     * @param numLongArguments    the amount of long arguments in the script.
+     * @param switchTable         the table for all the switch jumps in the script.
+     * @param maxIntStackDepth    the maximum depth of the int stack, or zero if it is not known.
+     * @param maxStringStackDepth the maximum depth of the string stack, or zero if it is not known.
+     * @param maxLongStackDepth   the maximum depth of the long stack, or zero if it is not known.
+     */
+    public Script(String name, int[] instructions, Object[] operands, int numIntLocals, int numStringLocals, int numLongLocals, int numIntArguments, int numStringArguments, int numLongArguments, Hashtable<Integer, Integer>[] switchTable, int maxIntStackDepth, int maxStringStackDepth, int maxLongStackDepth) {
+        this.name = name;
+        this.instructions = instructions;
+        callSites = new CallSites(instructions.length);
+        this.numIntLocals = numIntLocals;
+        this.numStringLocals = numStringLocals;
+        this.numLongLocals = numLongLocals;
+        this.numIntArguments = numIntArguments;
+        this.numStringArguments = numStringArguments;
+        this.numLongArguments = numLongArguments;
+        this.maxIntStackDepth = maxIntStackDepth;
+        this.maxStringStackDepth = maxStringStackDepth;
+        this.maxLongStackDepth = maxLongStackDepth;
+        this.switchTable = new SwitchTable[switchTable.length];
+        for (var index = 0; index < switchTable.length; index++) {
+            if (switchTable[index] != null) {
+                this.switchTable[index] = SwitchTable.of(switchTable[index]);
+            }
+        }
+        intOperands = new int[operands.length];
+        var longs = new ArrayList<Long>();
+        var strings = new LinkedHashMap<String, Integer>();
+        for (var address = 0; address < operands.length; address++) {
+            var operand = operands[address];
+            if (operand == null) {
+                continue;
+            }
+            if (operand instanceof Integer) {
+                intOperands[address] = (int) operand;
+            } else if (operand instanceof Long) {
+                intOperands[address] = longs.size();
+                longs.add((Long) operand);
+            } else if (operand instanceof String) {
+                intOperands[address] = strings.computeIfAbsent((String) operand, key -> strings.size());
+            } else {
+                throw new IllegalArgumentException("Unsupported operand type: " + operand.getClass().getSimpleName() + " at address: " + address);
+            }
+        }
+        longPool = new long[longs.size()];
+        for (var index = 0; index < longPool.length; index++) {
+            longPool[index] = longs.get(index);
+        }
+        stringPool = strings.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Constructs a new {@link Script} type object instance from already decoded operands.
+     *
+     * @param name               the name of the script.
+     * @param instructions       the instructions of the script.
+     * @param intOperands        the int operands of the script, indices into the pools for the long and string
+     *                           operands.
+     * @param longPool           the pool of the long operands of the script.
+     * @param stringPool         the pool of the string operands of the script.
+     * @param numIntLocals       the amount of integer local fields in the script.
+     * @param numStringLocals    the amount of string local fields in the script.
+     * @param numLongLocals      the amount of long local fields in the script.
+     * @param numIntArguments    the amount of int arguments in the script.
+     * @param numStringArguments the amount of string arguments in the script.
+     * @param numLongArguments   the amount of long arguments in the script.
+     * @param switchTable        the table for all the switch jumps in the script.
+     */
+    public Script(String name, int[] instructions, int[] intOperands, long[] longPool, String[] stringPool, int numIntLocals, int numStringLocals, int numLongLocals, int numIntArguments, int numStringArguments, int numLongArguments, SwitchTable[] switchTable) {
+        this(name, instructions, intOperands, longPool, stringPool, numIntLocals, numStringLocals, numLongLocals, numIntArguments, numStringArguments, numLongArguments, switchTable, 0, 0, 0);
+    }
+
+    /**
+     * Constructs a new {@link Script} type object instance from already decoded operands and known maximum stack
+     * depths.
+     *
+     * @param name                the name of the script.
+     * @param instructions        the instructions of the script.
+     * @param intOperands         the int operands of the script, indices into the pools for the long and string
+     *                            operands.
+     * @param longPool            the pool of the long operands of the script.
+     * @param stringPool          the pool of the string operands of the script.
+     * @param numIntLocals        the amount of integer local fields in the script.
+     * @param numStringLocals     the amount of string local fields in the script.
+     * @param numLongLocals       the amount of long local fields in the script.
+     * @param numIntArguments     the amount of int arguments in the script.
+     * @param numStringArguments  the amount of string arguments in the script.
+     * @param numLongArguments    the amount of long arguments in the script.
+     * @param switchTable         the table for all the switch jumps in the script.
+     * @param maxIntStackDepth    the maximum depth of the int stack, or zero if it is not known.
+     * @param maxStringStackDepth the maximum depth of the string stack, or zero if it is not known.
+     * @param maxLongStackDepth   the maximum depth of the long stack, or zero if it is not known.
+     */
+    public Script(String name, int[] instructions, int[] intOperands, long[] longPool, String[] stringPool, int numIntLocals, int numStringLocals, int numLongLocals, int numIntArguments, int numStringArguments, int numLongArguments, SwitchTable[] switchTable, int maxIntStackDepth, int maxStringStackDepth, int maxLongStackDepth) {
+        this.name = name;
+        this.instructions = instructions;
+        callSites = new CallSites(instructions.length);
+        this.intOperands = intOperands;
+        this.longPool = longPool;
+        this.stringPool = stringPool;
+        this.numIntLocals = numIntLocals;
+        this.numStringLocals = numStringLocals;
+        this.numLongLocals = numLongLocals;
+        this.numIntArguments = numIntArguments;
+        this.numStringArguments = numStringArguments;
+        this.numLongArguments = numLongArguments;
+        this.switchTable = switchTable;
+        this.maxIntStackDepth = maxIntStackDepth;
+        this.maxStringStackDepth = maxStringStackDepth;
+        this.maxLongStackDepth = maxLongStackDepth;
+    }
+
+    /**
+     * Increments the invocation count of the script.
+     *
+     * @return the new invocation count.
+     */
+    public int incrementInvocationCount() {
+        return ++invocationCount;
+    }
+
+    /**
+     * Creates a copy of this script that uses the specified {@code instructions}, everything else is shared with this
+     * script.
+     *
+     * @param instructions the instructions of the new script, must have the same length as the current instructions.
+     * @return the new {@link Script} object.
+     */
+    public Script withInstructions(int[] instructions) {
+        if (instructions.length != this.instructions.length) {
+            throw new IllegalArgumentException("The instructions length must match the original instructions length");
+        }
+        return new Script(name, instructions, intOperands, longPool, stringPool, numIntLocals, numStringLocals, numLongLocals, numIntArguments, numStringArguments, numLongArguments, switchTable, maxIntStackDepth, maxStringStackDepth, maxLongStackDepth);
+    }
+
+    /**
+     * Returns the maximum depth of any of the stacks while executing the script.
+     *
+     * @return the maximum depth, or zero if it is not known.
+     */
+    public int getMaxStackDepth() {
+        return Math.max(maxIntStackDepth, Math.max(maxStringStackDepth, maxLongStackDepth));
+    }
 }
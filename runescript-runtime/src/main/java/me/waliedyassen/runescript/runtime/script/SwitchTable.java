@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.script;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A primitive jump table of a switch instruction, mapping each case key to the jump offset of that case.
+ * <p>
+ * The representation is chosen when the table is created: tables whose keys are dense enough use a jump array that is
+ * indexed by the key minus the smallest key, while sparse tables use a sorted key array which is searched with a
+ * binary search.
+ *
+ * @author Walied K. Yassen
+ */
+public final class SwitchTable {
+
+    /**
+     * The value which {@link #lookup(int)} returns when there is no case for the key.
+     */
+    public static final int NO_CASE = Integer.MIN_VALUE;
+
+    /**
+     * The maximum ratio of the key range to the amount of keys (i.e. the range must be at most twice the
+     * amount of keys, or a fill ratio of at least one half) for a table to use the dense representation.
+     */
+    private static final int DENSE_MIN_FILL = 2;
+
+    /**
+     * The largest key range that is always allowed to use the dense representation regardless of how filled it is.
+     */
+    private static final int DENSE_SMALL_RANGE = 16;
+
+    /**
+     * The smallest key of the table, only used by the dense representation.
+     */
+    private final int base;
+
+    /**
+     * The sorted keys of the table, or {@code null} if the table uses the dense representation.
+     */
+    private final int[] keys;
+
+    /**
+     * The jump offsets of the table, indexed by the key minus the {@link #base} for the dense representation, or by the
+     * index of the key within {@link #keys} for the sparse representation.
+     */
+    private final int[] jumps;
+
+    /**
+     * The amount of cases in the table.
+     */
+    private final int size;
+
+    /**
+     * Constructs a new {@link SwitchTable} type object instance.
+     *
+     * @param base  the smallest key of the table.
+     * @param keys  the sorted keys of the table or {@code null} for the dense representation.
+     * @param jumps the jump offsets of the table.
+     * @param size  the amount of cases in the table.
+     */
+    private SwitchTable(int base, int[] keys, int[] jumps, int size) {
+        this.base = base;
+        this.keys = keys;
+        this.jumps = jumps;
+        this.size = size;
+    }
+
+    /**
+     * Looks up the jump offset of the case with the specified key.
+     *
+     * @param key the key of the case.
+     * @return the jump offset of the case, or {@link #NO_CASE} if the table has no case for the key.
+     */
+    public int lookup(int key) {
+        if (keys == null) {
+            var index = key - base;
+            // The unsigned comparison rejects both the keys below the base and the keys past the end.
+            if (Integer.compareUnsigned(index, jumps.length) >= 0) {
+                return NO_CASE;
+            }
+            return jumps[index];
+        }
+        var index = Arrays.binarySearch(keys, key);
+        return index < 0 ? NO_CASE : jumps[index];
+    }
+
+    /**
+     * Checks whether or not the table uses the dense jump array representation.
+     *
+     * @return <code>true</code> if it does otherwise <code>false</code>.
+     */
+    public boolean isDense() {
+        return keys == null;
+    }
+
+    /**
+     * Returns the keys of the cases in the table in ascending order.
+     *
+     * @return a new array of the keys.
+     */
+    public int[] keys() {
+        if (keys != null) {
+            return keys.clone();
+        }
+        var result = new int[size];
+        var index = 0;
+        for (var offset = 0; offset < jumps.length; offset++) {
+            if (jumps[offset] != NO_CASE) {
+                result[index++] = base + offset;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the jump offsets of the cases in the table, indexed the same as {@link #keys()}.
+     *
+     * @return a new array of the jump offsets.
+     */
+    public int[] jumps() {
+        if (keys != null) {
+            return jumps.clone();
+        }
+        var result = new int[size];
+        var index = 0;
+        for (var jump : jumps) {
+            if (jump != NO_CASE) {
+                result[index++] = jump;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the amount of cases in the table.
+     *
+     * @return the amount of cases.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates a {@link SwitchTable} from the specified case key to jump offset map, choosing the representation which
+     * best suits the keys of the map.
+     *
+     * @param cases the cases of the table.
+     * @return the created {@link SwitchTable} object.
+     */
+    public static SwitchTable of(Map<Integer, Integer> cases) {
+        var keys = new int[cases.size()];
+        var jumps = new int[keys.length];
+        var index = 0;
+        for (var entry : cases.entrySet()) {
+            keys[index] = entry.getKey();
+            jumps[index] = entry.getValue();
+            index++;
+        }
+        return of(keys, jumps);
+    }
+
+    /**
+     * Creates a {@link SwitchTable} from the specified case keys and their jump offsets, choosing the representation
+     * which best suits the keys.
+     *
+     * @param keys  the distinct keys of the cases, in any order.
+     * @param jumps the jump offsets of the cases, indexed the same as the keys.
+     * @return the created {@link SwitchTable} object.
+     */
+    public static SwitchTable of(int[] keys, int[] jumps) {
+        if (keys.length != jumps.length) {
+            throw new IllegalArgumentException("The keys and jumps lengths must match");
+        }
+        var size = keys.length;
+        var order = new long[size];
+        for (var index = 0; index < size; index++) {
+            // pack the key and its index so a single primitive sort orders both arrays by key.
+            order[index] = (long) keys[index] << 32 | index;
+        }
+        Arrays.sort(order);
+        var sortedKeys = new int[size];
+        var sortedJumps = new int[size];
+        for (var index = 0; index < size; index++) {
+            sortedKeys[index] = (int) (order[index] >> 32);
+            sortedJumps[index] = jumps[(int) order[index]];
+            if (index > 0 && sortedKeys[index] == sortedKeys[index - 1]) {
+                throw new IllegalArgumentException("Duplicate switch case key: " + sortedKeys[index]);
+            }
+        }
+        if (size == 0) {
+            return new SwitchTable(0, null, new int[0], 0);
+        }
+        var range = (long) sortedKeys[size - 1] - sortedKeys[0] + 1;
+        if (range <= DENSE_SMALL_RANGE || range <= (long) size * DENSE_MIN_FILL) {
+            var dense = new int[(int) range];
+            Arrays.fill(dense, NO_CASE);
+            for (var index = 0; index < size; index++) {
+                dense[sortedKeys[index] - sortedKeys[0]] = sortedJumps[index];
+            }
+            return new SwitchTable(sortedKeys[0], null, dense, size);
+        }
+        return new SwitchTable(0, sortedKeys, sortedJumps, size);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime;
+
+import me.waliedyassen.runescript.runtime.script.Script;
+import me.waliedyassen.runescript.runtime.script.SwitchTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptRuntimePoolTest {
+
+    @Test
+    void testLimitAndMetrics() {
+        var pool = new ScriptRuntimePool<>(TestRuntime::new, null, 3, 2);
+        var runtimes = new ArrayList<TestRuntime>();
+        for (var index = 0; index < 5; index++) {
+            runtimes.add(pool.pop());
+        }
+        runtimes.forEach(pool::push);
+        assertEquals(3, pool.size());
+        assertEquals(5, pool.getCreatedCount());
+        assertEquals(2, pool.getDroppedCount());
+        assertTrue(runtimes.contains(pool.pop()));
+        assertEquals(1, pool.getReusedCount());
+    }
+
+    @Test
+    void testPrewarm() {
+        var pool = new ScriptRuntimePool<>(TestRuntime::new, null, 4, 4);
+        pool.prewarm(10);
+        assertEquals(4, pool.size());
+        assertEquals(4, pool.getCreatedCount());
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        var pool = new ScriptRuntimePool<>(TestRuntime::new, null, 16, 4);
+        var service = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var task = 0; task < 4; task++) {
+                futures.add(service.submit(() -> {
+                    for (var index = 0; index < 10_000; index++) {
+                        pool.push(pool.pop());
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            service.shutdown();
+        }
+        assertEquals(40_000, pool.getCreatedCount() + pool.getReusedCount());
+        assertTrue(pool.size() <= 16);
+    }
+
+    @Test
+    void testSizeClasses() {
+        var pool = new ScriptRuntimePool<>(TestRuntime::new, null, 4, 1);
+        var shallow = script(4);
+        var deep = script(100);
+        var large = pool.pop(deep);
+        assertTrue(large.getStackCapacity() >= 100);
+        var small = pool.pop(shallow);
+        assertEquals(ScriptRuntime.INITIAL_STACK_CAPACITY, small.getStackCapacity());
+        pool.push(large);
+        pool.push(small);
+        assertArrayEquals(new int[]{1, 1, 0}, pool.sizeClassSizes());
+        assertSame(small, pool.pop(shallow));
+        assertSame(large, pool.pop(shallow));
+        pool.push(small);
+        assertNotSame(small, pool.pop(deep));
+        assertEquals(3, pool.getCreatedCount());
+    }
+
+    static Script script(int maxStackDepth) {
+        return new Script("test", new int[0], new int[0], new long[0], new String[0], 0, 0, 0, 0, 0, 0, new SwitchTable[0], maxStackDepth, 0, 0);
+    }
+
+    private static final class TestRuntime extends ScriptRuntime {
+
+        TestRuntime(ScriptRuntimePool<TestRuntime> pool) {
+            super(pool);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EmptyStackException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptRuntimeTest {
+
+    @Test
+    void testIntStackGrowth() {
+        var runtime = new TestRuntime();
+        var count = ScriptRuntime.INITIAL_STACK_CAPACITY * 3;
+        for (var value = 0; value < count; value++) {
+            runtime.pushInt(value);
+        }
+        assertEquals(count, runtime.getIntStackSize());
+        for (var value = count - 1; value >= 0; value--) {
+            assertEquals(value, runtime.popInt());
+        }
+        assertThrows(EmptyStackException.class, runtime::popInt);
+    }
+
+    @Test
+    void testStringStack() {
+        var runtime = new TestRuntime();
+        runtime.pushString("a");
+        runtime.pushString("b");
+        runtime.pushString("c");
+        assertEquals("c", runtime.popString());
+        runtime.discardStrings(1);
+        assertEquals(1, runtime.getStringStackSize());
+        assertNull(runtime.getStringStack()[1]);
+        assertThrows(EmptyStackException.class, () -> runtime.discardStrings(2));
+    }
+
+    @Test
+    void testJoinStrings() {
+        var runtime = new TestRuntime();
+        runtime.pushString("x");
+        runtime.pushString("a");
+        runtime.pushString(null);
+        runtime.pushString("c");
+        assertEquals(1, runtime.sliceStrings(3));
+        assertEquals("anullc", runtime.joinStrings(3));
+        assertEquals(1, runtime.getStringStackSize());
+        assertNull(runtime.getStringStack()[1]);
+        assertEquals("", runtime.joinStrings(0));
+        assertThrows(EmptyStackException.class, () -> runtime.joinStrings(2));
+        var builder = runtime.borrowStringBuilder();
+        builder.append("a".repeat(ScriptRuntime.MAX_POOLED_BUILDER_CAPACITY * 2));
+        assertNotSame(builder, runtime.borrowStringBuilder());
+        assertEquals(0, runtime.borrowStringBuilder().length());
+    }
+
+    @Test
+    void testLongStack() {
+        var runtime = new TestRuntime();
+        runtime.pushLong(Long.MAX_VALUE);
+        runtime.pushLong(-1L);
+        assertEquals(-1L, runtime.popLong());
+        assertEquals(Long.MAX_VALUE, runtime.popLong());
+        assertThrows(EmptyStackException.class, runtime::popLong);
+    }
+
+    @Test
+    void testReset() {
+        var runtime = new TestRuntime();
+        runtime.pushInt(1);
+        runtime.pushString("a");
+        runtime.pushLong(1L);
+        runtime.reset();
+        assertEquals(0, runtime.getIntStackSize());
+        assertEquals(0, runtime.getStringStackSize());
+        assertEquals(0, runtime.getLongStackSize());
+        assertNull(runtime.getStringStack()[0]);
+    }
+
+    @Test
+    void testDefineArray() {
+        var runtime = new TestRuntime();
+        assertNull(runtime.getArrayElements()[0]);
+        runtime.defineArray(0, 10, -1);
+        assertEquals(10, runtime.getArraySize()[0]);
+        assertEquals(-1, runtime.getArrayElements()[0][9]);
+        runtime.getArrayElements()[0][3] = 5;
+        runtime.defineArray(0, 4, 0);
+        assertEquals(10, runtime.getArrayElements()[0].length);
+        assertEquals(0, runtime.getArrayElements()[0][3]);
+        runtime.reset();
+        assertEquals(0, runtime.getArraySize()[0]);
+    }
+
+    @Test
+    void testFramePoolHitsAndMisses() {
+        var runtime = new TestRuntime(4);
+        var pool = runtime.getFramePool();
+        runtime.pushFrame();
+        runtime.pushFrame();
+        assertEquals(0, pool.getHits());
+        assertEquals(2, pool.getMisses());
+        var top = runtime.getFrames().peek();
+        runtime.popFrame();
+        assertEquals(1, pool.getSize());
+        runtime.pushFrame();
+        assertSame(top, runtime.getFrames().peek());
+        assertEquals(1, pool.getHits());
+        assertEquals(2, pool.getMisses());
+        assertEquals(0, pool.getSize());
+    }
+
+    @Test
+    void testFramePoolCapacity() {
+        var runtime = new TestRuntime(2);
+        var pool = runtime.getFramePool();
+        assertEquals(2, pool.getCapacity());
+        for (var index = 0; index < 5; index++) {
+            runtime.pushFrame();
+        }
+        assertEquals(5, pool.getMisses());
+        for (var index = 0; index < 5; index++) {
+            runtime.popFrame();
+        }
+        // only as many frames as the capacity are kept, the rest are left for the garbage collector.
+        assertEquals(2, pool.getSize());
+        for (var index = 0; index < 5; index++) {
+            runtime.pushFrame();
+        }
+        assertEquals(2, pool.getHits());
+        assertEquals(8, pool.getMisses());
+        assertEquals(0, pool.getSize());
+    }
+
+    @Test
+    void testResetReturnsFrames() {
+        var runtime = new TestRuntime(8);
+        var pool = runtime.getFramePool();
+        runtime.pushFrame();
+        runtime.pushFrame();
+        runtime.pushFrame();
+        assertEquals(0, pool.getSize());
+        runtime.reset();
+        assertTrue(runtime.getFrames().isEmpty());
+        assertEquals(3, pool.getSize());
+        runtime.pushFrame();
+        assertEquals(1, pool.getHits());
+        assertEquals(3, pool.getMisses());
+    }
+
+    private static final class TestRuntime extends ScriptRuntime {
+
+        TestRuntime() {
+            super(null);
+        }
+
+        TestRuntime(int framePoolCapacity) {
+            super(null, framePoolCapacity);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+import me.waliedyassen.runescript.runtime.script.Script;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedScriptCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRoundTrip() throws IOException {
+        var switchTable = new Hashtable<Integer, Integer>();
+        switchTable.put(3, 1);
+        switchTable.put(90000, 2);
+        var first = new Script("first", new int[]{1, 2, 3, 4}, new Object[]{7, "hello", 9L, null}, 1, 2, 3, 1, 1, 0, new Hashtable[]{switchTable, null});
+        var second = new Script("second", new int[0], new Object[0], 0, 0, 0, 0, 0, 0, new Hashtable[0]);
+        var writer = new ScriptArchiveWriter();
+        writer.add(50, second);
+        writer.add(-4, first);
+        assertThrows(IllegalArgumentException.class, () -> writer.add(50, first));
+        var path = directory.resolve("scripts.rsa");
+        writer.write(path);
+
+        var cache = new MappedScriptCache(path);
+        var linked = new AtomicInteger();
+        cache.addLinker(script -> {
+            linked.incrementAndGet();
+            return script;
+        });
+        assertEquals(2, cache.size());
+        assertEquals(0, linked.get());
+        var script = cache.get(-4);
+        assertEquals(1, linked.get());
+        assertSame(script, cache.get("first"));
+        assertSame(script, cache.get(-4));
+        assertEquals(1, linked.get());
+        assertEquals("first", script.getName());
+        assertArrayEquals(first.getInstructions(), script.getInstructions());
+        assertArrayEquals(first.getIntOperands(), script.getIntOperands());
+        assertArrayEquals(first.getLongPool(), script.getLongPool());
+        assertArrayEquals(first.getStringPool(), script.getStringPool());
+        assertEquals(1, script.getNumIntLocals());
+        assertEquals(2, script.getNumStringLocals());
+        assertEquals(3, script.getNumLongLocals());
+        assertEquals(1, script.getNumIntArguments());
+        assertEquals(1, script.getNumStringArguments());
+        assertEquals(2, script.getSwitchTable()[0].lookup(90000));
+        assertNull(script.getSwitchTable()[1]);
+        assertEquals("second", cache.get(50).getName());
+        assertSame(cache.get(50), cache.get("second"));
+        assertNull(cache.get(1));
+        assertNull(cache.get("third"));
+    }
+
+    @Test
+    void testInvalidFile() throws IOException {
+        var path = directory.resolve("invalid.rsa");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertThrows(IOException.class, () -> new MappedScriptCache(path));
+    }
+
+    @Test
+    void testCorruptCount() throws IOException {
+        var path = directory.resolve("corrupt.rsa");
+        // a count whose index size overflows an int must not pass the truncation check.
+        for (var count : new int[]{1 << 28, (1 << 28) + 1, Integer.MAX_VALUE, -1}) {
+            var header = ByteBuffer.allocate(ScriptArchive.HEADER_SIZE + 64);
+            header.putInt(ScriptArchive.MAGIC).putInt(ScriptArchive.VERSION).putInt(count);
+            Files.write(path, header.array());
+            assertThrows(IOException.class, () -> new MappedScriptCache(path));
+        }
+    }
+}
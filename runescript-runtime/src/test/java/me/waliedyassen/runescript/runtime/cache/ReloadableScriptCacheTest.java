@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.cache;
+
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.executor.linker.CallLinker;
+import me.waliedyassen.runescript.runtime.script.Script;
+import org.junit.jupiter.api.Test;
+
+import java.util.Hashtable;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReloadableScriptCacheTest {
+
+    @Test
+    void testReplace() {
+        var cache = new ReloadableScriptCache();
+        var first = script("first");
+        var second = script("second");
+        cache.putAll(Map.of(3, first, 10, second));
+        assertEquals(1, cache.getVersion());
+        assertSame(first, cache.get(3));
+        assertSame(second, cache.get("second"));
+        assertNull(cache.get(4));
+        assertNull(cache.get(-1));
+        assertNull(cache.get(100));
+
+        var replacement = script("first");
+        cache.put(3, replacement);
+        assertEquals(2, cache.getVersion());
+        assertSame(replacement, cache.get(3));
+        assertSame(replacement, cache.get("first"));
+
+        var renamed = script("renamed");
+        cache.put(10, renamed);
+        assertNull(cache.get("second"));
+        assertSame(renamed, cache.get("renamed"));
+
+        assertSame(renamed, cache.remove(10));
+        assertNull(cache.get(10));
+        assertNull(cache.get("renamed"));
+        assertNull(cache.remove(10));
+        assertThrows(IllegalArgumentException.class, () -> cache.put(-1, first));
+    }
+
+    @Test
+    void testFailedLinkStoresNothing() {
+        var cache = new ReloadableScriptCache();
+        cache.addLinker(script -> {
+            if (script.getName().equals("broken")) {
+                throw new ExecutionException("broken");
+            }
+            return script;
+        });
+        assertThrows(ExecutionException.class, () -> cache.putAll(Map.of(1, script("valid"), 2, script("broken"))));
+        assertNull(cache.get(1));
+        assertEquals(0, cache.getVersion());
+    }
+
+    @Test
+    void testStrictMutualCalls() {
+        var executorMap = new InstructionExecutorMap();
+        executorMap.register(21, CoreOps.RETURN);
+        executorMap.register(40, CoreOps.GOSUB_WITH_PARAMS);
+        var cache = new ReloadableScriptCache();
+        var linker = new CallLinker(executorMap, cache, true);
+        cache.addLinker(linker);
+        var first = calling("first", 2);
+        var second = calling("second", 1);
+        cache.putAll(Map.of(1, first, 2, second));
+        assertSame(first, cache.get(1));
+        assertSame(second, cache.get(2));
+        assertEquals(0, linker.getUnresolvedCount());
+        // a callee which is neither in the cache nor in the batch still fails the whole batch.
+        assertThrows(ExecutionException.class, () -> cache.putAll(Map.of(3, calling("third", 4), 5, calling("fifth", 3))));
+        assertNull(cache.get(3));
+        assertNull(cache.get(5));
+        assertEquals(1, cache.getVersion());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Script calling(String name, int callee) {
+        return new Script(name, new int[]{40, 21}, new Object[]{callee, null}, 0, 0, 0, 0, 0, 0, new Hashtable[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Script script(String name) {
+        return new Script(name, new int[0], new Object[0], 0, 0, 0, 0, 0, 0, new Hashtable[0]);
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.ScriptRuntimePool;
+import me.waliedyassen.runescript.runtime.ScriptRuntimeSetup;
+import me.waliedyassen.runescript.runtime.cache.ReloadableScriptCache;
+import me.waliedyassen.runescript.runtime.cache.ScriptCache;
+import me.waliedyassen.runescript.runtime.executor.fusion.SuperinstructionFuser;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.impl.MathOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.executor.jit.JitCompiler;
+import me.waliedyassen.runescript.runtime.executor.linker.CallLinker;
+import me.waliedyassen.runescript.runtime.executor.linker.ScriptVerifier;
+import me.waliedyassen.runescript.runtime.executor.linker.StackEffect;
+import me.waliedyassen.runescript.runtime.executor.profiler.ScriptProfile;
+import me.waliedyassen.runescript.runtime.executor.profiler.ScriptProfiler;
+import me.waliedyassen.runescript.runtime.script.Script;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptExecutorTest {
+
+    static final int PUSH_CONSTANT_INT = 0;
+    static final int PUSH_CONSTANT_STRING = 3;
+    static final int PUSH_INT_LOCAL = 33;
+    static final int POP_INT_LOCAL = 34;
+    static final int PUSH_STRING_LOCAL = 35;
+    static final int POP_STRING_LOCAL = 36;
+    static final int BRANCH = 6;
+    static final int BRANCH_LESS_THAN = 9;
+    static final int RETURN = 21;
+    static final int GOSUB_WITH_PARAMS = 40;
+    static final int JOIN_STRING = 37;
+    static final int ADD = 4000;
+    static final int CAPTURE = 9000;
+    static final int SUSPEND = 9001;
+
+    TestCache cache;
+    InstructionExecutorMap executorMap;
+    ScriptExecutor<TestRuntime> executor;
+
+    @BeforeEach
+    void setupExecutor() {
+        cache = new TestCache();
+        executorMap = new InstructionExecutorMap();
+        executorMap.register(PUSH_CONSTANT_INT, CoreOps.PUSH_CONSTANT_INT);
+        executorMap.register(PUSH_CONSTANT_STRING, CoreOps.PUSH_CONSTANT_STRING);
+        executorMap.register(PUSH_INT_LOCAL, CoreOps.PUSH_INT_LOCAL);
+        executorMap.register(POP_INT_LOCAL, CoreOps.POP_INT_LOCAL);
+        executorMap.register(PUSH_STRING_LOCAL, CoreOps.PUSH_STRING_LOCAL);
+        executorMap.register(POP_STRING_LOCAL, CoreOps.POP_STRING_LOCAL);
+        executorMap.register(BRANCH, CoreOps.BRANCH);
+        executorMap.register(BRANCH_LESS_THAN, CoreOps.BRANCH_LESS_THAN);
+        executorMap.register(RETURN, CoreOps.RETURN);
+        executorMap.register(GOSUB_WITH_PARAMS, CoreOps.GOSUB_WITH_PARAMS);
+        executorMap.register(JOIN_STRING, CoreOps.JOIN_STRING);
+        executorMap.register(ADD, MathOps.ADD);
+        executorMap.register(CAPTURE, (InstructionExecutor<TestRuntime>) runtime -> runtime.captured = runtime.popInt());
+        executorMap.register(SUSPEND, (InstructionExecutor<TestRuntime>) ScriptRuntime::abort);
+        executor = new ScriptExecutor<>(8, cache, TestRuntime::new, executorMap);
+    }
+
+    @Test
+    void testGosubPreservesCallerLocals() {
+        var caller = gosubScripts();
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, caller));
+        assertEquals(35, runtime.captured);
+        assertEquals(0, runtime.getIntStackSize());
+        assertTrue(runtime.getFrames().isEmpty());
+        runtime.reset();
+        for (var index = 0; index < 4; index++) {
+            assertEquals(0, runtime.getIntLocals()[index]);
+        }
+    }
+
+    @Test
+    void testLoop() {
+        var script = loopScript();
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, script));
+        assertEquals(10, runtime.captured);
+    }
+
+    @Test
+    void testSuperinstructionFusion() {
+        var fuser = new SuperinstructionFuser(executorMap);
+        cache.addLinker(fuser);
+        executorMap.freeze();
+        cache.put(1, loopScript());
+        var script = cache.get(1);
+        assertEquals(fuser.getOpcode("constant_to_local"), script.getInstructions()[0]);
+        assertEquals(fuser.getOpcode("local_constant_branch_less_than"), script.getInstructions()[2]);
+        assertEquals(fuser.getOpcode("local_add_constant"), script.getInstructions()[6]);
+        assertEquals(PUSH_INT_LOCAL, script.getInstructions()[11]);
+        assertEquals(6, fuser.getEliminatedDispatches());
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, script));
+        assertEquals(10, runtime.captured);
+    }
+
+    @Test
+    void testJitCompilation() {
+        var jit = new JitCompiler(executorMap, 1);
+        executor.setJitCompiler(jit);
+        var caller = gosubScripts();
+        var loop = loopScript();
+        for (var iteration = 0; iteration < 3; iteration++) {
+            var runtime = executor.getPool().pop();
+            assertNull(executor.execute(runtime, caller));
+            assertEquals(35, runtime.captured);
+            runtime.reset();
+            assertNull(executor.execute(runtime, loop));
+            assertEquals(10, runtime.captured);
+            runtime.close();
+        }
+        assertNotNull(caller.getCompiled());
+        assertNotNull(loop.getCompiled());
+        assertEquals(3, jit.getCompiledCount());
+    }
+
+    @Test
+    void testJitAbortResume() {
+        executor.setJitCompiler(new JitCompiler(executorMap, 1));
+        var script = script("suspend", new int[]{PUSH_CONSTANT_INT, SUSPEND, PUSH_CONSTANT_INT, ADD, CAPTURE, RETURN},
+                new Object[]{1, null, 2, null, null, null}, 0, 0, 0, 0);
+        var runtime = executor.getPool().pop();
+        assertSame(runtime, executor.execute(runtime, script));
+        assertNotNull(script.getCompiled());
+        assertEquals(2, runtime.getAddress());
+        assertNull(executor.resume(runtime));
+        assertEquals(3, runtime.captured);
+    }
+
+    @Test
+    void testJitCompileFailure() {
+        var jit = new JitCompiler(executorMap, 1);
+        executor.setJitCompiler(jit);
+        // every distinct string takes two constants, which overflows the constant pool of the generated class.
+        var count = 0x8000;
+        var instructions = new int[count * 2 + 1];
+        var operands = new Object[instructions.length];
+        for (var index = 0; index < count; index++) {
+            instructions[index * 2] = PUSH_CONSTANT_STRING;
+            operands[index * 2] = "string" + index;
+            instructions[index * 2 + 1] = POP_STRING_LOCAL;
+            operands[index * 2 + 1] = 0;
+        }
+        instructions[count * 2] = RETURN;
+        var script = script("overflow", instructions, operands, 0, 1, 0, 0);
+        for (var iteration = 0; iteration < 2; iteration++) {
+            var runtime = executor.getPool().pop();
+            assertNull(executor.execute(runtime, script));
+            assertEquals("string" + (count - 1), runtime.getStringLocals()[0]);
+            runtime.close();
+        }
+        assertNull(script.getCompiled());
+        assertTrue(script.isCompilationDisabled());
+        assertEquals(1, jit.getFailedCount());
+        assertEquals(0, jit.getCompiledCount());
+    }
+
+    @Test
+    void testJoinString() {
+        var script = script("join", new int[]{
+                PUSH_CONSTANT_STRING, PUSH_CONSTANT_STRING, PUSH_CONSTANT_STRING, JOIN_STRING, POP_STRING_LOCAL, RETURN
+        }, new Object[]{"a", "b", "c", 3, 0, null}, 0, 1, 0, 0);
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, script));
+        assertEquals("abc", runtime.getStringLocal(0));
+        assertEquals(0, runtime.getStringStackSize());
+    }
+
+    @Test
+    void testVerifiedJoinString() {
+        var verifier = new ScriptVerifier(executorMap);
+        cache.addLinker(verifier);
+        cache.put(1, script("join", new int[]{
+                PUSH_CONSTANT_STRING, PUSH_CONSTANT_STRING, JOIN_STRING, POP_STRING_LOCAL, RETURN
+        }, new Object[]{"a", "b", 2, 0, null}, 0, 1, 0, 0));
+        // both the join and the store into the local field pop a proven string stack depth.
+        assertEquals(2, verifier.getUncheckedSiteCount());
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, cache.get(1)));
+        assertEquals("ab", runtime.getStringLocal(0));
+        assertEquals(0, runtime.getStringStackSize());
+    }
+
+    @Test
+    void testVerifiedFusedLoop() {
+        var verifier = new ScriptVerifier(executorMap);
+        var fuser = new SuperinstructionFuser(executorMap);
+        cache.addLinker(verifier);
+        cache.addLinker(fuser);
+        executorMap.freeze();
+        cache.put(1, loopScript());
+        var script = cache.get(1);
+        // the fuser still recognises the sites which the verifier rewrote.
+        assertEquals(fuser.getOpcode("constant_to_local"), script.getInstructions()[0]);
+        assertEquals(fuser.getOpcode("local_constant_branch_less_than"), script.getInstructions()[2]);
+        assertEquals(fuser.getOpcode("local_add_constant"), script.getInstructions()[6]);
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, script));
+        assertEquals(10, runtime.captured);
+    }
+
+    @Test
+    void testVerifiedJitLoop() {
+        var verifier = new ScriptVerifier(executorMap);
+        verifier.declare(executorMap.lookup(CAPTURE), StackEffect.ints(1, 0));
+        cache.addLinker(verifier);
+        var jit = new JitCompiler(executorMap, 1);
+        executor.setJitCompiler(jit);
+        cache.put(1, loopScript());
+        var script = cache.get(1);
+        assertEquals(1, verifier.getVerifiedCount());
+        assertEquals(4, verifier.getUncheckedSiteCount());
+        for (var iteration = 0; iteration < 2; iteration++) {
+            var runtime = executor.getPool().pop();
+            assertNull(executor.execute(runtime, script));
+            assertEquals(10, runtime.captured);
+            runtime.close();
+        }
+        assertNotNull(script.getCompiled());
+    }
+
+    @Test
+    void testProfiler() {
+        var profiler = new ScriptProfiler(1);
+        executor.setProfiler(profiler);
+        var caller = gosubScripts();
+        for (var iteration = 0; iteration < 2; iteration++) {
+            var runtime = executor.getPool().pop();
+            assertNull(executor.execute(runtime, caller));
+            assertEquals(35, runtime.captured);
+            runtime.close();
+        }
+        assertEquals(2, profiler.getSampledCount());
+        var callerProfile = profiler.getProfile("caller");
+        var calleeProfile = profiler.getProfile("callee");
+        assertEquals(2, callerProfile.getInvocations());
+        assertEquals(2, calleeProfile.getInvocations());
+        assertEquals(2, callerProfile.getGosubCalls());
+        assertEquals(22, callerProfile.getInstructions());
+        assertEquals(8, calleeProfile.getInstructions());
+        assertEquals(4, profiler.getOpcodeCount(RETURN));
+        assertEquals(2, profiler.getOpcodeCount(GOSUB_WITH_PARAMS));
+        assertTrue(callerProfile.getInclusiveNanos() >= calleeProfile.getInclusiveNanos());
+        var stacks = profiler.collapsedStacks();
+        assertTrue(stacks.contains("caller "));
+        assertTrue(stacks.contains("caller;callee "));
+        assertTrue(profiler.report(ScriptProfile.BY_EXCLUSIVE_TIME).contains("callee"));
+    }
+
+    @Test
+    void testProfilerTimingInterval() {
+        var profiler = new ScriptProfiler(1, 4);
+        executor.setProfiler(profiler);
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, loopScript()));
+        assertEquals(10, runtime.captured);
+        // every instruction is counted even though only some of them are timed.
+        assertEquals(89, profiler.getProfile("loop").getInstructions());
+        assertEquals(11, profiler.getOpcodeCount(BRANCH_LESS_THAN));
+        assertEquals(1, profiler.getOpcodeCount(CAPTURE));
+    }
+
+    @Test
+    void testProfilerLargeOpcode() {
+        var large = InstructionExecutorMap.MAX_FROZEN_OPCODE + 10;
+        executorMap.register(large, (InstructionExecutor<TestRuntime>) runtime -> runtime.captured++);
+        var profiler = new ScriptProfiler(1, 1);
+        executor.setProfiler(profiler);
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, script("large", new int[]{large, large, large, RETURN}, new Object[4], 0, 0, 0, 0)));
+        assertEquals(3, runtime.captured);
+        assertEquals(3, profiler.getOpcodeCount(large));
+        assertEquals(3, profiler.getOpcodeCount(-1));
+        assertEquals(1, profiler.getOpcodeCount(RETURN));
+        assertTrue(profiler.report(ScriptProfile.BY_EXCLUSIVE_TIME).contains("other"));
+    }
+
+    @Test
+    void testInstructionBudget() {
+        executor.setBudget(ExecutionBudget.ofInstructions(20));
+        var runtime = executor.getPool().pop();
+        var resumes = 0;
+        var result = executor.execute(runtime, loopScript());
+        while (result != null) {
+            assertEquals(Preemption.INSTRUCTION_BUDGET, runtime.getPreemption());
+            resumes++;
+            result = executor.resume(runtime);
+        }
+        assertEquals(10, runtime.captured);
+        // the loop executes 89 instructions in total.
+        assertEquals(4, resumes);
+        assertEquals(4, executor.getInstructionBudgetTrips());
+        assertEquals(0, executor.getTimeBudgetTrips());
+    }
+
+    @Test
+    void testJitBudget() {
+        executor.setJitCompiler(new JitCompiler(executorMap, 1));
+        executor.setBudget(ExecutionBudget.ofInstructions(1000));
+        var spin = script("spin", new int[]{BRANCH}, new Object[]{-1}, 0, 0, 0, 0);
+        var runtime = executor.getPool().pop();
+        assertSame(runtime, executor.execute(runtime, spin));
+        assertNotNull(spin.getCompiled());
+        assertEquals(Preemption.INSTRUCTION_BUDGET, runtime.getPreemption());
+        assertEquals(0, runtime.getAddress());
+        assertSame(runtime, executor.resume(runtime));
+        runtime.reset();
+        var loop = loopScript();
+        executor.setBudget(ExecutionBudget.ofInstructions(20));
+        var result = executor.execute(runtime, loop);
+        while (result != null) {
+            result = executor.resume(runtime);
+        }
+        assertNotNull(loop.getCompiled());
+        assertEquals(10, runtime.captured);
+    }
+
+    @Test
+    void testTimeBudget() {
+        executor.setBudget(ExecutionBudget.ofTime(Duration.ofMillis(5)));
+        var spin = script("spin", new int[]{BRANCH}, new Object[]{-1}, 0, 0, 0, 0);
+        var runtime = executor.getPool().pop();
+        assertSame(runtime, executor.execute(runtime, spin));
+        assertEquals(Preemption.TIME_BUDGET, runtime.getPreemption());
+        assertEquals(1, executor.getTimeBudgetTrips());
+    }
+
+    @Test
+    void testBatch() {
+        var script = script("capture", new int[]{CAPTURE, RETURN}, new Object[2], 0, 0, 0, 0);
+        var result = executor.executeBatch(script, batchSetups(100));
+        assertEquals(100, result.size());
+        assertEquals(75, result.getCompletedCount());
+        assertEquals(25, result.getFailedCount());
+        assertEquals(0, result.getSuspendedCount());
+        assertNotNull(result.getFailure(0));
+        assertTrue(result.isCompleted(1));
+        assertEquals(1, executor.getPool().size());
+        var suspending = script("suspend", new int[]{SUSPEND, RETURN}, new Object[2], 0, 0, 0, 0);
+        result = executor.executeBatch(suspending, List.of(runtime -> {
+        }, runtime -> {
+        }));
+        assertEquals(2, result.getSuspendedCount());
+        assertNotSame(result.getSuspended(0), result.getSuspended(1));
+    }
+
+    @Test
+    void testParallelBatch() {
+        var script = script("capture", new int[]{CAPTURE, RETURN}, new Object[2], 0, 0, 0, 0);
+        var forkJoinPool = new ForkJoinPool(4);
+        try {
+            var result = executor.executeBatch(script, batchSetups(1000), forkJoinPool);
+            assertEquals(750, result.getCompletedCount());
+            assertEquals(250, result.getFailedCount());
+            assertEquals(250, result.getFailures().size());
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    static List<ScriptRuntimeSetup<TestRuntime>> batchSetups(int count) {
+        var setups = new ArrayList<ScriptRuntimeSetup<TestRuntime>>();
+        for (var index = 0; index < count; index++) {
+            var value = index;
+            // every fourth setup leaves the stack empty, which fails the execution.
+            setups.add(runtime -> {
+                if (value % 4 != 0) {
+                    runtime.pushInt(value);
+                }
+            });
+        }
+        return setups;
+    }
+
+    @Test
+    void testCallSitesFollowReload() {
+        var reloadable = new ReloadableScriptCache();
+        var reloadableExecutor = new ScriptExecutor<>(8, reloadable, TestRuntime::new, executorMap);
+        reloadable.addLinker(new CallLinker(executorMap, reloadable, true));
+        var callee = script("callee", new int[]{PUSH_INT_LOCAL, PUSH_INT_LOCAL, ADD, RETURN}, new Object[]{0, 1, null, null}, 2, 0, 2, 0);
+        var caller = script("caller", new int[]{
+                PUSH_CONSTANT_INT, PUSH_CONSTANT_INT, GOSUB_WITH_PARAMS, CAPTURE, RETURN
+        }, new Object[]{10, 20, 1, null, null}, 0, 0, 0, 0);
+        assertThrows(ExecutionException.class, () -> reloadable.put(2, caller));
+        reloadable.putAll(Map.of(1, callee));
+        reloadable.put(2, caller);
+        var runtime = reloadableExecutor.getPool().pop();
+        assertNull(reloadableExecutor.execute(runtime, reloadable.get(2)));
+        assertEquals(30, runtime.captured);
+        reloadable.put(1, script("callee", new int[]{PUSH_CONSTANT_INT, RETURN}, new Object[]{100, null}, 2, 0, 2, 0));
+        runtime.reset();
+        assertNull(reloadableExecutor.execute(runtime, reloadable.get(2)));
+        assertEquals(100, runtime.captured);
+    }
+
+    @Test
+    void testMissingExecutor() {
+        assertThrows(ExecutionException.class, () -> cache.put(1, script("missing", new int[]{12345}, new Object[1], 0, 0, 0, 0)));
+    }
+
+    @Test
+    void testFrozenDispatch() {
+        executorMap.freeze();
+        var caller = gosubScripts();
+        var runtime = executor.getPool().pop();
+        assertNull(executor.execute(runtime, caller));
+        assertEquals(35, runtime.captured);
+        runtime.reset();
+        assertNull(executor.execute(runtime, loopScript()));
+        assertEquals(10, runtime.captured);
+    }
+
+    @Test
+    void testFrozenMissingExecutor() {
+        executorMap.freeze();
+        assertThrows(ExecutionException.class, () -> cache.put(1, script("missing", new int[]{RETURN + 1}, new Object[1], 0, 0, 0, 0)));
+        assertThrows(ExecutionException.class, () -> cache.put(2, script("missing", new int[]{70000}, new Object[1], 0, 0, 0, 0)));
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        // scripts which never entered the cache are validated once the execution enters them.
+        for (var opcode : new int[]{RETURN + 1, 70000, -1}) {
+            var runtime = executor.getPool().pop();
+            assertThrows(ExecutionException.class, () -> executor.execute(runtime, script("uncached", new int[]{opcode}, new Object[1], 0, 0, 0, 0)));
+        }
+    }
+
+    @Test
+    void testUnlinkedCallee() {
+        executorMap.freeze();
+        // the callee is stored without being linked, like a cache that never calls link() would.
+        cache.scripts.put(1, script("unlinked", new int[]{RETURN + 1, RETURN}, new Object[2], 0, 0, 0, 0));
+        var caller = script("caller", new int[]{GOSUB_WITH_PARAMS, RETURN}, new Object[]{1, null}, 0, 0, 0, 0);
+        var runtime = executor.getPool().pop();
+        assertThrows(ExecutionException.class, () -> executor.execute(runtime, caller));
+        assertSame(executorMap, caller.getValidatedMap());
+        assertNull(cache.scripts.get(1).getValidatedMap());
+    }
+
+    Script gosubScripts() {
+        // callee(int $a, int $b) { return calc($a + $b); }
+        cache.put(1, script("callee", new int[]{PUSH_INT_LOCAL, PUSH_INT_LOCAL, ADD, RETURN},
+                new Object[]{0, 1, null, null}, 2, 0, 2, 0));
+        // int $x = 5; int $y = ~callee(10, 20); capture($x + $y);
+        return script("caller", new int[]{
+                PUSH_CONSTANT_INT, POP_INT_LOCAL,
+                PUSH_CONSTANT_INT, PUSH_CONSTANT_INT, GOSUB_WITH_PARAMS, POP_INT_LOCAL,
+                PUSH_INT_LOCAL, PUSH_INT_LOCAL, ADD, CAPTURE, RETURN
+        }, new Object[]{5, 0, 10, 20, 1, 1, 0, 1, null, null, null}, 2, 0, 0, 0);
+    }
+
+    static Script loopScript() {
+        // int $i = 0; while ($i < 10) { $i = $i + 1; } capture($i);
+        return script("loop", new int[]{
+                PUSH_CONSTANT_INT, POP_INT_LOCAL,
+                PUSH_INT_LOCAL, PUSH_CONSTANT_INT, BRANCH_LESS_THAN, BRANCH,
+                PUSH_INT_LOCAL, PUSH_CONSTANT_INT, ADD, POP_INT_LOCAL, BRANCH,
+                PUSH_INT_LOCAL, CAPTURE, RETURN
+        }, new Object[]{0, 0, 0, 10, 1, 5, 0, 1, null, 0, -9, 0, null, null}, 1, 0, 0, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Script script(String name, int[] instructions, Object[] operands, int numIntLocals, int numStringLocals, int numIntArguments, int numStringArguments) {
+        return new Script(name, instructions, operands, numIntLocals, numStringLocals, 0, numIntArguments, numStringArguments, 0, new Hashtable[0]);
+    }
+
+    static final class TestCache extends ScriptCache {
+
+        final Map<Integer, Script> scripts = new HashMap<>();
+
+        void put(int id, Script script) {
+            scripts.put(id, link(script));
+        }
+
+        @Override
+        public Script get(int id) {
+            return scripts.get(id);
+        }
+
+        @Override
+        public Script get(String name) {
+            return scripts.values().stream().filter(script -> script.getName().equals(name)).findFirst().orElse(null);
+        }
+    }
+
+    static final class TestRuntime extends ScriptRuntime {
+
+        int captured;
+
+        TestRuntime(ScriptRuntimePool<TestRuntime> pool) {
+            super(pool);
+        }
+    }
+}
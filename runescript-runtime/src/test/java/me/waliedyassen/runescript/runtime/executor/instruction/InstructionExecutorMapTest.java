@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.instruction;
+
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.script.Script;
+import org.junit.jupiter.api.Test;
+
+import java.util.Hashtable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstructionExecutorMapTest {
+
+    @Test
+    void testFrozenLookup() {
+        var map = new InstructionExecutorMap();
+        map.register(0, CoreOps.PUSH_CONSTANT_INT);
+        map.register(21, CoreOps.RETURN);
+        assertFalse(map.isFrozen());
+        assertNull(map.getExecutors());
+        map.freeze();
+        assertTrue(map.isFrozen());
+        var executors = map.getExecutors();
+        assertEquals(22, executors.length);
+        assertSame(CoreOps.PUSH_CONSTANT_INT, executors[0]);
+        assertSame(CoreOps.RETURN, executors[21]);
+        assertSame(CoreOps.RETURN, map.lookup(21));
+        assertNull(map.lookup(1));
+        assertNull(map.lookup(-1));
+        assertNull(map.lookup(22));
+        assertThrows(IllegalStateException.class, () -> map.register(1, CoreOps.BRANCH));
+        assertThrows(IllegalStateException.class, map::freeze);
+    }
+
+    @Test
+    void testRegisterNumbering() {
+        var map = new InstructionExecutorMap();
+        assertEquals(0, map.register(CoreOps.PUSH_CONSTANT_INT));
+        assertEquals(1, map.register(CoreOps.PUSH_CONSTANT_STRING));
+        map.register(40, CoreOps.GOSUB_WITH_PARAMS);
+        assertEquals(41, map.register(CoreOps.RETURN));
+        assertSame(CoreOps.RETURN, map.lookup(41));
+        assertThrows(IllegalArgumentException.class, () -> map.register(40, CoreOps.BRANCH));
+    }
+
+    @Test
+    void testFreezeRejectsLargeOpcodes() {
+        var map = new InstructionExecutorMap();
+        map.register(InstructionExecutorMap.MAX_FROZEN_OPCODE, CoreOps.RETURN);
+        map.freeze();
+        assertEquals(InstructionExecutorMap.MAX_FROZEN_OPCODE + 1, map.getExecutors().length);
+        var large = new InstructionExecutorMap();
+        large.register(InstructionExecutorMap.MAX_FROZEN_OPCODE + 1, CoreOps.RETURN);
+        assertThrows(IllegalStateException.class, large::freeze);
+        assertFalse(large.isFrozen());
+        var negative = new InstructionExecutorMap();
+        negative.register(-1, CoreOps.RETURN);
+        assertThrows(IllegalStateException.class, negative::freeze);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testValidate() {
+        var map = new InstructionExecutorMap();
+        map.register(21, CoreOps.RETURN);
+        map.freeze();
+        map.validate(new Script("valid", new int[]{21}, new Object[1], 0, 0, 0, 0, 0, 0, new Hashtable[0]));
+        assertThrows(ExecutionException.class, () -> map.validate(new Script("invalid", new int[]{21, 70000}, new Object[2], 0, 0, 0, 0, 0, 0, new Hashtable[0])));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.executor.linker;
+
+import me.waliedyassen.runescript.runtime.executor.ExecutionException;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.impl.MathOps;
+import me.waliedyassen.runescript.runtime.executor.impl.UncheckedOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Hashtable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptVerifierTest {
+
+    static final int PUSH_CONSTANT_INT = 0;
+    static final int PUSH_CONSTANT_STRING = 3;
+    static final int PUSH_INT_LOCAL = 33;
+    static final int POP_INT_LOCAL = 34;
+    static final int POP_STRING_LOCAL = 36;
+    static final int BRANCH = 6;
+    static final int BRANCH_LESS_THAN = 9;
+    static final int RETURN = 21;
+    static final int JOIN_STRING = 37;
+    static final int GOSUB_WITH_PARAMS = 40;
+    static final int SWITCH = 60;
+    static final int ADD = 4000;
+    static final int CUSTOM = 9000;
+
+    static final InstructionExecutor<?> CUSTOM_EXECUTOR = runtime -> runtime.pushInt(1);
+
+    InstructionExecutorMap executorMap;
+    ScriptVerifier verifier;
+
+    @BeforeEach
+    void setupVerifier() {
+        executorMap = new InstructionExecutorMap();
+        executorMap.register(PUSH_CONSTANT_INT, CoreOps.PUSH_CONSTANT_INT);
+        executorMap.register(PUSH_CONSTANT_STRING, CoreOps.PUSH_CONSTANT_STRING);
+        executorMap.register(PUSH_INT_LOCAL, CoreOps.PUSH_INT_LOCAL);
+        executorMap.register(POP_INT_LOCAL, CoreOps.POP_INT_LOCAL);
+        executorMap.register(POP_STRING_LOCAL, CoreOps.POP_STRING_LOCAL);
+        executorMap.register(BRANCH, CoreOps.BRANCH);
+        executorMap.register(BRANCH_LESS_THAN, CoreOps.BRANCH_LESS_THAN);
+        executorMap.register(RETURN, CoreOps.RETURN);
+        executorMap.register(JOIN_STRING, CoreOps.JOIN_STRING);
+        executorMap.register(GOSUB_WITH_PARAMS, CoreOps.GOSUB_WITH_PARAMS);
+        executorMap.register(SWITCH, CoreOps.SWITCH);
+        executorMap.register(ADD, MathOps.ADD);
+        executorMap.register(CUSTOM, CUSTOM_EXECUTOR);
+        verifier = new ScriptVerifier(executorMap);
+    }
+
+    @Test
+    void testLoop() {
+        var script = script(new int[]{
+                PUSH_CONSTANT_INT, POP_INT_LOCAL,
+                PUSH_INT_LOCAL, PUSH_CONSTANT_INT, BRANCH_LESS_THAN, BRANCH,
+                PUSH_INT_LOCAL, PUSH_CONSTANT_INT, ADD, POP_INT_LOCAL, BRANCH,
+                RETURN
+        }, new Object[]{0, 0, 0, 10, 1, 5, 0, 1, null, 0, -9, null}, 1, 0);
+        var linked = verifier.link(script);
+        assertEquals(1, verifier.getVerifiedCount());
+        assertEquals(0, verifier.getPartiallyVerifiedCount());
+        assertSame(UncheckedOps.POP_INT_LOCAL, executorMap.lookup(linked.getInstructions()[1]));
+        assertSame(UncheckedOps.BRANCH_LESS_THAN, executorMap.lookup(linked.getInstructions()[4]));
+        assertSame(UncheckedOps.ADD, executorMap.lookup(linked.getInstructions()[8]));
+        assertSame(UncheckedOps.POP_INT_LOCAL, executorMap.lookup(linked.getInstructions()[9]));
+        assertSame(CoreOps.PUSH_INT_LOCAL, executorMap.lookup(linked.getInstructions()[2]));
+        assertEquals(4, verifier.getUncheckedSiteCount());
+    }
+
+    @Test
+    void testBranchOutOfRange() {
+        var script = script(new int[]{BRANCH, RETURN}, new Object[]{5, null}, 0, 0);
+        assertThrows(ExecutionException.class, () -> verifier.link(script));
+    }
+
+    @Test
+    void testBranchToEnd() {
+        var script = script(new int[]{BRANCH, RETURN}, new Object[]{0, null}, 0, 0);
+        assertSame(script, verifier.link(script));
+    }
+
+    @Test
+    void testLocalOutOfRange() {
+        var script = script(new int[]{PUSH_INT_LOCAL, POP_INT_LOCAL, RETURN}, new Object[]{0, 1, null}, 1, 0);
+        assertThrows(ExecutionException.class, () -> verifier.link(script));
+    }
+
+    @Test
+    void testStackUnderflow() {
+        var script = script(new int[]{PUSH_CONSTANT_INT, ADD, RETURN}, new Object[]{1, null, null}, 0, 0);
+        assertThrows(ExecutionException.class, () -> verifier.link(script));
+    }
+
+    @Test
+    void testInconsistentDepths() {
+        // one path pushes an extra value before both paths meet at the return.
+        var script = script(new int[]{
+                PUSH_CONSTANT_INT, PUSH_CONSTANT_INT, BRANCH_LESS_THAN, PUSH_CONSTANT_INT, RETURN
+        }, new Object[]{0, 1, 1, 7, null}, 0, 0);
+        assertThrows(ExecutionException.class, () -> verifier.link(script));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSwitch() {
+        var table = new Hashtable<Integer, Integer>();
+        table.put(1, 1);
+        var instructions = new int[]{PUSH_INT_LOCAL, SWITCH, RETURN, PUSH_CONSTANT_INT, POP_INT_LOCAL, RETURN};
+        var operands = new Object[]{0, 0, null, 5, 0, null};
+        var script = new Script("switch", instructions, operands, 1, 0, 0, 0, 0, 0, new Hashtable[]{table});
+        var linked = verifier.link(script);
+        assertSame(UncheckedOps.SWITCH, executorMap.lookup(linked.getInstructions()[1]));
+        assertSame(UncheckedOps.POP_INT_LOCAL, executorMap.lookup(linked.getInstructions()[4]));
+        assertEquals(2, verifier.getUncheckedSiteCount());
+        var missing = new Script("missing", instructions, operands, 1, 0, 0, 0, 0, 0, new Hashtable[1]);
+        assertThrows(ExecutionException.class, () -> verifier.link(missing));
+    }
+
+    @Test
+    void testJoinString() {
+        var script = script(new int[]{
+                PUSH_CONSTANT_STRING, PUSH_CONSTANT_STRING, JOIN_STRING, POP_STRING_LOCAL, RETURN
+        }, new Object[]{"a", "b", 2, 0, null}, 0, 1);
+        var linked = verifier.link(script);
+        assertSame(UncheckedOps.JOIN_STRING, executorMap.lookup(linked.getInstructions()[2]));
+        var underflow = script(new int[]{PUSH_CONSTANT_STRING, JOIN_STRING, RETURN}, new Object[]{"a", 2, null}, 0, 0);
+        assertThrows(ExecutionException.class, () -> verifier.link(underflow));
+    }
+
+    @Test
+    void testGosubLeavesDepthsUnknown() {
+        var script = script(new int[]{
+                GOSUB_WITH_PARAMS, JOIN_STRING, POP_STRING_LOCAL, RETURN
+        }, new Object[]{1, 2, 0, null}, 0, 1);
+        var linked = verifier.link(script);
+        assertSame(CoreOps.JOIN_STRING, executorMap.lookup(linked.getInstructions()[1]));
+        assertSame(CoreOps.POP_STRING_LOCAL, executorMap.lookup(linked.getInstructions()[2]));
+        assertEquals(1, verifier.getPartiallyVerifiedCount());
+    }
+
+    @Test
+    void testDeclaredEffect() {
+        var script = script(new int[]{CUSTOM, POP_INT_LOCAL, RETURN}, new Object[]{null, 0, null}, 1, 0);
+        verifier.link(script);
+        assertEquals(1, verifier.getPartiallyVerifiedCount());
+        verifier.declare(CUSTOM_EXECUTOR, StackEffect.ints(0, 1));
+        verifier.link(script);
+        assertEquals(1, verifier.getVerifiedCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Script script(int[] instructions, Object[] operands, int numIntLocals, int numStringLocals) {
+        return new Script("test", instructions, operands, numIntLocals, numStringLocals, 0, 0, 0, 0, new Hashtable[0]);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.scheduler;
+
+import me.waliedyassen.runescript.runtime.ScriptRuntime;
+import me.waliedyassen.runescript.runtime.ScriptRuntimePool;
+import me.waliedyassen.runescript.runtime.cache.ScriptCache;
+import me.waliedyassen.runescript.runtime.executor.ExecutionBudget;
+import me.waliedyassen.runescript.runtime.executor.ScriptExecutor;
+import me.waliedyassen.runescript.runtime.executor.impl.CoreOps;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutor;
+import me.waliedyassen.runescript.runtime.executor.instruction.InstructionExecutorMap;
+import me.waliedyassen.runescript.runtime.script.Script;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Hashtable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptSchedulerTest {
+
+    static final int PUSH_CONSTANT_INT = 0;
+    static final int RETURN = 21;
+    static final int CAPTURE = 9000;
+    static final int SUSPEND = 9001;
+
+    ScriptExecutor<TestRuntime> executor;
+    AtomicInteger suspensions;
+
+    @BeforeEach
+    void setupExecutor() {
+        var executorMap = new InstructionExecutorMap();
+        executorMap.register(PUSH_CONSTANT_INT, CoreOps.PUSH_CONSTANT_INT);
+        executorMap.register(RETURN, CoreOps.RETURN);
+        executorMap.register(CAPTURE, (InstructionExecutor<TestRuntime>) runtime -> runtime.captured += runtime.popInt());
+        executorMap.register(SUSPEND, (InstructionExecutor<TestRuntime>) ScriptRuntime::abort);
+        executor = new ScriptExecutor<>(8, new TestCache(), TestRuntime::new, executorMap);
+        suspensions = new AtomicInteger();
+    }
+
+    @Test
+    void testPark() {
+        var scheduler = new ScriptScheduler<>(executor, (owner, runtime) -> fail());
+        var runtime = suspended();
+        scheduler.park(runtime, 3);
+        assertEquals(1, scheduler.size());
+        assertEquals(0, scheduler.tick());
+        assertEquals(0, scheduler.tick());
+        assertEquals(1, scheduler.tick());
+        assertEquals(7, runtime.captured);
+        assertEquals(0, scheduler.size());
+        assertEquals(1, scheduler.getCompletedCount());
+    }
+
+    @Test
+    void testParkPastWheelSize() {
+        var scheduler = new ScriptScheduler<>(executor, (owner, runtime) -> fail(), 4, null);
+        scheduler.park(suspended(), 10);
+        for (var tick = 1; tick < 10; tick++) {
+            assertEquals(0, scheduler.tick());
+        }
+        assertEquals(1, scheduler.tick());
+    }
+
+    @Test
+    void testSignal() {
+        var scheduler = new ScriptScheduler<>(executor, (owner, runtime) -> fail());
+        var signalled = suspended();
+        var timedOut = suspended();
+        scheduler.parkUntil(signalled, "signal", 5);
+        scheduler.parkUntil(timedOut, "other", 2);
+        assertEquals(1, scheduler.signal("signal"));
+        assertEquals(0, scheduler.signal("signal"));
+        assertEquals(1, scheduler.tick());
+        assertEquals(7, signalled.captured);
+        assertEquals(1, scheduler.tick());
+        assertEquals(7, timedOut.captured);
+        assertEquals(1, scheduler.getTimedOutCount());
+        assertEquals(0, scheduler.signal("other"));
+        for (var tick = 0; tick < 5; tick++) {
+            assertEquals(0, scheduler.tick());
+        }
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void testListener() {
+        var scheduler = new ScriptScheduler<>(executor, (owner, runtime) -> {
+            suspensions.incrementAndGet();
+            owner.park(runtime, 1);
+        });
+        var runtime = executor.getPool().pop();
+        var script = script("twice", new int[]{SUSPEND, SUSPEND, PUSH_CONSTANT_INT, CAPTURE, RETURN}, new Object[]{null, null, 7, null, null});
+        assertSame(runtime, executor.execute(runtime, script));
+        scheduler.park(runtime, 1);
+        assertEquals(1, scheduler.tick());
+        assertEquals(1, suspensions.get());
+        assertEquals(1, scheduler.tick());
+        assertEquals(7, runtime.captured);
+    }
+
+    @Test
+    void testPreemptedRuntimesAreRescheduled() {
+        executor.setBudget(ExecutionBudget.ofInstructions(2));
+        var scheduler = new ScriptScheduler<>(executor, (owner, runtime) -> fail());
+        var runtime = executor.getPool().pop();
+        var script = script("slow", new int[]{PUSH_CONSTANT_INT, PUSH_CONSTANT_INT, CAPTURE, CAPTURE, RETURN}, new Object[]{3, 4, null, null, null});
+        assertSame(runtime, executor.execute(runtime, script));
+        scheduler.park(runtime, 1);
+        assertEquals(1, scheduler.tick());
+        assertEquals(1, scheduler.size());
+        assertEquals(1, scheduler.tick());
+        assertEquals(7, runtime.captured);
+        assertEquals(1, scheduler.getCompletedCount());
+    }
+
+    @Test
+    void testResumeExecutor() {
+        var threads = Executors.newFixedThreadPool(4);
+        try {
+            var scheduler = new ScriptScheduler<>(executor, (owner, runtime) -> fail(), 16, threads);
+            for (var index = 0; index < 100; index++) {
+                scheduler.park(suspended(), 1);
+            }
+            assertEquals(100, scheduler.tick());
+            assertEquals(100, scheduler.getCompletedCount());
+            assertEquals(0, scheduler.getFailedCount());
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    TestRuntime suspended() {
+        var runtime = executor.getPool().pop();
+        var script = script("suspend", new int[]{SUSPEND, PUSH_CONSTANT_INT, CAPTURE, RETURN}, new Object[]{null, 7, null, null});
+        assertSame(runtime, executor.execute(runtime, script));
+        return runtime;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Script script(String name, int[] instructions, Object[] operands) {
+        return new Script(name, instructions, operands, 0, 0, 0, 0, 0, 0, new Hashtable[0]);
+    }
+
+    static final class TestCache extends ScriptCache {
+
+        @Override
+        public Script get(int id) {
+            return null;
+        }
+
+        @Override
+        public Script get(String name) {
+            return null;
+        }
+    }
+
+    static final class TestRuntime extends ScriptRuntime {
+
+        int captured;
+
+        TestRuntime(ScriptRuntimePool<TestRuntime> pool) {
+            super(pool);
+        }
+    }
+}
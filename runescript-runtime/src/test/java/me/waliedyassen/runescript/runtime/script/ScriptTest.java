@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Hashtable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOperandDecoding() {
+        var operands = new Object[]{5, "hello", 7L, null, "hello", -3};
+        var script = new Script("test", new int[operands.length], operands, 0, 0, 0, 0, 0, 0, new Hashtable[0]);
+        var intOperands = script.getIntOperands();
+        assertEquals(5, intOperands[0]);
+        assertEquals("hello", script.getStringPool()[intOperands[1]]);
+        assertEquals(7L, script.getLongPool()[intOperands[2]]);
+        assertEquals(0, intOperands[3]);
+        assertEquals(intOperands[1], intOperands[4]);
+        assertEquals(-3, intOperands[5]);
+        assertEquals(1, script.getStringPool().length);
+        assertEquals(1, script.getLongPool().length);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStackDepths() {
+        var script = new Script("test", new int[1], new Object[1], 0, 0, 0, 0, 0, 0, new Hashtable[0], 3, 40, 2);
+        assertEquals(3, script.getMaxIntStackDepth());
+        assertEquals(40, script.getMaxStringStackDepth());
+        assertEquals(2, script.getMaxLongStackDepth());
+        assertEquals(40, script.getMaxStackDepth());
+        var unknown = new Script("test", new int[1], new Object[1], 0, 0, 0, 0, 0, 0, new Hashtable[0]);
+        assertEquals(0, unknown.getMaxStackDepth());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUnsupportedOperand() {
+        assertThrows(IllegalArgumentException.class, () -> new Script("test", new int[1], new Object[]{1.0}, 0, 0, 0, 0, 0, 0, new Hashtable[0]));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020 Walied K. Yassen, All rights reserved.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package me.waliedyassen.runescript.runtime.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwitchTableTest {
+
+    @Test
+    void testDense() {
+        var table = SwitchTable.of(Map.of(10, 1, 11, 5, 13, 9));
+        assertTrue(table.isDense());
+        assertEquals(3, table.size());
+        assertEquals(1, table.lookup(10));
+        assertEquals(5, table.lookup(11));
+        assertEquals(SwitchTable.NO_CASE, table.lookup(12));
+        assertEquals(9, table.lookup(13));
+        assertEquals(SwitchTable.NO_CASE, table.lookup(9));
+        assertEquals(SwitchTable.NO_CASE, table.lookup(14));
+        assertEquals(SwitchTable.NO_CASE, table.lookup(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void testSparse() {
+        var table = SwitchTable.of(Map.of(-100000, 3, 7, 0, 500000, -4, Integer.MAX_VALUE, 8));
+        assertFalse(table.isDense());
+        assertEquals(3, table.lookup(-100000));
+        assertEquals(0, table.lookup(7));
+        assertEquals(-4, table.lookup(500000));
+        assertEquals(8, table.lookup(Integer.MAX_VALUE));
+        assertEquals(SwitchTable.NO_CASE, table.lookup(8));
+    }
+
+    @Test
+    void testEmpty() {
+        var table = SwitchTable.of(Map.of());
+        assertEquals(0, table.size());
+        assertEquals(SwitchTable.NO_CASE, table.lookup(0));
+    }
+}